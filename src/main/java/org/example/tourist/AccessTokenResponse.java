@@ -0,0 +1,28 @@
+package org.example.tourist;
+
+/**
+ * Ответ на вход в REST API: токен доступа, его тип и срок действия в секундах.
+ * Токен передаётся в заголовке {@code Authorization: Bearer <токен>}.
+ */
+public class AccessTokenResponse {
+
+    private final String accessToken;
+    private final long expiresIn;
+
+    public AccessTokenResponse(String accessToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getTokenType() {
+        return "Bearer";
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
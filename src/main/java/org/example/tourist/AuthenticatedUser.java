@@ -0,0 +1,25 @@
+package org.example.tourist;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Аутентифицированный пользователь: данные Spring Security и ID пользователя в базе.
+ * Хранится в контексте безопасности и в сессии, поэтому текущего пользователя можно получить по ID
+ * без поиска по имени (см. {@link CurrentUser}).
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
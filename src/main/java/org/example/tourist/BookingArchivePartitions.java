@@ -0,0 +1,108 @@
+package org.example.tourist;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Секционирование архивных таблиц бронирований по месяцам.
+ * В MySQL таблицы архива секционируются диапазонами по дате бронирования: одна секция на месяц
+ * и секция {@value #MAX_PARTITION} для всех более поздних дат. Запросы с условием на дату читают только
+ * нужные секции, а старые месяцы можно удалить целиком через DROP PARTITION.
+ * Секции месяцев добавляются перед переносом бронирований в архив, пока секция {@value #MAX_PARTITION}
+ * пуста, поэтому её разделение не перемещает данные. В других СУБД секционирование не выполняется.
+ * Выполняется после обновления схемы Hibernate; DDL в MySQL фиксирует текущую транзакцию,
+ * поэтому методы нельзя вызывать внутри транзакции.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class BookingArchivePartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingArchivePartitions.class);
+
+    /** Секционируемые таблицы архива; в каждой есть столбец booking_date */
+    public static final List<String> TABLES = List.of("bookings_archive", "booking_tour_packages_archive");
+
+    /** Секция для дат после последнего месяца */
+    private static final String MAX_PARTITION = "p_max";
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private boolean enabled;
+
+    public BookingArchivePartitions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Секционирует таблицы архива, если они ещё не секционированы.
+     */
+    @PostConstruct
+    public void partitionTables() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        enabled = "MySQL".equalsIgnoreCase(product);
+        if (!enabled) {
+            log.info("Секционирование архива бронирований не поддерживается для {}", product);
+            return;
+        }
+        for (String table : TABLES) {
+            if (partitionNames(table).isEmpty()) {
+                // Имена таблиц берутся из константы, поэтому подстановка в запрос безопасна
+                jdbcTemplate.execute("ALTER TABLE " + table + " PARTITION BY RANGE COLUMNS(booking_date) (PARTITION "
+                        + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+                log.info("Таблица {} секционирована по дате бронирования", table);
+            }
+        }
+    }
+
+    /**
+     * Добавляет секции месяцев до указанного включительно.
+     * Если секций месяцев ещё нет, первой создаётся секция месяца {@code from}; в неё попадают и все более ранние даты.
+     *
+     * @param from первый месяц, для которого нужна секция
+     * @param to последний месяц, для которого нужна секция
+     */
+    public synchronized void ensureMonths(YearMonth from, YearMonth to) {
+        if (!enabled) {
+            return;
+        }
+        for (String table : TABLES) {
+            YearMonth next = from;
+            for (String name : partitionNames(table)) {
+                if (!name.equals(MAX_PARTITION)) {
+                    YearMonth month = YearMonth.parse(name.substring(1), MONTH_FORMAT);
+                    if (!month.isBefore(next)) {
+                        next = month.plusMonths(1);
+                    }
+                }
+            }
+            if (next.isAfter(to)) {
+                continue;
+            }
+            StringBuilder ddl = new StringBuilder("ALTER TABLE ").append(table)
+                    .append(" REORGANIZE PARTITION ").append(MAX_PARTITION).append(" INTO (");
+            for (YearMonth month = next; !month.isAfter(to); month = month.plusMonths(1)) {
+                ddl.append("PARTITION p").append(month.format(MONTH_FORMAT))
+                        .append(" VALUES LESS THAN ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+            }
+            ddl.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+            jdbcTemplate.execute(ddl.toString());
+            log.info("В таблицу {} добавлены секции с {} по {}", table, next, to);
+        }
+    }
+
+    private List<String> partitionNames(String table) {
+        return jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", String.class, table);
+    }
+}
@@ -1,5 +1,12 @@
 package org.example.tourist;
 
+import java.util.Objects;
+
+/**
+ * Данные запроса на создание бронирования.
+ * Равенство по всем полям: повтор запроса с тем же ключом идемпотентности сравнивается с первым запросом,
+ * поэтому новые поля нужно учитывать в {@link #equals(Object)} и {@link #hashCode()}.
+ */
 public class BookingDto {
     private Integer totalAmount;
 
@@ -11,4 +18,20 @@ public class BookingDto {
     public void setTotalAmount(Integer totalAmount) {
         this.totalAmount = totalAmount;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookingDto that)) {
+            return false;
+        }
+        return Objects.equals(totalAmount, that.totalAmount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(totalAmount);
+    }
+}
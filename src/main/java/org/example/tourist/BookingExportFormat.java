@@ -0,0 +1,53 @@
+package org.example.tourist;
+
+/**
+ * Форматы выгрузки бронирований.
+ */
+public enum BookingExportFormat {
+    /** Значения через запятую, первая строка — заголовок */
+    CSV("csv", "text/csv"),
+    /** Один JSON-объект на строку */
+    NDJSON("ndjson", "application/x-ndjson");
+
+    private final String extension;
+    private final String contentType;
+
+    BookingExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Получает расширение файла выгрузки.
+     *
+     * @return расширение без точки
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Получает MIME-тип выгрузки.
+     *
+     * @return MIME-тип без кодировки
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Находит формат по значению параметра запроса.
+     *
+     * @param value имя формата без учёта регистра (например, "csv")
+     * @return формат выгрузки
+     * @throws IllegalArgumentException если формат не поддерживается
+     */
+    public static BookingExportFormat fromParameter(String value) {
+        for (BookingExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Формат выгрузки не поддерживается: " + value);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.tourist;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Параметры запроса к списку бронирований: фильтры и пагинация.
+ * Заполняется из параметров HTTP-запроса; все фильтры необязательны.
+ */
+public class BookingQuery {
+
+    /** Статус бронирования (null — любой) */
+    private BookingStatus status;
+
+    /** Первый день периода оформления (включительно) */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    /** Последний день периода оформления (включительно) */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    /** Имя пользователя, оформившего бронирование */
+    private String username;
+
+    /** Курсор следующей страницы */
+    private String cursor;
+
+    /** Размер страницы */
+    private int size = 20;
+
+    // Геттеры и сеттеры
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BookingStatus status) {
+        this.status = status;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -4,6 +4,22 @@ public enum BookingStatus {
     CREATED,
     CONFIRMED,
     CANCELLED,
-    COMPLETED
-}
+    COMPLETED;
 
+    /**
+     * Проверяет, допустим ли переход бронирования из этого статуса в указанный.
+     * Подтвердить можно только созданное бронирование, завершить — только подтверждённое,
+     * отменить — любое незавершённое; вернуть бронирование в статус {@link #CREATED} нельзя.
+     *
+     * @param target новый статус бронирования
+     * @return true, если переход допустим
+     */
+    public boolean canChangeTo(BookingStatus target) {
+        return switch (target) {
+            case CONFIRMED -> this == CREATED;
+            case COMPLETED -> this == CONFIRMED;
+            case CANCELLED -> this != COMPLETED;
+            case CREATED -> false;
+        };
+    }
+}
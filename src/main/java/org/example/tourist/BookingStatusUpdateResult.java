@@ -0,0 +1,51 @@
+package org.example.tourist;
+
+/**
+ * Результат изменения статуса одного бронирования в пакетном обновлении.
+ */
+public class BookingStatusUpdateResult {
+
+    /**
+     * Итог обработки элемента пакета.
+     */
+    public enum Outcome {
+        /** Статус изменён */
+        UPDATED,
+        /** Бронирование не найдено */
+        NOT_FOUND,
+        /** Переход из текущего статуса в запрошенный недопустим */
+        REJECTED,
+        /** Элемент не содержит ID или статуса либо повторяет ID предыдущего элемента */
+        INVALID
+    }
+
+    private final Long bookingId;
+    private final BookingStatus status;
+    private final Outcome outcome;
+    private final BookingStatus previousStatus;
+
+    public BookingStatusUpdateResult(Long bookingId, BookingStatus status, Outcome outcome, BookingStatus previousStatus) {
+        this.bookingId = bookingId;
+        this.status = status;
+        this.outcome = outcome;
+        this.previousStatus = previousStatus;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    /** Запрошенный статус */
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /** Статус бронирования до обновления (null, если бронирование не найдено) */
+    public BookingStatus getPreviousStatus() {
+        return previousStatus;
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.tourist;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Представление бронирования для списков: поля бронирования, имя пользователя и названия туров.
+ * Заполняется проекцией запроса, без загрузки сущностей пользователя и туров.
+ */
+public class BookingView {
+
+    private final Long id;
+    private final String username;
+    private final Date bookingDate;
+    private final Integer totalAmount;
+    private final BookingStatus status;
+    private final List<TourPackageRef> tourPackages = new ArrayList<>();
+
+    public BookingView(Long id, String username, Date bookingDate, Integer totalAmount, BookingStatus status) {
+        this.id = id;
+        this.username = username;
+        this.bookingDate = bookingDate;
+        this.totalAmount = totalAmount;
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getBookingDate() {
+        return bookingDate;
+    }
+
+    public Integer getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public List<TourPackageRef> getTourPackages() {
+        return tourPackages;
+    }
+
+    /**
+     * Тур бронирования: ID и название.
+     */
+    public static class TourPackageRef {
+        private final Long id;
+        private final String name;
+
+        public TourPackageRef(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package org.example.tourist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш в памяти процесса с чтением через загрузчик.
+ * Записи старше заданного времени жизни считаются отсутствующими; при превышении размера
+ * пачкой вытесняются самые давно не использовавшиеся записи.
+ * Кэш считает попадания, промахи и вытеснения для мониторинга.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class BoundedCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Номер поколения, увеличивается при каждой инвалидации.
+     * Значение, загруженное до инвалидации, не попадает в кэш, даже если загрузка завершилась после неё.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Конструктор для инициализации кэша.
+     *
+     * @param maxSize максимальное количество записей
+     * @param ttlMillis время жизни записи в миллисекундах
+     */
+    public BoundedCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Конструктор для инициализации кэша с заданным источником времени.
+     *
+     * @param maxSize максимальное количество записей
+     * @param ttlMillis время жизни записи в миллисекундах
+     * @param clock источник текущего времени в миллисекундах
+     */
+    public BoundedCache(int maxSize, long ttlMillis, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Получает значение из кэша, загружая его при отсутствии.
+     * Null, возвращённый загрузчиком, не кэшируется.
+     *
+     * @param key ключ
+     * @param loader загрузчик значения по ключу
+     * @return значение из кэша или загруженное значение
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && !isExpired(entry, now)) {
+            entry.lastAccessTime = now;
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        long loadGeneration = generation.get();
+        V value = loader.apply(key);
+        if (value != null) {
+            put(key, value, loadGeneration, now);
+        }
+        return value;
+    }
+
+    /**
+     * Получает значение из кэша без загрузки.
+     *
+     * @param key ключ
+     * @return {@link Optional} со значением, если оно есть в кэше и не истекло
+     */
+    public Optional<V> getIfPresent(K key) {
+        long now = clock.getAsLong();
+        Entry<V> entry = entries.get(key);
+        if (entry == null || isExpired(entry, now)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        entry.lastAccessTime = now;
+        hits.increment();
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Удаляет значение по ключу.
+     *
+     * @param key ключ
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * Удаляет все значения.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Возвращает количество записей в кэше, включая ещё не удалённые истекшие.
+     *
+     * @return количество записей
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Возвращает снимок счётчиков кэша.
+     *
+     * @return статистика кэша
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxSize);
+    }
+
+    private void put(K key, V value, long loadGeneration, long now) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom(now);
+        }
+        entries.put(key, new Entry<>(value, now));
+        // Если во время загрузки произошла инвалидация, загруженное значение могло устареть
+        if (generation.get() != loadGeneration) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Освобождает место для новой записи: сначала удаляет истекшие записи,
+     * затем, если лимит всё ещё превышен, — пачку самых давно не использовавшихся.
+     */
+    private void makeRoom(long now) {
+        evictionLock.lock();
+        try {
+            entries.entrySet().removeIf(e -> {
+                if (isExpired(e.getValue(), now)) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            });
+            int excess = entries.size() - maxSize + 1;
+            if (excess <= 0) {
+                return;
+            }
+            int batch = excess + maxSize / 100;
+            // Время обращения фиксируется заранее: во время сортировки записи продолжают читаться
+            List<Map.Entry<K, Long>> candidates = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> candidates.add(Map.entry(key, entry.lastAccessTime)));
+            candidates.sort(Map.Entry.comparingByValue());
+            for (int i = 0; i < batch && i < candidates.size(); i++) {
+                if (entries.remove(candidates.get(i).getKey()) != null) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return now - entry.createdTime > ttlMillis;
+    }
+
+    /**
+     * Запись кэша со временем создания и последнего обращения.
+     */
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdTime;
+        private volatile long lastAccessTime;
+
+        private Entry(V value, long now) {
+            this.value = value;
+            this.createdTime = now;
+            this.lastAccessTime = now;
+        }
+    }
+
+    /**
+     * Снимок счётчиков кэша для мониторинга.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int maxSize;
+
+        public Stats(long hits, long misses, long evictions, int size, int maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * Доля попаданий среди всех обращений.
+         *
+         * @return доля попаданий от 0 до 1 (0, если обращений не было)
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
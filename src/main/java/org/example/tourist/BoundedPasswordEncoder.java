@@ -0,0 +1,176 @@
+package org.example.tourist;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Кодировщик паролей BCrypt, выполняющий хэширование в отдельном пуле потоков ограниченного размера.
+ * Одновременно вычисляется не больше заданного числа хэшей, а очередь ожидающих задач ограничена:
+ * при её переполнении вызов сразу завершается {@link PasswordHashingBusyException} (для асинхронного хэширования —
+ * {@link RejectedExecutionException}), поэтому всплеск входов и регистраций не занимает все потоки обработки
+ * запросов и не вытесняет остальной трафик. Отказ передаётся как исключение аутентификации: при входе он
+ * завершается ошибкой входа, которую можно показать пользователю, а не ошибкой сервера.
+ * Хэш, сохранённый с меньшей стоимостью, чем текущая, считается устаревшим ({@link #upgradeEncoding(String)}),
+ * и Spring Security перехэширует пароль при следующем успешном входе.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    /** Количество замеров при калибровке стоимости; берётся самый быстрый */
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    private final PasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Конструктор для инициализации кодировщика.
+     *
+     * @param strength стоимость BCrypt (логарифм числа раундов)
+     * @param threads количество потоков хэширования
+     * @param queueCapacity максимальное количество задач, ожидающих свободного потока
+     * @throws IllegalArgumentException если количество потоков или размер очереди не положительные
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity) {
+        this(new BCryptPasswordEncoder(strength), strength, threads, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Количество потоков и размер очереди хэширования должны быть положительными");
+        }
+        this.delegate = delegate;
+        this.strength = strength;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Подбирает стоимость BCrypt, при которой вычисление одного хэша на этой машине занимает не больше
+     * заданного времени. Каждая следующая стоимость вдвое дороже предыдущей, поэтому достаточно
+     * замерить минимальную стоимость и выбрать наибольшую, укладывающуюся во время.
+     *
+     * @param targetMillis целевое время вычисления хэша в миллисекундах
+     * @param minStrength минимальная стоимость; выбирается, даже если хэш вычисляется дольше целевого времени
+     * @param maxStrength максимальная стоимость
+     * @return выбранная стоимость
+     * @throws IllegalArgumentException если границы стоимости вне диапазона BCrypt или нарушают порядок
+     */
+    public static int calibrateStrength(long targetMillis, int minStrength, int maxStrength) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Стоимость BCrypt должна быть в диапазоне от 4 до 31");
+        }
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        encoder.encode("calibration"); // прогрев
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int strength = minStrength;
+        for (long nanos = bestNanos * 2; strength < maxStrength && nanos <= targetNanos; nanos *= 2) {
+            strength++;
+        }
+        log.info("Стоимость BCrypt: {} (хэш со стоимостью {} вычисляется за {} мс, цель {} мс)",
+                strength, minStrength, TimeUnit.NANOSECONDS.toMillis(bestNanos), targetMillis);
+        return strength;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Вызывающий поток ждёт результата из пула хэширования.
+     *
+     * @throws PasswordHashingBusyException если очередь хэширования переполнена
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> delegate.encode(rawPassword)));
+    }
+
+    /**
+     * Вычисляет хэш пароля в пуле хэширования, не блокируя вызывающий поток.
+     *
+     * @param rawPassword пароль
+     * @return хэш пароля по готовности
+     * @throws RejectedExecutionException если очередь хэширования переполнена
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return CompletableFuture.supplyAsync(() -> delegate.encode(rawPassword), executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Вызывающий поток ждёт результата из пула хэширования.
+     *
+     * @throws PasswordHashingBusyException если очередь хэширования переполнена
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Получить текущую стоимость BCrypt.
+     *
+     * @return стоимость, с которой вычисляются новые хэши
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Останавливает пул хэширования при закрытии контекста приложения.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingBusyException(e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Ожидание хэширования пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Ошибка хэширования пароля", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.tourist;
+
+import java.util.List;
+
+/**
+ * Страница каталога туристических пакетов вместе со счётчиками фасетов.
+ * Счётчики каждого фасета посчитаны с учётом поискового запроса и всех остальных фильтров, кроме фильтра
+ * по самому фасету, поэтому показывают, сколько пакетов останется при выборе другого диапазона.
+ * Если счётчики недоступны (индекс фасетов ещё не построен), списки фасетов пусты.
+ */
+public class CatalogPage extends CursorPage<TourPackageSummary> {
+
+    private final List<FacetBucket> priceFacets;
+    private final List<FacetBucket> durationFacets;
+    private final long availableCount;
+    private final long unavailableCount;
+
+    public CatalogPage(List<TourPackageSummary> items, String nextCursor, List<FacetBucket> priceFacets,
+                       List<FacetBucket> durationFacets, long availableCount, long unavailableCount) {
+        super(items, nextCursor);
+        this.priceFacets = priceFacets;
+        this.durationFacets = durationFacets;
+        this.availableCount = availableCount;
+        this.unavailableCount = unavailableCount;
+    }
+
+    public List<FacetBucket> getPriceFacets() {
+        return priceFacets;
+    }
+
+    public List<FacetBucket> getDurationFacets() {
+        return durationFacets;
+    }
+
+    public long getAvailableCount() {
+        return availableCount;
+    }
+
+    public long getUnavailableCount() {
+        return unavailableCount;
+    }
+}
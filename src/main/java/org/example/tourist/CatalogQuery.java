@@ -0,0 +1,129 @@
+package org.example.tourist;
+
+/**
+ * Параметры запроса к каталогу туристических пакетов: текстовый поиск, фильтры, сортировка и пагинация.
+ * Заполняется из параметров HTTP-запроса; все фильтры необязательны.
+ */
+public class CatalogQuery {
+
+    /** Поисковый запрос по названию и описанию */
+    private String name;
+
+    /** Минимальная цена (включительно) */
+    private Integer minPrice;
+
+    /** Максимальная цена (включительно) */
+    private Integer maxPrice;
+
+    /** Минимальная длительность в днях (включительно) */
+    private Integer minDuration;
+
+    /** Максимальная длительность в днях (включительно) */
+    private Integer maxDuration;
+
+    /** Фильтр по доступности (null — без фильтра) */
+    private Boolean availability;
+
+    /** Поле сортировки или "relevance" */
+    private String sort = "relevance";
+
+    /** Направление сортировки ("asc" или "desc") */
+    private String direction = "asc";
+
+    /** Курсор следующей страницы */
+    private String cursor;
+
+    /** Размер страницы */
+    private int size = 20;
+
+    /**
+     * Проверяет, задан ли хотя бы один фильтр по полям.
+     *
+     * @return true, если задан фильтр по цене, длительности или доступности
+     */
+    public boolean hasFilters() {
+        return minPrice != null || maxPrice != null || minDuration != null || maxDuration != null || availability != null;
+    }
+
+    // Геттеры и сеттеры
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Integer minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Integer getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Integer maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getMinDuration() {
+        return minDuration;
+    }
+
+    public void setMinDuration(Integer minDuration) {
+        this.minDuration = minDuration;
+    }
+
+    public Integer getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Integer maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public Boolean getAvailability() {
+        return availability;
+    }
+
+    public void setAvailability(Boolean availability) {
+        this.availability = availability;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.tourist;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Помечает параметр метода контроллера типа {@link org.example.tourist.models.User}, в который
+ * передаётся текущий аутентифицированный пользователь.
+ * Если в контексте безопасности находится {@link AuthenticatedUser}, передаётся ссылка на пользователя по ID
+ * без запроса к базе: её можно сохранять в связях сущностей и читать ID, а остальные поля загружаются
+ * при первом обращении.
+ *
+ * @see CurrentUserArgumentResolver
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -0,0 +1,91 @@
+package org.example.tourist;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Страница результатов при курсорной (keyset) пагинации.
+ * Вместо номера страницы клиент передаёт непрозрачный курсор, указывающий на последнюю полученную запись,
+ * поэтому стоимость получения страницы не зависит от её удалённости от начала списка.
+ *
+ * @param <T> тип элементов страницы
+ */
+public class CursorPage<T> {
+
+    /** Разделитель частей курсора */
+    private static final String SEPARATOR = "\u001F";
+
+    /** Префикс непустого значения в курсоре */
+    private static final String VALUE_PREFIX = "=";
+
+    /** Элементы текущей страницы */
+    private final List<T> items;
+
+    /** Курсор для получения следующей страницы или null, если это последняя страница */
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Кодирует части курсора в строку, безопасную для передачи в URL.
+     *
+     * @param parts части курсора (null кодируется как отсутствующее значение)
+     * @return закодированный курсор
+     */
+    public static String encodeCursor(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            // Непустые значения помечаются префиксом, чтобы отличать пустую строку от null
+            if (parts[i] != null) {
+                raw.append(VALUE_PREFIX).append(parts[i]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор, полученный от клиента.
+     *
+     * @param cursor закодированный курсор
+     * @param expectedParts ожидаемое количество частей
+     * @return части курсора (отсутствующие значения возвращаются как null)
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static String[] decodeCursor(String cursor, int expectedParts) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы", e);
+        }
+        String[] parts = raw.split(SEPARATOR, -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+        for (int i = 0; i < parts.length; i++) {
+            if (parts[i].isEmpty()) {
+                parts[i] = null;
+            } else if (parts[i].startsWith(VALUE_PREFIX)) {
+                parts[i] = parts[i].substring(VALUE_PREFIX.length());
+            } else {
+                throw new IllegalArgumentException("Некорректный курсор страницы");
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.tourist;
+
+/**
+ * Диапазон значений фасета (например, цены) и количество пакетов, попадающих в него.
+ */
+public class FacetBucket {
+
+    /** Нижняя граница диапазона (включительно) или null, если диапазон не ограничен снизу */
+    private final Integer from;
+
+    /** Верхняя граница диапазона (не включительно) или null, если диапазон не ограничен сверху */
+    private final Integer to;
+
+    /** Количество пакетов в диапазоне */
+    private final long count;
+
+    public FacetBucket(Integer from, Integer to, long count) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+    }
+
+    public Integer getFrom() {
+        return from;
+    }
+
+    public Integer getTo() {
+        return to;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.tourist;
+
+import jakarta.annotation.PostConstruct;
+import org.example.tourist.models.IdGenerators;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Согласует таблицу генераторов идентификаторов с уже существующими данными.
+ * Строки, созданные до перехода на табличные генераторы, получали идентификаторы через AUTO_INCREMENT,
+ * поэтому при запуске значение каждого генератора поднимается выше максимального ID его таблицы.
+ * Выполняется после обновления схемы Hibernate и до того, как приложение начнёт обрабатывать запросы.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Поднимает значения генераторов выше максимальных ID таблиц сущностей.
+     * Оптимизатор pooled выдаёт блок значений, заканчивающийся значением из таблицы генераторов,
+     * поэтому значение должно превышать максимальный ID не меньше чем на размер блока.
+     */
+    @PostConstruct
+    public void alignGenerators() {
+        for (String table : IdGenerators.ENTITY_TABLES) {
+            // Имена таблиц берутся из константы, поэтому подстановка в запрос безопасна
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long required = maxId + IdGenerators.ALLOCATION_SIZE + 1;
+            int updated = jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN
+                            + " = ? WHERE " + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                    required, table, required);
+            if (updated > 0) {
+                log.info("Генератор идентификаторов {} поднят до {}", table, required);
+                continue;
+            }
+            Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + IdGenerators.TABLE
+                    + " WHERE " + IdGenerators.NAME_COLUMN + " = ?", Integer.class, table);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+                        + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", table, required);
+                log.info("Генератор идентификаторов {} создан со значением {}", table, required);
+            }
+        }
+    }
+}
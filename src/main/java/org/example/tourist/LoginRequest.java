@@ -0,0 +1,26 @@
+package org.example.tourist;
+
+/**
+ * Данные для входа в REST API.
+ */
+public class LoginRequest {
+    private String username;
+    private String password;
+
+    // Геттеры и Сеттеры
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.tourist;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Пароль не удалось проверить: очередь хэширования паролей переполнена.
+ * Это отказ сервиса, а не неверные учётные данные: клиенту предлагается повторить вход позже.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(Throwable cause) {
+        super("Очередь хэширования паролей переполнена", cause);
+    }
+
+    /**
+     * Проверяет, вызвана ли ошибка аутентификации переполнением очереди хэширования.
+     * Исключения, выброшенные при загрузке пользователя, Spring Security оборачивает, поэтому
+     * проверяется вся цепочка причин.
+     *
+     * @param exception исключение аутентификации
+     * @return true, если среди причин есть {@link PasswordHashingBusyException}
+     */
+    public static boolean isCauseOf(Throwable exception) {
+        for (Throwable e = exception; e != null; e = e.getCause()) {
+            if (e instanceof PasswordHashingBusyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.tourist;
+
+import org.example.tourist.models.Review;
+
+import java.time.LocalDateTime;
+
+/**
+ * Представление отзыва для ленты отзывов туристического пакета.
+ * Содержит только имя автора вместо сущности пользователя, поэтому при сериализации
+ * не раскрываются данные учётной записи и не загружаются связанные коллекции.
+ */
+public class ReviewDto {
+
+    private final Long id;
+    private final String username;
+    private final int rating;
+    private final String comment;
+    private final LocalDateTime reviewDate;
+
+    public ReviewDto(Long id, String username, int rating, String comment, LocalDateTime reviewDate) {
+        this.id = id;
+        this.username = username;
+        this.rating = rating;
+        this.comment = comment;
+        this.reviewDate = reviewDate;
+    }
+
+    /**
+     * Создаёт представление по сущности отзыва; пользователь отзыва должен быть загружен.
+     *
+     * @param review сущность отзыва
+     * @return представление отзыва
+     */
+    public static ReviewDto from(Review review) {
+        return new ReviewDto(review.getId(), review.getUser().getUsername(), review.getRating(),
+                review.getComment(), review.getReviewDate());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public LocalDateTime getReviewDate() {
+        return reviewDate;
+    }
+}
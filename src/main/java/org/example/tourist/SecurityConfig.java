@@ -1,17 +1,71 @@
 package org.example.tourist;
 
+import org.example.tourist.services.AccessTokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.DelegatingSecurityContextRepository;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Цепочка фильтров REST API: аутентификация по токену доступа из заголовка Authorization,
+     * без создания сессий. Запрос с токеном проверяется в памяти, поэтому его может обработать любой узел.
+     * Уже существующая сессия браузера (страницы администратора обращаются к API) читается, но новые
+     * сессии для API не создаются. Без аутентификации API отвечает кодом 401 вместо перенаправления на вход.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http, AccessTokenService accessTokenService) throws Exception {
+        http
+                .securityMatcher("/api/**")
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.NEVER))
+                .securityContext(context -> context.securityContextRepository(new DelegatingSecurityContextRepository(
+                        new RequestAttributeSecurityContextRepository(), new HttpSessionSecurityContextRepository())))
+                .requestCache(AbstractHttpConfigurer::disable)
+                .addFilterBefore(new AccessTokenFilter(accessTokenService), UsernamePasswordAuthenticationFilter.class)
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .authorizeHttpRequests(auth -> auth
+                        // Вход в API для всех
+                        .requestMatchers("/api/auth/**").permitAll()
+
+                        // Бронирования: список всех бронирований и изменение статусов для администраторов и агентов,
+                        // выгрузка и удаление для администраторов
+                        .requestMatchers(HttpMethod.GET, "/api/bookings").hasAnyRole("ADMIN", "AGENT")
+                        .requestMatchers("/api/bookings/status:batch").hasAnyRole("ADMIN", "AGENT")
+                        .requestMatchers("/api/bookings/export", "/api/bookings/delete:batch").hasRole("ADMIN")
+
+                        // Статистика кэшей каталога и пользователей только для администраторов
+                        .requestMatchers("/api/admin/statistics/catalog-cache", "/api/admin/statistics/user-cache").hasRole("ADMIN")
+
+                        // Очистка бронирований и пересчёт мест только для администраторов
+                        .requestMatchers("/api/admin/bookings/**").hasRole("ADMIN")
+
+                        // Для других запросов необходима авторизация
+                        .anyRequest().authenticated()
+                );
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
@@ -49,6 +103,7 @@ public class SecurityConfig {
                 .formLogin(form -> form
                         .loginPage("/login")
                         .defaultSuccessUrl("/", true)
+                        .failureHandler(loginFailureHandler())
                         .permitAll()
                 )
                 .logout(logout -> logout
@@ -60,8 +115,29 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Обработчик неудачного входа через форму: при переполнении очереди хэширования паролей пользователь
+     * возвращается на страницу входа с просьбой повторить попытку, а не с сообщением о неверном пароле.
+     */
+    private static AuthenticationFailureHandler loginFailureHandler() {
+        AuthenticationFailureHandler failed = new SimpleUrlAuthenticationFailureHandler("/login?error");
+        AuthenticationFailureHandler busy = new SimpleUrlAuthenticationFailureHandler("/login?busy");
+        return (request, response, exception) -> (PasswordHashingBusyException.isCauseOf(exception) ? busy : failed)
+                .onAuthenticationFailure(request, response, exception);
+    }
+
+    /**
+     * Кодировщик паролей BCrypt с ограниченным пулом хэширования.
+     * Стоимость подбирается при запуске под целевое время вычисления хэша на этой машине;
+     * пароли, сохранённые с меньшей стоимостью, перехэшируются при следующем входе пользователя.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${tourist.security.password.hash-threads:4}") int threads,
+                                                  @Value("${tourist.security.password.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${tourist.security.password.target-hash-millis:250}") long targetHashMillis,
+                                                  @Value("${tourist.security.password.min-strength:10}") int minStrength,
+                                                  @Value("${tourist.security.password.max-strength:14}") int maxStrength) {
+        int strength = BoundedPasswordEncoder.calibrateStrength(targetHashMillis, minStrength, maxStrength);
+        return new BoundedPasswordEncoder(strength, threads, queueCapacity);
     }
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package org.example.tourist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Иерархическое колесо таймеров для идентификаторов с моментом истечения.
+ * Уровень 0 делит время на такты заданной длины, каждый следующий уровень — на такты в {@code wheelSize}
+ * раз длиннее; уровни добавляются по мере необходимости. Постановка в очередь выполняется за O(1)
+ * независимо от количества ожидающих таймеров, а при продвижении времени просматриваются только
+ * истекшие такты: записи верхних уровней по наступлении своего такта переносятся на нижние уровни.
+ * Записи хранятся в массивах примитивов (16 байт на запись), поэтому колесо вмещает миллионы таймеров.
+ * Идентификатор сообщается не раньше момента истечения и не позже чем через один такт после него.
+ * Отмена таймера не поддерживается: получатель сам проверяет, актуален ли истекший идентификатор.
+ * Класс не потокобезопасен.
+ */
+public class TimingWheel {
+
+    private final long tickMillis;
+    private final int wheelSize;
+
+    /** Уровни колеса: {@code levels.get(i)[j]} — ячейка j уровня i (создаётся при первой записи) */
+    private final List<Bucket[]> levels = new ArrayList<>();
+
+    /** Длительность такта каждого уровня */
+    private final List<Long> levelTicks = new ArrayList<>();
+
+    /** Таймеры, истекшие уже на момент постановки; сообщаются при следующем продвижении */
+    private final Bucket overdue = new Bucket();
+
+    /** Начало текущего, ещё не истекшего такта уровня 0 */
+    private long currentTime;
+
+    private int size;
+
+    /**
+     * Конструктор для инициализации колеса.
+     *
+     * @param tickMillis длительность такта нижнего уровня в миллисекундах
+     * @param wheelSize количество ячеек на каждом уровне
+     * @param startTime момент времени, с которого начинается отсчёт
+     */
+    public TimingWheel(long tickMillis, int wheelSize, long startTime) {
+        if (tickMillis < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("Длительность такта должна быть положительной, а уровень — содержать не меньше двух ячеек");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startTime - Math.floorMod(startTime, tickMillis);
+        addLevel();
+    }
+
+    /**
+     * Ставит таймер в очередь.
+     *
+     * @param id идентификатор
+     * @param deadline момент истечения в миллисекундах
+     */
+    public void schedule(long id, long deadline) {
+        size++;
+        if (deadline < currentTime) {
+            overdue.add(id, deadline);
+            return;
+        }
+        place(id, deadline);
+    }
+
+    /**
+     * Продвигает время и сообщает идентификаторы истекших таймеров.
+     *
+     * @param now текущий момент времени в миллисекундах
+     * @param expired получатель идентификаторов истекших таймеров
+     */
+    public void advance(long now, LongConsumer expired) {
+        drain(overdue, expired);
+        while (now >= currentTime + tickMillis) {
+            // Такт [currentTime, currentTime + tickMillis) истёк целиком
+            drain(levels.get(0)[index(currentTime, 0)], expired);
+            currentTime += tickMillis;
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                if (currentTime % levelTicks.get(level) == 0) {
+                    cascade(level);
+                }
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество ожидающих таймеров.
+     *
+     * @return количество таймеров
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Помещает запись на нижний уровень, такт следующего уровня которого совпадает с текущим:
+     * тогда ячейка записи ещё не обработана и не будет использована повторно до истечения записи.
+     */
+    private void place(long id, long deadline) {
+        int level = 0;
+        while (deadline / levelTick(level + 1) != currentTime / levelTick(level + 1)) {
+            level++;
+        }
+        Bucket[] buckets = levels.get(level);
+        int index = index(deadline, level);
+        if (buckets[index] == null) {
+            buckets[index] = new Bucket();
+        }
+        buckets[index].add(id, deadline);
+    }
+
+    /** Переносит записи наступившего такта уровня на нижние уровни */
+    private void cascade(int level) {
+        Bucket bucket = levels.get(level)[index(currentTime, level)];
+        if (bucket == null || bucket.size == 0) {
+            return;
+        }
+        long[] ids = bucket.ids;
+        long[] deadlines = bucket.deadlines;
+        int count = bucket.size;
+        bucket.clear();
+        for (int i = 0; i < count; i++) {
+            place(ids[i], deadlines[i]);
+        }
+    }
+
+    private void drain(Bucket bucket, LongConsumer expired) {
+        if (bucket == null || bucket.size == 0) {
+            return;
+        }
+        long[] ids = bucket.ids;
+        int count = bucket.size;
+        bucket.clear();
+        size -= count;
+        for (int i = 0; i < count; i++) {
+            expired.accept(ids[i]);
+        }
+    }
+
+    private int index(long time, int level) {
+        return (int) Math.floorMod(time / levelTicks.get(level), (long) wheelSize);
+    }
+
+    /** Возвращает длительность такта уровня, добавляя недостающие уровни */
+    private long levelTick(int level) {
+        while (levelTicks.size() <= level) {
+            addLevel();
+        }
+        return levelTicks.get(level);
+    }
+
+    private void addLevel() {
+        long tick = levelTicks.isEmpty() ? tickMillis : Math.multiplyExact(levelTicks.get(levelTicks.size() - 1), (long) wheelSize);
+        levelTicks.add(tick);
+        levels.add(new Bucket[wheelSize]);
+    }
+
+    /**
+     * Ячейка колеса: растущие массивы идентификаторов и моментов истечения.
+     */
+    private static final class Bucket {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private long[] deadlines = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private void add(long id, long deadline) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                deadlines = Arrays.copyOf(deadlines, size * 2);
+            }
+            ids[size] = id;
+            deadlines[size] = deadline;
+            size++;
+        }
+
+        /** Освобождает ячейку; прежние массивы остаются у вызывающего кода для чтения */
+        private void clear() {
+            ids = new long[INITIAL_CAPACITY];
+            deadlines = new long[INITIAL_CAPACITY];
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.tourist;
+
+import java.util.function.Function;
+
+/**
+ * Поля, по которым разрешена сортировка каталога туристических пакетов.
+ * Каждое поле знает имя свойства сущности, способ получить его значение и восстановить значение из курсора страницы.
+ */
+public enum TourPackageSortField {
+    NAME("name", TourPackageSummary::getName, value -> value),
+    PRICE("price", TourPackageSummary::getPrice, Integer::valueOf),
+    AVAILABILITY("availability", TourPackageSummary::getAvailability, Boolean::valueOf),
+    DURATION("duration", TourPackageSummary::getDuration, Integer::valueOf);
+
+    private final String property;
+    private final Function<TourPackageSummary, Object> getter;
+    private final Function<String, Object> parser;
+
+    TourPackageSortField(String property, Function<TourPackageSummary, Object> getter, Function<String, Object> parser) {
+        this.property = property;
+        this.getter = getter;
+        this.parser = parser;
+    }
+
+    /**
+     * Получает имя свойства сущности {@link org.example.tourist.models.TourPackage}.
+     *
+     * @return имя свойства
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Получает значение поля у туристического пакета.
+     *
+     * @param tourPackage краткое представление туристического пакета
+     * @return значение поля или null
+     */
+    public Object extractValue(TourPackageSummary tourPackage) {
+        return getter.apply(tourPackage);
+    }
+
+    /**
+     * Восстанавливает значение поля из строкового представления, сохранённого в курсоре.
+     *
+     * @param value строковое представление значения или null
+     * @return значение поля нужного типа или null
+     */
+    public Object parseValue(String value) {
+        return value != null ? parser.apply(value) : null;
+    }
+
+    /**
+     * Сравнивает значения сортировки так же, как MySQL: null меньше любого значения, строки — без учёта регистра.
+     * Используется индексами каталога в памяти, чтобы порядок и курсоры совпадали с выборкой из базы данных.
+     *
+     * @param a первое значение
+     * @param b второе значение
+     * @return отрицательное число, ноль или положительное число
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof String && b instanceof String) {
+            return ((String) a).compareToIgnoreCase((String) b);
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * Находит поле сортировки по имени параметра запроса.
+     *
+     * @param property имя свойства (например, "price")
+     * @return поле сортировки
+     * @throws IllegalArgumentException если сортировка по указанному полю не поддерживается
+     */
+    public static TourPackageSortField fromProperty(String property) {
+        for (TourPackageSortField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Сортировка по полю не поддерживается: " + property);
+    }
+
+    /**
+     * Проверить, поддерживается ли сортировка по свойству.
+     *
+     * @param property имя свойства
+     * @return true, если по свойству можно сортировать
+     */
+    public static boolean isSupported(String property) {
+        for (TourPackageSortField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.tourist;
+
+/**
+ * Вариант автодополнения поискового запроса по названию туристического пакета.
+ */
+public class TourPackageSuggestion {
+
+    private final Long id;
+    private final String name;
+
+    public TourPackageSuggestion(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
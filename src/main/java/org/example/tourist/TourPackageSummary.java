@@ -0,0 +1,86 @@
+package org.example.tourist;
+
+/**
+ * Краткое представление туристического пакета для списков каталога.
+ * Содержит только поля, которые отображаются в карточке тура, и агрегированный рейтинг.
+ * В отличие от сущности {@link org.example.tourist.models.TourPackage} не содержит описания
+ * и коллекций отзывов и бронирований, поэтому его загрузка не читает из базы большие столбцы
+ * и не вызывает дополнительных запросов при сериализации.
+ */
+public class TourPackageSummary {
+
+    private final Long id;
+    private final String name;
+    private final Integer price;
+    private final Integer duration;
+    private final Boolean availability;
+    private final String imageUrl;
+
+    /** Средняя оценка по отзывам или null, если отзывов нет */
+    private Double averageRating;
+
+    /** Количество отзывов */
+    private long reviewCount;
+
+    /**
+     * Конструктор, используемый в JPQL-выражении {@code SELECT new ...}.
+     *
+     * @param id идентификатор туристического пакета
+     * @param name название
+     * @param price цена
+     * @param duration длительность в днях
+     * @param availability доступность
+     * @param imageUrl URL изображения
+     */
+    public TourPackageSummary(Long id, String name, Integer price, Integer duration, Boolean availability, String imageUrl) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.duration = duration;
+        this.availability = availability;
+        this.imageUrl = imageUrl;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+
+    public Integer getDuration() {
+        return duration;
+    }
+
+    public Boolean getAvailability() {
+        return availability;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Double getAverageRating() {
+        return averageRating;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    /**
+     * Устанавливает агрегированный рейтинг туристического пакета.
+     *
+     * @param averageRating средняя оценка или null, если отзывов нет
+     * @param reviewCount количество отзывов
+     */
+    public void setRating(Double averageRating, long reviewCount) {
+        this.averageRating = averageRating;
+        this.reviewCount = reviewCount;
+    }
+}
@@ -2,8 +2,10 @@ package org.example.tourist;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TouristApplication {
 
     public static void main(String[] args) {
@@ -1,20 +1,22 @@
 package org.example.tourist.controller;
 
 import org.example.tourist.models.User;
-import org.example.tourist.models.Booking;
 import org.example.tourist.BookingStatus;
-import org.example.tourist.repositories.UserRepository;
 import org.example.tourist.services.BookingService;
 import org.example.tourist.BookingDto;
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingView;
+import org.example.tourist.CurrentUser;
+import org.example.tourist.CursorPage;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.security.Principal;
-import java.util.List;
 
 /**
  * Контроллер для работы с бронированиями.
@@ -24,13 +26,14 @@ import java.util.List;
 @RequestMapping("/bookings")
 public class BookingController {
 
+    /** Количество бронирований на странице */
+    private static final int PAGE_SIZE = 50;
+
     private final BookingService bookingService;
-    private final UserRepository userRepository;
 
-    // Внедрение сервисов для бронирования и пользователей
-    public BookingController(BookingService bookingService, UserRepository userRepository) {
+    // Внедрение сервиса бронирований
+    public BookingController(BookingService bookingService) {
         this.bookingService = bookingService;
-        this.userRepository = userRepository;
     }
 
     /**
@@ -39,19 +42,22 @@ public class BookingController {
      * Если пользователь — обычный, перенаправляет на страницу его бронирований.
      *
      * @param bookingDto DTO для создания бронирования
+     * @param user текущий пользователь
      * @param principal информация о текущем пользователе
      * @param redirectAttributes атрибуты для перенаправления
-     * @return перенаправление на нужную страницу в зависимости от роли пользователя
+     * @return перенаправление на нужную страницу в зависимости от роли пользователя;
+     *         на страницу туров с сообщением, если в одном из туров нет свободных мест
      */
     @PostMapping("/create")
-    public String createBooking(@ModelAttribute BookingDto bookingDto, Principal principal, RedirectAttributes redirectAttributes) {
-        // Извлекаем имя пользователя из Principal
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-
-        // Создаем бронирование через сервис
-        bookingService.createBooking(bookingDto, user);
+    public String createBooking(@ModelAttribute BookingDto bookingDto, @CurrentUser User user, Principal principal,
+                                RedirectAttributes redirectAttributes) {
+        try {
+            // Создаем бронирование через сервис; корзина хранится по имени пользователя из Principal
+            bookingService.createBooking(bookingDto, user, principal.getName());
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/tour-packages";
+        }
 
         // Получаем информацию о текущем пользователе
         Authentication authentication = (Authentication) principal;
@@ -72,16 +78,31 @@ public class BookingController {
     }
 
     /**
-     * Отображает страницу всех бронирований.
+     * Отображает страницу бронирований, новые первыми, с фильтрами и курсорной пагинацией.
      *
+     * @param bookingQuery фильтры по статусу, периоду оформления и пользователю, курсор страницы
      * @param model модель для передачи данных на страницу
      * @return имя шаблона для страницы бронирований
      */
     @GetMapping
-    public String bookingsPage(Model model) {
-        List<Booking> bookings = bookingService.getAllBookings();
-        model.addAttribute("bookings", bookings);  // Передаем список всех бронирований
+    public String bookingsPage(@ModelAttribute("bookingQuery") BookingQuery bookingQuery, Model model) {
+        bookingQuery.setSize(PAGE_SIZE);
+        CursorPage<BookingView> page;
+        try {
+            page = bookingService.getBookingsPage(bookingQuery);
+        } catch (IllegalArgumentException e) {
+            // Повреждённый курсор: показываем первую страницу с теми же фильтрами
+            bookingQuery.setCursor(null);
+            page = bookingService.getBookingsPage(bookingQuery);
+        }
+        model.addAttribute("bookings", page.getItems());  // Передаем страницу бронирований
         model.addAttribute("statuses", BookingStatus.values());  // Передаем все возможные статусы бронирований
+        if (page.getNextCursor() != null) {
+            model.addAttribute("nextPageUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build(true)
+                    .toUriString());
+        }
         return "bookings";  // Название шаблона для страницы бронирований
     }
 
@@ -165,20 +186,30 @@ public class BookingController {
     }
 
     /**
-     * Отображает страницу бронирований текущего пользователя.
+     * Отображает страницу бронирований текущего пользователя, новые первыми, с курсорной пагинацией.
      *
+     * @param cursor курсор страницы (необязательный параметр)
      * @param model модель для передачи данных на страницу
-     * @param principal информация о текущем пользователе
+     * @param user текущий пользователь
      * @return имя шаблона для страницы бронирований пользователя
      */
     @GetMapping("/my-bookings")
-    public String myBookingsPage(Model model, Principal principal) {
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        List<Booking> bookings = bookingService.getBookingsByUser(user);
-        model.addAttribute("bookings", bookings);  // Передаем список бронирований пользователя
+    public String myBookingsPage(@RequestParam(required = false) String cursor, Model model, @CurrentUser User user) {
+        CursorPage<BookingView> page;
+        try {
+            page = bookingService.getUserBookingsPage(user, cursor, PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            // Повреждённый курсор: показываем первую страницу
+            page = bookingService.getUserBookingsPage(user, null, PAGE_SIZE);
+        }
+        model.addAttribute("bookings", page.getItems());  // Передаем страницу бронирований пользователя
         model.addAttribute("statuses", BookingStatus.values());  // Передаем все возможные статусы бронирований
+        if (page.getNextCursor() != null) {
+            model.addAttribute("nextPageUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build(true)
+                    .toUriString());
+        }
         return "bookings/my-bookings";  // Название шаблона для страницы бронирований текущего пользователя
     }
 }
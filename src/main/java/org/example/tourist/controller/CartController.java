@@ -1,27 +1,30 @@
 package org.example.tourist.controller;
 
-import org.example.tourist.models.Cart;
 import org.example.tourist.models.TourPackage;
+import org.example.tourist.services.CartService;
 import org.example.tourist.services.TourPackageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.security.Principal;
 
 /**
  * Контроллер для управления действиями в корзине.
- * Позволяет добавлять, удалять и очищать туристические пакеты в корзине.
+ * Позволяет добавлять, удалять и очищать туристические пакеты в корзине текущего пользователя.
  */
 @Controller
 public class CartController {
 
     private final TourPackageService tourPackageService;
-    private final Cart cart;
+    private final CartService cartService;
 
     @Autowired
-    public CartController(TourPackageService tourPackageService, Cart cart) {
+    public CartController(TourPackageService tourPackageService, CartService cartService) {
         this.tourPackageService = tourPackageService;
-        this.cart = cart;
+        this.cartService = cartService;
     }
 
     /**
@@ -29,15 +32,23 @@ public class CartController {
      * Этот метод будет обрабатывать запросы на добавление пакета в корзину,
      * используя его ID.
      *
+     * Если корзина заполнена, пакет не добавляется, а на странице показывается сообщение.
+     *
      * @param id ID туристического пакета, который нужно добавить
+     * @param principal текущий аутентифицированный пользователь
+     * @param redirectAttributes атрибуты для перенаправления
      * @return перенаправление на страницу с туристическими пакетами
      */
     @PostMapping("/cart/add")
-    public String addToCart(@RequestParam Long id) {
+    public String addToCart(@RequestParam Long id, Principal principal, RedirectAttributes redirectAttributes) {
         // Получаем туристический пакет по ID
         TourPackage tourPackage = tourPackageService.getTourPackageById(id);
-        // Добавляем пакет в корзину
-        cart.addItem(tourPackage);
+        // Добавляем пакет в корзину пользователя
+        try {
+            cartService.getCart(principal.getName()).addItem(tourPackage.getId(), tourPackage.getPrice());
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
         // Перенаправляем на страницу с туристическими пакетами
         return "redirect:/tour-packages";
     }
@@ -48,12 +59,13 @@ public class CartController {
      * используя его ID.
      *
      * @param id ID туристического пакета, который нужно удалить
+     * @param principal текущий аутентифицированный пользователь
      * @return перенаправление на страницу с туристическими пакетами
      */
     @PostMapping("/cart/remove")
-    public String removeFromCart(@RequestParam Long id) {
+    public String removeFromCart(@RequestParam Long id, Principal principal) {
         // Удаляем указанный пакет из корзины
-        cart.removeItem(id);
+        cartService.findCart(principal.getName()).ifPresent(cart -> cart.removeItem(id));
         // Перенаправляем на страницу с туристическими пакетами
         return "redirect:/tour-packages";
     }
@@ -62,12 +74,13 @@ public class CartController {
      * Очистить корзину.
      * Этот метод удаляет все элементы из корзины.
      *
+     * @param principal текущий аутентифицированный пользователь
      * @return перенаправление на страницу с туристическими пакетами
      */
     @PostMapping("/cart/clear")
-    public String clearCart() {
+    public String clearCart(Principal principal) {
         // Очищаем корзину
-        cart.clearCart();
+        cartService.removeCart(principal.getName());
         // Перенаправляем на страницу с туристическими пакетами
         return "redirect:/tour-packages";
     }
@@ -1,11 +1,16 @@
 package org.example.tourist.controller;
 
 import org.example.tourist.services.UserService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Контроллер для регистрации пользователей.
  * Обрабатывает запросы, связанные с регистрацией.
@@ -33,18 +38,40 @@ public class RegistrationController {
     /**
      * Регистрирует нового пользователя.
      * После регистрации пользователя перенаправляет на страницу логина.
+     * Запрос обрабатывается асинхронно: поток сервера освобождается на время хэширования пароля.
+     * Если очередь хэширования переполнена, пользователь возвращается на страницу регистрации с сообщением;
+     * если имя уже занято (в том числе другим запросом, пока хэшировался пароль) или роль не найдена —
+     * с сообщением об ошибке.
      *
      * @param username имя пользователя
      * @param password пароль
      * @param role     роль пользователя (например, ROLE_USER)
-     * @return перенаправление на страницу логина
+     * @return перенаправление на страницу логина по завершении регистрации
      */
     @PostMapping("/register")
-    public String registerUser(@RequestParam("username") String username,
-                               @RequestParam("password") String password,
-                               @RequestParam("role") String role) {
-        userService.registerUser(username, password, role);
-        return "redirect:/login";  // Перенаправляет на страницу логина после успешной регистрации
+    public CompletableFuture<String> registerUser(@RequestParam("username") String username,
+                                                  @RequestParam("password") String password,
+                                                  @RequestParam("role") String role) {
+        try {
+            return userService.registerUserAsync(username, password, role)
+                    .thenApply(registered -> "redirect:/login")  // Перенаправляет на страницу логина после успешной регистрации
+                    .exceptionally(RegistrationController::registrationFailed);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture("redirect:/register?error");
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture("redirect:/register?busy");
+        }
+    }
+
+    private static String registrationFailed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IllegalArgumentException || cause instanceof DataIntegrityViolationException) {
+            return "redirect:/register?error";
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return "redirect:/register?busy";
+        }
+        throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
     }
 
 }
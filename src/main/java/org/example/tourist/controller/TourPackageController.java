@@ -1,12 +1,20 @@
 package org.example.tourist.controller;
 
+import org.example.tourist.CatalogPage;
+import org.example.tourist.CatalogQuery;
+import org.example.tourist.CurrentUser;
+import org.example.tourist.CursorPage;
+import org.example.tourist.ReviewDto;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
 import org.example.tourist.models.User;
 import org.example.tourist.models.Cart;
+import org.example.tourist.models.CartItem;
 import org.example.tourist.models.Review;
 import org.example.tourist.models.TourPackage;
+import org.example.tourist.services.CartService;
 import org.example.tourist.services.ReviewService;
 import org.example.tourist.services.TourPackageService;
-import org.example.tourist.services.UserService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,6 +22,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.security.Principal;
 import java.util.List;
@@ -28,70 +38,76 @@ import java.util.stream.Collectors;
 @RequestMapping("/tour-packages")
 public class TourPackageController {
 
-    private final Cart cart;
+    /** Количество отзывов на странице деталей пакета */
+    private static final int REVIEWS_PAGE_SIZE = 10;
+
+    private final CartService cartService;
     private final TourPackageService tourPackageService;
-    private final UserService userService;
     private final ReviewService reviewService;
 
-    public TourPackageController(Cart cart, TourPackageService tourPackageService, UserService userService, ReviewService reviewService) {
-        this.cart = cart;
+    public TourPackageController(CartService cartService, TourPackageService tourPackageService, ReviewService reviewService) {
+        this.cartService = cartService;
         this.tourPackageService = tourPackageService;
-        this.userService = userService;
         this.reviewService = reviewService;
     }
 
     /**
      * Показать страницу с туристическими пакетами.
      * Доступно для пользователей, агентов и администраторов.
+     * Повреждённый курсор игнорируется — показывается первая страница.
      *
+     * @param cursor курсор следующей страницы (если не указан — первая страница)
      * @param model модель для представления
      * @param principal текущий аутентифицированный пользователь
      * @return название представления "tour-packages"
      */
     @GetMapping
-    public String tourPackagesPage(Model model, Principal principal) {
-        List<TourPackage> tourPackages = tourPackageService.getAllTourPackages();
-        Map<Long, Boolean> canDeleteMap = tourPackages.stream()
-                .collect(Collectors.toMap(TourPackage::getId,
-                        tourPackage -> tourPackageService.canDeleteTourPackage(tourPackage.getId())));
+    public String tourPackagesPage(@RequestParam(required = false) String cursor, Model model, Principal principal) {
+        CursorPage<TourPackageSummary> page;
+        try {
+            page = tourPackageService.getTourPackagesPage(cursor, TourPackageService.DEFAULT_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            page = tourPackageService.getTourPackagesPage(null, TourPackageService.DEFAULT_PAGE_SIZE);
+        }
 
         // Добавляем данные корзины
-        model.addAttribute("cartItems", cart.getCartItems());
-        model.addAttribute("totalPrice", cart.getTotalPrice());
-        model.addAttribute("tourPackages", tourPackages);
-        model.addAttribute("canDeleteMap", canDeleteMap);
+        addCartAttributes(model, principal);
+        addPageAttributes(model, page, ServletUriComponentsBuilder.fromCurrentRequest());
         return "tour-packages";
     }
 
     /**
-     * Поиск туристических пакетов по названию.
+     * Полнотекстовый поиск туристических пакетов по названию и описанию с фильтрами
+     * по цене, длительности и доступности.
      * Доступно для пользователей, агентов и администраторов.
+     * Повреждённый курсор или неизвестная сортировка не приводят к ошибке: поиск выполняется
+     * с первой страницы, а неизвестная сортировка заменяется сортировкой по релевантности.
      *
-     * @param name название для поиска
+     * @param catalogQuery поисковый запрос, фильтры, сортировка (по умолчанию — по релевантности) и курсор страницы
      * @param model модель для представления
-     * @param sort поле для сортировки
-     * @param direction направление сортировки
-     * @return название представления "tour-packages" с результатами поиска
+     * @param principal текущий аутентифицированный пользователь
+     * @return название представления "tour-packages" с результатами поиска и счётчиками фасетов
      */
     @GetMapping("/search")
-    public String searchTourPackages(
-            @RequestParam(required = false) String name,
-            @RequestParam(required = false, defaultValue = "name") String sort,
-            @RequestParam(required = false, defaultValue = "asc") String direction,
-            Model model) {
-
-        List<TourPackage> items = tourPackageService.searchTourPackages(name, sort, direction);
-
-        // Создаем карту canDeleteMap для результатов поиска
-        Map<Long, Boolean> canDeleteMap = items.stream()
-                .collect(Collectors.toMap(TourPackage::getId,
-                        tourPackage -> tourPackageService.canDeleteTourPackage(tourPackage.getId())));
+    public String searchTourPackages(@ModelAttribute("catalogQuery") CatalogQuery catalogQuery,
+                                     Model model, Principal principal) {
+        catalogQuery.setSize(TourPackageService.DEFAULT_PAGE_SIZE);
+        CatalogPage page;
+        try {
+            page = tourPackageService.searchTourPackages(catalogQuery);
+        } catch (IllegalArgumentException e) {
+            catalogQuery.setCursor(null);
+            if (!TourPackageService.RELEVANCE_SORT.equalsIgnoreCase(catalogQuery.getSort())
+                    && !TourPackageSortField.isSupported(catalogQuery.getSort())) {
+                catalogQuery.setSort(TourPackageService.RELEVANCE_SORT);
+            }
+            page = tourPackageService.searchTourPackages(catalogQuery);
+        }
 
         // Добавляем данные в модель
-        model.addAttribute("tourPackages", items);
-        model.addAttribute("canDeleteMap", canDeleteMap); // Добавляем canDeleteMap
-        model.addAttribute("cartItems", cart.getCartItems());
-        model.addAttribute("totalPrice", cart.getTotalPrice());
+        addPageAttributes(model, page, ServletUriComponentsBuilder.fromCurrentRequest());
+        model.addAttribute("facets", page);
+        addCartAttributes(model, principal);
         model.addAttribute("pageTitle", "Поиск Туристических Пакетов | Tourify");
         return "tour-packages";
     }
@@ -143,17 +159,12 @@ public class TourPackageController {
             tourPackageService.deleteTourPackage(id);
             return "redirect:/tour-packages"; // После удаления возвращаем на страницу пакетов
         } else {
-            // Получаем обновленный список турпакетов
-            List<TourPackage> tourPackages = tourPackageService.getAllTourPackages();
-            Map<Long, Boolean> canDeleteMap = tourPackages.stream()
-                    .collect(Collectors.toMap(TourPackage::getId,
-                            tourPackage -> tourPackageService.canDeleteTourPackage(tourPackage.getId())));
+            // Получаем первую страницу обновленного списка турпакетов
+            CursorPage<TourPackageSummary> page = tourPackageService.getTourPackagesPage(null, TourPackageService.DEFAULT_PAGE_SIZE);
 
             // Добавляем данные в модель для отображения ошибки
-            model.addAttribute("tourPackages", tourPackages);
-            model.addAttribute("canDeleteMap", canDeleteMap);
-            model.addAttribute("cartItems", cart.getCartItems());
-            model.addAttribute("totalPrice", cart.getTotalPrice());
+            addPageAttributes(model, page, ServletUriComponentsBuilder.fromCurrentContextPath().path("/tour-packages"));
+            addCartAttributes(model, principal);
             model.addAttribute("errorMessage", "Невозможно удалить турпакет, так как для него есть активные бронирования.");
             return "tour-packages"; // Возвращаем на страницу с ошибкой
         }
@@ -195,6 +206,81 @@ public class TourPackageController {
         return "redirect:/tour-packages";
     }
 
+    /**
+     * Добавляет в модель страницу турпакетов, карту возможности удаления и ссылку на следующую страницу.
+     *
+     * @param model модель для представления
+     * @param page страница турпакетов
+     * @param pageUrl адрес страницы, к которому добавляется курсор; для текущего запроса
+     *                параметры поиска и сортировки сохраняются
+     */
+    private void addPageAttributes(Model model, CursorPage<TourPackageSummary> page, UriComponentsBuilder pageUrl) {
+        model.addAttribute("tourPackages", page.getItems());
+        model.addAttribute("canDeleteMap", getCanDeleteMap(page.getItems()));
+        if (page.getNextCursor() != null) {
+            model.addAttribute("nextPageUrl", pageUrl
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build(true)
+                    .toUriString());
+        }
+    }
+
+    /**
+     * Строит карту возможности удаления для списка турпакетов одним запросом к базе данных.
+     *
+     * @param tourPackages отображаемые турпакеты
+     * @return карта, где ключ — ID пакета, а значение — можно ли его удалить
+     */
+    private Map<Long, Boolean> getCanDeleteMap(List<TourPackageSummary> tourPackages) {
+        return tourPackageService.getDeletabilityMap(
+                tourPackages.stream().map(TourPackageSummary::getId).collect(Collectors.toList()));
+    }
+
+    /**
+     * Добавляет в модель страницу отзывов пакета, агрегированный рейтинг и ссылку на следующую страницу отзывов.
+     *
+     * @param model модель для представления
+     * @param tourPackageId ID туристического пакета
+     * @param reviewsCursor курсор страницы отзывов или null
+     */
+    private void addReviewAttributes(Model model, Long tourPackageId, String reviewsCursor) {
+        CursorPage<ReviewDto> reviews;
+        try {
+            reviews = reviewService.getReviewsPage(tourPackageId, reviewsCursor, REVIEWS_PAGE_SIZE);
+        } catch (IllegalArgumentException e) {
+            // Повреждённый курсор: показываем первую страницу отзывов
+            reviews = reviewService.getReviewsPage(tourPackageId, null, REVIEWS_PAGE_SIZE);
+        }
+        model.addAttribute("reviews", reviews.getItems());
+        model.addAttribute("rating", reviewService.getRating(tourPackageId));
+        if (reviews.getNextCursor() != null) {
+            model.addAttribute("nextReviewsUrl", ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("reviewsCursor", reviews.getNextCursor())
+                    .build(true)
+                    .toUriString());
+        }
+    }
+
+    /**
+     * Добавляет в модель содержимое корзины текущего пользователя.
+     * Корзина хранит только идентификаторы и цены, поэтому названия и изображения
+     * турпакетов загружаются одним запросом по списку идентификаторов.
+     *
+     * @param model модель для представления
+     * @param principal текущий аутентифицированный пользователь
+     */
+    private void addCartAttributes(Model model, Principal principal) {
+        Cart cart = principal != null ? cartService.findCart(principal.getName()).orElse(null) : null;
+        List<CartItem> cartItems = cart != null ? cart.getCartItems() : List.of();
+        int totalPrice = cartItems.stream().mapToInt(CartItem::getPrice).sum();
+        Map<Long, TourPackageSummary> cartPackages = tourPackageService.getTourPackageSummariesByIds(
+                cartItems.stream().map(CartItem::getTourPackageId).collect(Collectors.toSet()));
+
+        model.addAttribute("cartItems", cartItems);
+        model.addAttribute("cartPackages", cartPackages);
+        model.addAttribute("totalPrice", totalPrice);
+    }
+
     /**
      * Проверка, имеет ли пользователь определенную роль.
      *
@@ -221,18 +307,20 @@ public class TourPackageController {
      * Просмотр деталей туристического пакета.
      *
      * @param id ID туристического пакета
+     * @param reviewsCursor курсор следующей страницы отзывов (если не указан — последние отзывы)
      * @param model модель для представления
      * @param principal текущий аутентифицированный пользователь
      * @return название представления "tour-package-details" с деталями пакета и отзывами
      */
     @GetMapping("/{id}")
-    public String viewTourPackage(@PathVariable Long id, Model model, Principal principal) {
+    public String viewTourPackage(@PathVariable Long id, @RequestParam(required = false) String reviewsCursor,
+                                  Model model, Principal principal) {
         TourPackage tourPackage = tourPackageService.getTourPackageById(id);
         model.addAttribute("tourPackage", tourPackage);
+        model.addAttribute("seatsLeft", tourPackageService.getSeatsLeft(id));
 
-        // Получаем отзывы для данного турпакета
-        List<Review> reviews = reviewService.getReviewsByTourPackage(tourPackage);
-        model.addAttribute("reviews", reviews);
+        // Получаем страницу отзывов для данного турпакета
+        addReviewAttributes(model, id, reviewsCursor);
 
         return "tour-package-details"; // Шаблон страницы деталей тура, где есть секция с отзывами
     }
@@ -243,7 +331,7 @@ public class TourPackageController {
      * @param tourPackageId ID туристического пакета
      * @param rating оценка пакета
      * @param comment комментарий пользователя
-     * @param principal текущий аутентифицированный пользователь
+     * @param user текущий аутентифицированный пользователь
      * @return перенаправление на страницу с деталями пакета
      */
     @PostMapping("/addReview")
@@ -251,7 +339,7 @@ public class TourPackageController {
     public String addReview(@RequestParam Long tourPackageId,
                             @RequestParam int rating,
                             @RequestParam String comment,
-                            Principal principal) {
+                            @CurrentUser User user) {
 
         // Находим соответствующий турпакет
         TourPackage tourPackage = tourPackageService.getTourPackageById(tourPackageId);
@@ -259,13 +347,13 @@ public class TourPackageController {
             return "redirect:/error/404"; // Перенаправление на страницу ошибки
         }
 
-        // Находим текущего авторизованного пользователя
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-
-        // Создаем и сохраняем отзыв
+        // Создаем и сохраняем отзыв; отзыв с оценкой вне диапазона 1..5 не сохраняется
         Review review = new Review(user, tourPackage, rating, comment);
-        reviewService.saveReview(review);
+        try {
+            reviewService.saveReview(review);
+        } catch (IllegalArgumentException e) {
+            return "redirect:/tour-packages/" + tourPackageId + "?error=rating";
+        }
 
         return "redirect:/tour-packages/" + tourPackageId;
     }
@@ -274,11 +362,13 @@ public class TourPackageController {
      * Получить детали туристического пакета по ID.
      *
      * @param id ID туристического пакета
+     * @param reviewsCursor курсор следующей страницы отзывов (если не указан — последние отзывы)
      * @param model модель для представления
      * @return название представления "tour-package-details" с деталями пакета
      */
     @GetMapping("/details/{id}")
-    public String getTourPackageDetails(@PathVariable("id") Long id, Model model) {
+    public String getTourPackageDetails(@PathVariable("id") Long id,
+                                        @RequestParam(required = false) String reviewsCursor, Model model) {
         // Получаем пакет по ID
         TourPackage tourPackage = tourPackageService.getTourPackageById(id);
 
@@ -288,8 +378,8 @@ public class TourPackageController {
         }
 
         model.addAttribute("tourPackage", tourPackage);
-        List<Review> reviews = reviewService.getReviewsByTourPackage(tourPackage);
-        model.addAttribute("reviews", reviews);
+        model.addAttribute("seatsLeft", tourPackageService.getSeatsLeft(id));
+        addReviewAttributes(model, id, reviewsCursor);
 
         return "tour-package-details"; // Имя вашего шаблона
     }
@@ -0,0 +1,59 @@
+package org.example.tourist.controller.api;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.services.BookingPurgeService;
+import org.example.tourist.services.SeatInventoryService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/bookings")
+public class AdminBookingRestController {
+
+    private final BookingPurgeService bookingPurgeService;
+    private final SeatInventoryService seatInventoryService;
+
+    // Конструктор контроллера для внедрения зависимостей
+    public AdminBookingRestController(BookingPurgeService bookingPurgeService, SeatInventoryService seatInventoryService) {
+        this.bookingPurgeService = bookingPurgeService;
+        this.seatInventoryService = seatInventoryService;
+    }
+
+    /**
+     * Очистка старых бронирований.
+     * Этот эндпоинт удаляет бронирования в указанном статусе, оформленные раньше заданного количества дней назад.
+     * Удаление выполняется порциями в отдельных транзакциях, поэтому не блокирует работу с бронированиями.
+     * Возвращает HTTP-ответ со статусом 200 и количеством удалённых бронирований.
+     *
+     * @param status статус удаляемых бронирований
+     * @param olderThanDays минимальный возраст бронирования в днях
+     * @return ResponseEntity с количеством удалённых бронирований; 400, если возраст отрицательный;
+     *         409, если статусы бронирований изменились во время удаления порции
+     */
+    @PostMapping("/purge")
+    public ResponseEntity<Integer> purgeBookings(@RequestParam BookingStatus status, @RequestParam int olderThanDays) {
+        try {
+            return ResponseEntity.ok(bookingPurgeService.purge(status, olderThanDays));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    /**
+     * Пересчёт свободных мест туров по бронированиям.
+     * Восстанавливает места, потерянные при аварийной остановке экземпляра приложения; запускается,
+     * когда бронирования обслуживает только один экземпляр.
+     * Возвращает HTTP-ответ со статусом 200 и количеством пересчитанных туров.
+     *
+     * @return ResponseEntity с количеством пересчитанных туров
+     */
+    @PostMapping("/recount-seats")
+    public ResponseEntity<Integer> recountSeats() {
+        return ResponseEntity.ok(seatInventoryService.recountAll());
+    }
+}
@@ -1,6 +1,9 @@
 package org.example.tourist.controller.api;
 
+import org.example.tourist.BoundedCache;
+import org.example.tourist.services.CustomUserDetailsService;
 import org.example.tourist.services.StatisticsService;
+import org.example.tourist.services.TourPackageService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -14,10 +17,15 @@ public class AdminStatisticsRestController {
 
     // Инжектируем сервис, который будет заниматься расчетом статистики
     private final StatisticsService statisticsService;
+    private final TourPackageService tourPackageService;
+    private final CustomUserDetailsService userDetailsService;
 
-    // Конструктор контроллера для внедрения зависимости
-    public AdminStatisticsRestController(StatisticsService statisticsService) {
+    // Конструктор контроллера для внедрения зависимостей
+    public AdminStatisticsRestController(StatisticsService statisticsService, TourPackageService tourPackageService,
+                                         CustomUserDetailsService userDetailsService) {
         this.statisticsService = statisticsService;
+        this.tourPackageService = tourPackageService;
+        this.userDetailsService = userDetailsService;
     }
 
     /**
@@ -58,5 +66,27 @@ public class AdminStatisticsRestController {
         // Получаем статистику по бронированиям и возвращаем в ответе
         return ResponseEntity.ok(statisticsService.getBookingStats());
     }
-}
 
+    /**
+     * Получение статистики кэшей каталога турпакетов.
+     * Этот эндпоинт возвращает для каждого кэша количество попаданий, промахов, вытеснений и текущий размер.
+     * Возвращает HTTP-ответ со статусом 200 и Map, где ключ — название кэша, а значение — его счётчики.
+     *
+     * @return ResponseEntity с Map, содержащим статистику кэшей
+     */
+    @GetMapping("/catalog-cache")
+    public ResponseEntity<Map<String, BoundedCache.Stats>> getCatalogCacheStats() {
+        return ResponseEntity.ok(tourPackageService.getCacheStats());
+    }
+
+    /**
+     * Получение статистики кэша пользователей, используемого при аутентификации.
+     * Возвращает HTTP-ответ со статусом 200 и счётчиками попаданий, промахов, вытеснений и текущим размером кэша.
+     *
+     * @return ResponseEntity со статистикой кэша пользователей
+     */
+    @GetMapping("/user-cache")
+    public ResponseEntity<BoundedCache.Stats> getUserCacheStats() {
+        return ResponseEntity.ok(userDetailsService.getCacheStats());
+    }
+}
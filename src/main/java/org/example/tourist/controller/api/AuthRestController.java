@@ -1,28 +1,66 @@
 package org.example.tourist.controller.api;
 
+import org.example.tourist.AccessTokenResponse;
+import org.example.tourist.AuthenticatedUser;
+import org.example.tourist.LoginRequest;
+import org.example.tourist.PasswordHashingBusyException;
+import org.example.tourist.services.AccessTokenService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/auth")  // Все запросы для аутентификации будут начинаться с /api/auth
 public class AuthRestController {
 
+    private final AuthenticationManager authenticationManager;
+    private final AccessTokenService accessTokenService;
+
+    public AuthRestController(AuthenticationManager authenticationManager, AccessTokenService accessTokenService) {
+        this.authenticationManager = authenticationManager;
+        this.accessTokenService = accessTokenService;
+    }
+
     /**
      * Метод для аутентификации пользователя.
-     * При успешной аутентификации возвращается JWT токен.
+     * При успешной аутентификации возвращается подписанный токен доступа; сессия не создаётся.
+     * Токен передаётся в последующих запросах к API в заголовке {@code Authorization: Bearer <токен>}.
      *
      * @param loginRequest DTO, содержащий данные для входа пользователя (логин, пароль)
-     * @return JWT токен, если аутентификация успешна
+     * @return токен доступа; 400, если логин или пароль не указаны; 401, если они неверны;
+     * 503, если очередь хэширования паролей переполнена
      */
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody /*DTO для логина*/ Object loginRequest) {
-        // Логика аутентификации
-        // Например, здесь вы должны проверить, существует ли пользователь с такими данными
-        // Если аутентификация успешна, генерируется JWT и отправляется пользователю
-        // В реальной ситуации необходимо заменить строку ниже на фактическую логику с JWT.
+    public ResponseEntity<AccessTokenResponse> login(@RequestBody LoginRequest loginRequest) {
+        if (loginRequest.getUsername() == null || loginRequest.getPassword() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(
+                    loginRequest.getUsername(), loginRequest.getPassword()));
+        } catch (AuthenticationException e) {
+            if (PasswordHashingBusyException.isCauseOf(e)) {
+                return hashingBusy();
+            }
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String token = accessTokenService.issue((AuthenticatedUser) authentication.getPrincipal());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new AccessTokenResponse(token, accessTokenService.getTtlSeconds()));
+    }
 
-        return ResponseEntity.ok("FakeJWTToken"); // Возвращаем фейковый токен для примера
+    private static ResponseEntity<AccessTokenResponse> hashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
     }
 
     /**
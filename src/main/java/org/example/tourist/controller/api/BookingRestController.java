@@ -1,11 +1,20 @@
 package org.example.tourist.controller.api;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.example.tourist.BookingDto;
+import org.example.tourist.BookingExportFormat;
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingView;
+import org.example.tourist.CurrentUser;
+import org.example.tourist.CursorPage;
 import org.example.tourist.BookingStatus;
+import org.example.tourist.BookingStatusUpdateDto;
+import org.example.tourist.BookingStatusUpdateResult;
 import org.example.tourist.models.Booking;
 import org.example.tourist.models.User;
-import org.example.tourist.repositories.UserRepository;
+import org.example.tourist.services.BookingExportService;
 import org.example.tourist.services.BookingService;
+import org.example.tourist.services.IdempotencyService;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.example.tourist.repositories.BookingRepository;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -21,13 +32,19 @@ import java.util.concurrent.TimeUnit;
 @RequestMapping("/api/bookings")
 public class BookingRestController {
 
+    /** Заголовок с ключом идемпотентности запроса создания бронирования */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookingService bookingService;
-    private final UserRepository userRepository;
+    private final IdempotencyService idempotencyService;
+    private final BookingExportService bookingExportService;
 
-    // Инжектируем сервисы для работы с бронированиями и пользователями
-    public BookingRestController(BookingService bookingService, UserRepository userRepository) {
+    // Инжектируем сервисы для работы с бронированиями
+    public BookingRestController(BookingService bookingService, IdempotencyService idempotencyService,
+                                 BookingExportService bookingExportService) {
         this.bookingService = bookingService;
-        this.userRepository = userRepository;
+        this.idempotencyService = idempotencyService;
+        this.bookingExportService = bookingExportService;
     }
 
     /**
@@ -35,37 +52,97 @@ public class BookingRestController {
      * Этот метод принимает объект DTO для бронирования и создает бронирование,
      * ассоциируя его с текущим пользователем (который аутентифицирован).
      * Возвращается статус 201 Created с объектом бронирования.
+     * Если передан заголовок {@value #IDEMPOTENCY_KEY_HEADER}, повторный запрос с тем же ключом
+     * (например, повтор клиента после тайм-аута) получает ответ первого запроса, а бронирование не создаётся снова.
      *
      * @param bookingDto - данные для нового бронирования
+     * @param idempotencyKey - ключ идемпотентности запроса (необязательный)
+     * @param user - текущий пользователь, к которому привязывается бронирование
      * @param principal - текущий аутентифицированный пользователь
-     * @return ResponseEntity с созданным объектом бронирования
+     * @return ResponseEntity с созданным объектом бронирования; 400, если ключ некорректен;
+     *         409, если в одном из туров нет свободных мест или запрос с тем же ключом ещё выполняется;
+     *         422, если ключ уже использован запросом с другими данными
      */
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@RequestBody BookingDto bookingDto, Principal principal) {
+    public ResponseEntity<Booking> createBooking(@RequestBody BookingDto bookingDto,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                 @CurrentUser User user, Principal principal) {
         // Получаем имя текущего пользователя из principal
         String username = principal.getName();
-        // Ищем пользователя в базе данных по имени
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+        if (idempotencyKey != null && !IdempotencyService.isValidKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (idempotencyKey == null) {
+                return doCreateBooking(bookingDto, user, username);
+            }
+            // Ключ действует в пределах пользователя
+            return idempotencyService.execute(username, idempotencyKey, bookingDto,
+                    () -> doCreateBooking(bookingDto, user, username));
+        } catch (IdempotencyService.InProgressException e) {
+            return ResponseEntity.status(409).build();
+        } catch (IdempotencyService.KeyReusedException e) {
+            return ResponseEntity.status(422).build();
+        } catch (IllegalStateException e) {
+            // В одном из туров нет свободных мест
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    private ResponseEntity<Booking> doCreateBooking(BookingDto bookingDto, User user, String username) {
         // Создаем новое бронирование через сервис
-        Booking booking = bookingService.createBooking(bookingDto, user);
+        Booking booking = bookingService.createBooking(bookingDto, user, username);
         // Возвращаем ответ с созданным бронированием и статусом 201
         return ResponseEntity.status(201).body(booking);
     }
 
     /**
-     * Получить список всех бронирований.
-     * Этот метод возвращает все бронирования в системе.
+     * Получить страницу бронирований.
+     * Бронирования возвращаются новыми первыми; поддерживаются фильтры по статусу, периоду оформления
+     * ({@code from}, {@code to} в формате ГГГГ-ММ-ДД) и имени пользователя, а также курсорная пагинация.
      * Ответ кэшируется на 60 секунд для оптимизации производительности.
      *
-     * @return ResponseEntity с коллекцией всех бронирований
+     * @param bookingQuery - фильтры, курсор и размер страницы (не больше {@value BookingService#MAX_BOOKINGS_PAGE_SIZE})
+     * @return ResponseEntity со страницей бронирований или 400, если курсор некорректен
      */
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
-        List<Booking> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok()
-                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePublic())
-                .body(bookings);
+    public ResponseEntity<CursorPage<BookingView>> getBookings(BookingQuery bookingQuery) {
+        try {
+            CursorPage<BookingView> page = bookingService.getBookingsPage(bookingQuery);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS).cachePrivate())
+                    .body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Выгрузить бронирования для отчётности.
+     * Все подходящие бронирования записываются в ответ по мере чтения из базы, без пагинации и без
+     * накопления в памяти. Поддерживаются те же фильтры, что и у списка бронирований; курсор и размер
+     * страницы игнорируются.
+     *
+     * @param bookingQuery - фильтры по статусу, периоду оформления и имени пользователя
+     * @param format - формат выгрузки: csv (по умолчанию) или ndjson
+     * @param response - HTTP-ответ, в который записывается выгрузка; 400, если формат не поддерживается
+     * @throws IOException если запись в ответ не удалась
+     */
+    @GetMapping("/export")
+    public void exportBookings(BookingQuery bookingQuery, @RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        BookingExportFormat exportFormat;
+        try {
+            exportFormat = BookingExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings." + exportFormat.getExtension() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        bookingExportService.export(bookingQuery, exportFormat, response.getOutputStream());
     }
 
     /**
@@ -99,14 +176,20 @@ public class BookingRestController {
      *
      * @param bookingId - идентификатор бронирования
      * @param status - новый статус бронирования
-     * @return ResponseEntity без тела (204 No Content), если обновление прошло успешно
+     * @return ResponseEntity без тела (204 No Content), если обновление прошло успешно;
+     *         409, если при выходе из отмены в одном из туров нет свободных мест
      */
     @PutMapping("/{bookingId}/status")
     public ResponseEntity<Void> updateBookingStatus(@PathVariable Long bookingId, @RequestBody String status) {
         // Преобразуем строку статуса в перечисление
         BookingStatus newStatus = BookingStatus.valueOf(status.toUpperCase());
-        // Обновляем статус через сервис
-        bookingService.updateBookingStatus(bookingId, newStatus);
+        try {
+            // Обновляем статус через сервис
+            bookingService.updateBookingStatus(bookingId, newStatus);
+        } catch (IllegalStateException e) {
+            // При выходе из отмены в одном из туров не осталось мест
+            return ResponseEntity.status(409).build();
+        }
         return ResponseEntity.noContent().build();
     }
 
@@ -116,17 +199,62 @@ public class BookingRestController {
      *
      * @param bookingId - идентификатор бронирования
      * @param status - новый статус бронирования
-     * @return ResponseEntity без тела (204 No Content), если обновление прошло успешно
+     * @return ResponseEntity без тела (204 No Content), если обновление прошло успешно;
+     *         409, если при выходе из отмены в одном из туров нет свободных мест
      */
     @PatchMapping("/{bookingId}/status")
     public ResponseEntity<Void> patchBookingStatus(@PathVariable Long bookingId, @RequestBody String status) {
         // Преобразуем строку статуса в перечисление
         BookingStatus newStatus = BookingStatus.valueOf(status.toUpperCase());
-        // Частично обновляем статус через сервис
-        bookingService.updateBookingStatus(bookingId, newStatus);
+        try {
+            // Частично обновляем статус через сервис
+            bookingService.updateBookingStatus(bookingId, newStatus);
+        } catch (IllegalStateException e) {
+            // При выходе из отмены в одном из туров не осталось мест
+            return ResponseEntity.status(409).build();
+        }
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Изменить статусы нескольких бронирований (POST).
+     * Переходы проверяются по тем же правилам, что и при подтверждении и отмене;
+     * допустимые изменения применяются в одной транзакции, а для каждого элемента возвращается результат.
+     *
+     * @param updates - список пар «ID бронирования — новый статус»
+     * @return ResponseEntity с результатами по каждому элементу; 400, если элементов слишком много;
+     *         409, если статусы изменились во время обновления
+     */
+    @PostMapping("/status:batch")
+    public ResponseEntity<List<BookingStatusUpdateResult>> updateBookingStatuses(@RequestBody List<BookingStatusUpdateDto> updates) {
+        try {
+            return ResponseEntity.ok(bookingService.updateBookingStatuses(updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    /**
+     * Удалить несколько бронирований (POST).
+     * Бронирования удаляются в одной транзакции пакетными запросами; несуществующие ID пропускаются.
+     *
+     * @param bookingIds - ID удаляемых бронирований
+     * @return ResponseEntity с количеством удалённых бронирований; 400, если ID слишком много;
+     *         409, если статусы бронирований изменились во время удаления
+     */
+    @PostMapping("/delete:batch")
+    public ResponseEntity<Integer> deleteBookings(@RequestBody List<Long> bookingIds) {
+        try {
+            return ResponseEntity.ok(bookingService.deleteBookings(bookingIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
     /**
      * Подтвердить бронирование.
      * Этот метод подтверждает бронирование, выполняя соответствующее действие.
@@ -171,24 +299,27 @@ public class BookingRestController {
     }
 
     /**
-     * Получить бронирования текущего пользователя.
-     * Этот метод возвращает список бронирований текущего аутентифицированного пользователя.
-     * Ответ кэшируется на 30 секунд для оптимизации производительности.
+     * Получить бронирования текущего пользователя, включая архивные.
+     * Бронирования возвращаются новыми первыми с курсорной пагинацией. Страницы кэшируются на сервере
+     * и сбрасываются при изменении бронирований пользователя, поэтому клиент должен перепроверять ответ.
      *
-     * @param principal - текущий аутентифицированный пользователь
-     * @return ResponseEntity с коллекцией бронирований пользователя
+     * @param cursor - курсор страницы (необязательный параметр)
+     * @param size - размер страницы (не больше {@value BookingService#MAX_BOOKINGS_PAGE_SIZE})
+     * @param user - текущий аутентифицированный пользователь
+     * @return ResponseEntity со страницей бронирований пользователя или 400, если курсор некорректен
      */
     @GetMapping("/my")
-    public ResponseEntity<List<Booking>> getMyBookings(Principal principal) {
-        // Получаем имя пользователя и находим его в базе
-        String username = principal.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        // Получаем все бронирования пользователя
-        List<Booking> bookings = bookingService.getBookingsByUser(user);
-        return ResponseEntity.ok()
-                .cacheControl(CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic())
-                .body(bookings);
+    public ResponseEntity<CursorPage<BookingView>> getMyBookings(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size,
+                                                                 @CurrentUser User user) {
+        try {
+            CursorPage<BookingView> page = bookingService.getUserBookingsPage(user, cursor, size);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
 
@@ -2,32 +2,37 @@ package org.example.tourist.controller.api;
 
 import org.example.tourist.models.Cart;
 import org.example.tourist.models.TourPackage;
+import org.example.tourist.services.CartService;
 import org.example.tourist.services.TourPackageService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+
 @RestController
 @RequestMapping("/api/cart")  // Все запросы будут начинаться с /api/cart
 public class CartRestController {
 
     private final TourPackageService tourPackageService;
-    private final Cart cart;
+    private final CartService cartService;
 
     // Конструктор для внедрения зависимостей
-    public CartRestController(TourPackageService tourPackageService, Cart cart) {
+    public CartRestController(TourPackageService tourPackageService, CartService cartService) {
         this.tourPackageService = tourPackageService;
-        this.cart = cart;
+        this.cartService = cartService;
     }
 
     /**
      * Получить все элементы из корзины.
-     * Ответ включает текущие элементы корзины.
+     * Ответ включает текущие элементы корзины текущего пользователя.
      *
+     * @param principal текущий аутентифицированный пользователь
      * @return Ответ с корзиной
      */
     @GetMapping("/items")
-    public ResponseEntity<Cart> getCartItems() {
+    public ResponseEntity<Cart> getCartItems(Principal principal) {
+        Cart cart = cartService.findCart(principal.getName()).orElseGet(Cart::new);
         return ResponseEntity.ok(cart);  // Возвращаем текущие элементы корзины
     }
 
@@ -36,14 +41,19 @@ public class CartRestController {
      * Принимает ID турпакета и добавляет его в корзину.
      *
      * @param id ID турпакета для добавления в корзину
-     * @return Ответ с кодом 201 (создано)
+     * @param principal текущий аутентифицированный пользователь
+     * @return Ответ с кодом 201 (создано); 409 с текстом ошибки, если корзина заполнена
      */
     @PostMapping("/items")
-    public ResponseEntity<Void> addToCart(@RequestParam Long id) {
+    public ResponseEntity<String> addToCart(@RequestParam Long id, Principal principal) {
         // Получаем турпакет по ID
         TourPackage tourPackage = tourPackageService.getTourPackageById(id);
-        // Добавляем турпакет в корзину
-        cart.addItem(tourPackage);
+        // Добавляем турпакет в корзину пользователя
+        try {
+            cartService.getCart(principal.getName()).addItem(tourPackage.getId(), tourPackage.getPrice());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
         // Возвращаем ответ с кодом 201 (ресурс создан)
         return ResponseEntity.status(201).build();
     }
@@ -53,12 +63,13 @@ public class CartRestController {
      * Принимает ID турпакета и удаляет его из корзины.
      *
      * @param id ID турпакета для удаления из корзины
+     * @param principal текущий аутентифицированный пользователь
      * @return Ответ с кодом 204 (без содержимого)
      */
     @DeleteMapping("/items/{id}")
-    public ResponseEntity<Void> removeFromCart(@PathVariable Long id) {
+    public ResponseEntity<Void> removeFromCart(@PathVariable Long id, Principal principal) {
         // Удаляем турпакет из корзины по ID
-        cart.removeItem(id);
+        cartService.findCart(principal.getName()).ifPresent(cart -> cart.removeItem(id));
         // Возвращаем ответ с кодом 204 (удалено, без содержимого)
         return ResponseEntity.noContent().build();
     }
@@ -67,12 +78,13 @@ public class CartRestController {
      * Очистить корзину.
      * Удаляет все элементы из корзины.
      *
+     * @param principal текущий аутентифицированный пользователь
      * @return Ответ с кодом 204 (без содержимого)
      */
     @DeleteMapping
-    public ResponseEntity<Void> clearCart() {
+    public ResponseEntity<Void> clearCart(Principal principal) {
         // Очищаем корзину
-        cart.clearCart();
+        cartService.removeCart(principal.getName());
         // Возвращаем ответ с кодом 204 (очищено, без содержимого)
         return ResponseEntity.noContent().build();
     }
@@ -1,11 +1,18 @@
 package org.example.tourist.controller.api;
 
+import org.example.tourist.CatalogPage;
+import org.example.tourist.CatalogQuery;
+import org.example.tourist.CurrentUser;
+import org.example.tourist.CursorPage;
+import org.example.tourist.ReviewDto;
+import org.example.tourist.TourPackageSuggestion;
+import org.example.tourist.TourPackageSummary;
 import org.example.tourist.models.Review;
 import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.TourPackageRating;
 import org.example.tourist.models.User;
 import org.example.tourist.services.ReviewService;
 import org.example.tourist.services.TourPackageService;
-import org.example.tourist.services.UserService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,44 +25,72 @@ import java.util.List;
 public class TourPackageRestController {
 
     private final TourPackageService tourPackageService;
-    private final UserService userService;
     private final ReviewService reviewService;
 
-    // Инжектируем сервисы для работы с турпакетами, отзывами и пользователями
-    public TourPackageRestController(TourPackageService tourPackageService, UserService userService, ReviewService reviewService) {
+    // Инжектируем сервисы для работы с турпакетами и отзывами
+    public TourPackageRestController(TourPackageService tourPackageService, ReviewService reviewService) {
         this.tourPackageService = tourPackageService;
-        this.userService = userService;
         this.reviewService = reviewService;
     }
 
     /**
-     * Получить список всех турпакетов.
-     * Этот метод возвращает все доступные турпакеты.
+     * Получить страницу списка турпакетов.
+     * Этот метод возвращает краткие представления турпакетов (без описания, с рейтингом),
+     * отсортированные по названию, с курсорной пагинацией:
+     * для получения следующей страницы нужно передать nextCursor из предыдущего ответа.
      *
-     * @return ResponseEntity с коллекцией турпакетов
+     * @param cursor - курсор следующей страницы (если не указан - первая страница)
+     * @param size - размер страницы (по умолчанию 20, не более 100)
+     * @return ResponseEntity со страницей турпакетов; 400, если курсор повреждён или выдан для другой сортировки
      */
     @GetMapping
-    public ResponseEntity<List<TourPackage>> getAllTourPackages() {
-        List<TourPackage> packages = tourPackageService.getAllTourPackages();
-        return ResponseEntity.ok(packages);
+    public ResponseEntity<CursorPage<TourPackageSummary>> getAllTourPackages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            CursorPage<TourPackageSummary> packages = tourPackageService.getTourPackagesPage(cursor, size);
+            return ResponseEntity.ok(packages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * Поиск турпакетов по имени.
-     * Этот метод позволяет искать турпакеты по названию с возможностью сортировки.
-     * По умолчанию сортировка по имени в порядке возрастания.
+     * Полнотекстовый поиск турпакетов с фильтрами.
+     * Этот метод позволяет искать турпакеты по словам из названия и описания, фильтровать их по цене,
+     * длительности и доступности, сортировать и получать результаты с курсорной пагинацией.
+     * По умолчанию результаты упорядочены по релевантности запросу. Вместе со страницей возвращаются
+     * счётчики фасетов: количество пакетов по диапазонам цены и длительности и по доступности.
+     * Параметры запроса: name, minPrice, maxPrice, minDuration, maxDuration, availability,
+     * sort (по умолчанию "relevance"), direction (по умолчанию "asc"), cursor, size (по умолчанию 20, не более 100).
      *
-     * @param name - имя турпакета для поиска
-     * @param sort - поле для сортировки (по умолчанию "name")
-     * @param direction - направление сортировки (по умолчанию "asc")
-     * @return ResponseEntity с найденными турпакетами
+     * @param catalogQuery - параметры поиска, фильтры, сортировка и пагинация
+     * @return ResponseEntity со страницей найденных турпакетов и счётчиками фасетов;
+     * 400, если сортировка не поддерживается или курсор некорректен
      */
     @GetMapping("/search")
-    public ResponseEntity<List<TourPackage>> searchTourPackages(
-            @RequestParam String name,
-            @RequestParam(defaultValue = "name") String sort,  // Значение по умолчанию "name"
-            @RequestParam(defaultValue = "asc") String direction) {  // Значение по умолчанию "asc"
-        return ResponseEntity.ok(tourPackageService.searchTourPackages(name, sort, direction));
+    public ResponseEntity<CatalogPage> searchTourPackages(CatalogQuery catalogQuery) {
+        try {
+            return ResponseEntity.ok(tourPackageService.searchTourPackages(catalogQuery));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Автодополнение поискового запроса.
+     * Этот метод возвращает самые популярные турпакеты, название которых или одно из слов названия
+     * начинается с введённого префикса. Ответ формируется из индекса в памяти без обращения к базе данных.
+     *
+     * @param prefix - введённое пользователем начало запроса
+     * @param limit - максимальное количество вариантов (по умолчанию 10)
+     * @return ResponseEntity со списком вариантов автодополнения
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TourPackageSuggestion>> suggestTourPackages(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tourPackageService.suggestTourPackages(prefix, limit));
     }
 
     /**
@@ -136,47 +171,71 @@ public class TourPackageRestController {
      * @param tourPackageId - идентификатор турпакета
      * @param rating - рейтинг отзыва
      * @param comment - текст отзыва
-     * @param principal - текущий аутентифицированный пользователь
+     * @param user - текущий аутентифицированный пользователь
      * @return ResponseEntity с кодом 201 Created
      */
     @PostMapping("/{tourPackageId}/reviews")
     public ResponseEntity<Void> addReview(@PathVariable Long tourPackageId,
                                           @RequestParam int rating,
                                           @RequestParam String comment,
-                                          Principal principal) {
+                                          @CurrentUser User user) {
         // Получаем турпакет по ID, если он не найден - возвращаем 404
         TourPackage tourPackage = tourPackageService.getTourPackageById(tourPackageId);
         if (tourPackage == null) {
             return ResponseEntity.notFound().build();
         }
 
-        // Получаем текущего пользователя, чтобы привязать отзыв к нему
-        User user = userService.findByUsername(principal.getName())
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-
-        // Создаем новый объект отзыва и сохраняем его через сервис
+        // Создаем новый объект отзыва и сохраняем его через сервис; оценка вне диапазона 1..5 — ошибка 400
         Review review = new Review(user, tourPackage, rating, comment);
-        reviewService.saveReview(review);
+        try {
+            reviewService.saveReview(review);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         return ResponseEntity.status(201).build();
     }
 
     /**
-     * Получить список отзывов для турпакета.
-     * Этот метод возвращает все отзывы для конкретного турпакета по его ID.
+     * Получить рейтинг турпакета.
+     * Этот метод возвращает количество отзывов, среднюю оценку и распределение оценок от 1 до 5.
+     * Рейтинг хранится в агрегированном виде и обновляется при добавлении отзыва, поэтому отзывы не читаются.
+     *
+     * @param tourPackageId - идентификатор турпакета
+     * @return ResponseEntity с рейтингом турпакета
+     */
+    @GetMapping("/{tourPackageId}/rating")
+    public ResponseEntity<TourPackageRating> getRating(@PathVariable Long tourPackageId) {
+        if (tourPackageService.getTourPackageById(tourPackageId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(reviewService.getRating(tourPackageId));
+    }
+
+    /**
+     * Получить страницу отзывов для турпакета.
+     * Этот метод возвращает отзывы конкретного турпакета, новые первыми, с курсорной пагинацией:
+     * для загрузки следующих отзывов нужно передать nextCursor из предыдущего ответа.
      * Если турпакет не найден, возвращается ошибка 404.
      *
      * @param tourPackageId - идентификатор турпакета
-     * @return ResponseEntity с коллекцией отзывов для турпакета
+     * @param cursor - курсор следующей страницы (если не указан - первая страница)
+     * @param size - размер страницы (по умолчанию 20, не более 50)
+     * @return ResponseEntity со страницей отзывов для турпакета; 400, если курсор некорректен
      */
     @GetMapping("/{tourPackageId}/reviews")
-    public ResponseEntity<List<Review>> getReviews(@PathVariable Long tourPackageId) {
+    public ResponseEntity<CursorPage<ReviewDto>> getReviews(@PathVariable Long tourPackageId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
         // Получаем турпакет по ID, если он не найден - возвращаем 404
         TourPackage tourPackage = tourPackageService.getTourPackageById(tourPackageId);
         if (tourPackage == null) {
             return ResponseEntity.notFound().build();
         }
-        // Возвращаем список всех отзывов для турпакета
-        return ResponseEntity.ok(reviewService.getReviewsByTourPackage(tourPackage));
+        try {
+            return ResponseEntity.ok(reviewService.getReviewsPage(tourPackageId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -0,0 +1,127 @@
+package org.example.tourist.models;
+
+import jakarta.persistence.*;
+import org.example.tourist.BookingStatus;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Класс, представляющий архивное бронирование.
+ * Завершённые и отменённые бронирования по истечении срока переносятся из таблицы бронирований в архив,
+ * чтобы рабочие таблицы и их индексы не росли бесконечно. В MySQL таблица архива и таблица связей
+ * с турами секционируются по месяцам даты бронирования, поэтому дата входит в первичный ключ,
+ * а внешние ключи не создаются (секционированные таблицы MySQL их не поддерживают).
+ */
+@Entity
+@Table(name = "bookings_archive", indexes = {
+        @Index(name = "idx_bookings_archive_user_date", columnList = "user_id, booking_date")
+})
+@IdClass(ArchivedBooking.Key.class)
+public class ArchivedBooking {
+
+    /** Идентификатор бронирования (совпадает с идентификатором до переноса в архив) */
+    @Id
+    private Long id;
+
+    /** Дата и время бронирования; ключ секционирования */
+    @Id
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "booking_date")
+    private Date bookingDate;
+
+    /** Пользователь, который сделал бронирование */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private User user;
+
+    /** Список туров бронирования */
+    @ManyToMany
+    @JoinTable(
+            name = "booking_tour_packages_archive",
+            joinColumns = {
+                    @JoinColumn(name = "booking_id", referencedColumnName = "id"),
+                    @JoinColumn(name = "booking_date", referencedColumnName = "booking_date")
+            },
+            inverseJoinColumns = @JoinColumn(name = "tour_package_id"),
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT),
+            inverseForeignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT),
+            indexes = {
+                    @Index(name = "idx_booking_tour_packages_archive_booking", columnList = "booking_id"),
+                    @Index(name = "idx_booking_tour_packages_archive_tour", columnList = "tour_package_id")
+            }
+    )
+    private List<TourPackage> tourPackages;
+
+    /** Общая сумма бронирования */
+    private Integer totalAmount;
+
+    /** Статус бронирования */
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+
+    /**
+     * Конструктор по умолчанию.
+     * Используется JPA.
+     */
+    public ArchivedBooking() {}
+
+    // Геттеры
+
+    public Long getId() {
+        return id;
+    }
+
+    public Date getBookingDate() {
+        return bookingDate;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public List<TourPackage> getTourPackages() {
+        return tourPackages;
+    }
+
+    public Integer getTotalAmount() {
+        return totalAmount;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Составной первичный ключ архивного бронирования.
+     */
+    public static class Key implements Serializable {
+        private Long id;
+        private Date bookingDate;
+
+        public Key() {}
+
+        public Key(Long id, Date bookingDate) {
+            this.id = id;
+            this.bookingDate = bookingDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(id, key.id) && Objects.equals(bookingDate, key.bookingDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, bookingDate);
+        }
+    }
+}
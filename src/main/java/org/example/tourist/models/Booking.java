@@ -1,5 +1,6 @@
 package org.example.tourist.models;
 
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import jakarta.persistence.*;
 import org.example.tourist.BookingStatus;
 
@@ -11,21 +12,31 @@ import java.util.List;
  * Содержит информацию о пользователе, турпакетах, дате бронирования и статусе.
  */
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // Список бронирований: новые первыми, курсорная пагинация по (дата бронирования, ID)
+        @Index(name = "idx_bookings_date_id", columnList = "booking_date, id"),
+        @Index(name = "idx_bookings_status_date_id", columnList = "status, booking_date, id"),
+        // Бронирования пользователя: новые первыми, та же курсорная пагинация
+        @Index(name = "idx_bookings_user_date_id", columnList = "user_id, booking_date, id")
+})
 public class Booking {
 
     /** Уникальный идентификатор бронирования */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bookings")
+    @TableGenerator(name = "bookings", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "bookings",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
-    /** Связь с пользователем, который сделал бронирование */
+    /** Связь с пользователем, который сделал бронирование; в JSON выводится только ID пользователя */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIncludeProperties("id")
     private User user;
 
-    /** Список туров, связанных с данным бронированием */
-    @ManyToMany(cascade = CascadeType.ALL)
+    /** Список туров, связанных с данным бронированием (изменения бронирования не каскадируются на туры) */
+    @ManyToMany
     @JoinTable(
             name = "booking_tour_packages",
             joinColumns = @JoinColumn(name = "booking_id"),
@@ -1,45 +1,56 @@
 package org.example.tourist.models;
 
-import org.springframework.stereotype.Component;
-
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
- * Класс, представляющий корзину для бронирования туров.
- * Содержит список туров, добавленных в корзину, и общую сумму заказа.
+ * Класс, представляющий корзину пользователя для бронирования туров.
+ * Содержит позиции корзины и общую сумму заказа.
+ * Корзины создаются и хранятся {@link org.example.tourist.services.CartService}, по одной на пользователя.
+ * Все операции синхронизированы на самой корзине, поэтому разные пользователи не конкурируют за блокировку.
  */
-@Component
 public class Cart {
 
-    /** Список туров, добавленных в корзину */
-    private List<TourPackage> cartItems = new ArrayList<>();
+    /** Позиции, добавленные в корзину */
+    private final List<CartItem> cartItems = new ArrayList<>();
+
+    /** Максимальное количество позиций в корзине */
+    private final int maxItems;
 
     /** Общая сумма туров в корзине */
-    private Integer totalPrice = 0;
+    private int totalPrice = 0;
+
+    /** Время последнего обращения к корзине (мс), используется для вытеснения неактивных корзин */
+    private volatile long lastAccessTime;
 
     /**
      * Конструктор по умолчанию.
-     * Инициализирует пустую корзину.
+     * Инициализирует пустую корзину без ограничения на количество позиций.
      */
-    public Cart() {}
+    public Cart() {
+        this(Integer.MAX_VALUE);
+    }
 
     /**
-     * Получает список туров, добавленных в корзину.
+     * Конструктор для инициализации пустой корзины с ограничением на количество позиций.
      *
-     * @return список туров в корзине
+     * @param maxItems максимальное количество позиций в корзине
      */
-    public List<TourPackage> getCartItems() {
-        return cartItems;
+    public Cart(int maxItems) {
+        this.maxItems = maxItems;
     }
 
     /**
-     * Устанавливает список туров в корзине.
+     * Получает снимок позиций, добавленных в корзину.
      *
-     * @param cartItems список туров, которые нужно добавить в корзину
+     * @return неизменяемый список позиций корзины
      */
-    public void setCartItems(List<TourPackage> cartItems) {
-        this.cartItems = cartItems;
+    public synchronized List<CartItem> getCartItems() {
+        return List.copyOf(cartItems);
     }
 
     /**
@@ -47,53 +58,83 @@ public class Cart {
      *
      * @return общая сумма
      */
-    public Integer getTotalPrice() {
+    public synchronized Integer getTotalPrice() {
         return totalPrice;
     }
 
     /**
-     * Устанавливает общую сумму туров в корзине.
+     * Добавляет тур в корзину и обновляет общую сумму.
      *
-     * @param totalPrice общая сумма, которая должна быть установлена
+     * @param tourPackageId идентификатор тура, который добавляется в корзину
+     * @param price цена тура на момент добавления
+     * @throws IllegalStateException если корзина уже заполнена
      */
-    public void setTotalPrice(Integer totalPrice) {
-        this.totalPrice = totalPrice;
+    public synchronized void addItem(Long tourPackageId, Integer price) {
+        if (cartItems.size() >= maxItems) {
+            throw new IllegalStateException("Корзина заполнена: нельзя добавить больше " + maxItems + " туров");
+        }
+        int itemPrice = price != null ? price : 0;
+        cartItems.add(new CartItem(tourPackageId, itemPrice));
+        totalPrice += itemPrice;  // Обновляем общую сумму
     }
 
     /**
-     * Добавляет тур в корзину и обновляет общую сумму.
+     * Удаляет тур из корзины по его уникальному идентификатору и обновляет общую сумму.
      *
-     * @param item тур, который добавляется в корзину
+     * @param id идентификатор тура, который нужно удалить
      */
-    public void addItem(TourPackage item) {
-        cartItems.add(item);
-        totalPrice += item.getPrice();  // Обновляем общую сумму
+    public synchronized void removeItem(Long id) {
+        for (int i = 0; i < cartItems.size(); i++) {
+            CartItem item = cartItems.get(i);
+            if (item.getTourPackageId().equals(id)) {
+                cartItems.remove(i);
+                totalPrice -= item.getPrice();  // Обновляем общую сумму
+                return;
+            }
+        }
     }
 
     /**
-     * Удаляет тур из корзины по его уникальному идентификатору и обновляет общую сумму.
+     * Удаляет из корзины ровно те позиции, которые были получены ранее через {@link #getCartItems()}.
+     * Позиции, добавленные после получения снимка, остаются в корзине.
      *
-     * @param id идентификатор тура, который нужно удалить
+     * @param items позиции, которые нужно удалить
      */
-    public void removeItem(Long id) {
-        // Находим тур по ID
-        TourPackage item = cartItems.stream()
-                .filter(cartItem -> cartItem.getId().equals(id))
-                .findFirst()
-                .orElse(null);  // Если тур не найден, возвращаем null
-
-        // Если тур найден, удаляем его и уменьшаем общую сумму
-        if (item != null) {
-            cartItems.remove(item);
-            totalPrice -= item.getPrice();  // Обновляем общую сумму
-        }
+    public synchronized void removeItems(Collection<CartItem> items) {
+        Set<CartItem> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        toRemove.addAll(items);
+        cartItems.removeIf(item -> {
+            if (toRemove.contains(item)) {
+                totalPrice -= item.getPrice();
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
      * Очищает корзину, удаляя все туры и сбрасывая общую сумму.
      */
-    public void clearCart() {
+    public synchronized void clearCart() {
         cartItems.clear();
         totalPrice = 0;  // Сбрасываем общую сумму
     }
+
+    /**
+     * Возвращает время последнего обращения к корзине.
+     *
+     * @return время последнего обращения в миллисекундах
+     */
+    public long lastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * Отмечает обращение к корзине.
+     *
+     * @param now текущее время в миллисекундах
+     */
+    public void touch(long now) {
+        this.lastAccessTime = now;
+    }
 }
@@ -0,0 +1,34 @@
+package org.example.tourist.models;
+
+/**
+ * Класс, представляющий позицию в корзине.
+ * Хранит только идентификатор туристического пакета и его цену на момент добавления,
+ * чтобы корзина не удерживала в памяти отсоединённые сущности {@link TourPackage}.
+ */
+public class CartItem {
+
+    /** Идентификатор туристического пакета */
+    private final Long tourPackageId;
+
+    /** Цена туристического пакета на момент добавления в корзину */
+    private final Integer price;
+
+    /**
+     * Конструктор для инициализации позиции корзины.
+     *
+     * @param tourPackageId идентификатор туристического пакета
+     * @param price цена туристического пакета на момент добавления
+     */
+    public CartItem(Long tourPackageId, Integer price) {
+        this.tourPackageId = tourPackageId;
+        this.price = price;
+    }
+
+    public Long getTourPackageId() {
+        return tourPackageId;
+    }
+
+    public Integer getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.tourist.models;
+
+import java.util.List;
+
+/**
+ * Параметры генераторов идентификаторов сущностей.
+ * Идентификаторы выдаются из таблицы {@value #TABLE} блоками по {@value #ALLOCATION_SIZE} значений
+ * (оптимизатор pooled): одно обращение к таблице генераторов приходится на целый блок вставок,
+ * а значения известны до выполнения INSERT, поэтому Hibernate может объединять вставки в пакеты JDBC.
+ * В отличие от {@code GenerationType.IDENTITY} это не требует отдельного запроса на каждую строку.
+ */
+public final class IdGenerators {
+
+    /** Таблица, в которой хранятся следующие значения генераторов */
+    public static final String TABLE = "id_generators";
+
+    /** Столбец с именем генератора (совпадает с именем таблицы сущности) */
+    public static final String NAME_COLUMN = "entity_name";
+
+    /** Столбец со следующим значением генератора */
+    public static final String VALUE_COLUMN = "next_val";
+
+    /** Количество идентификаторов, выделяемых за одно обращение к таблице генераторов */
+    public static final int ALLOCATION_SIZE = 50;
+
+    /** Таблицы сущностей, идентификаторы которых выдаются генераторами (имя генератора совпадает с именем таблицы) */
+    public static final List<String> ENTITY_TABLES = List.of("users", "roles", "tour_packages", "bookings", "reviews");
+
+    private IdGenerators() {
+    }
+}
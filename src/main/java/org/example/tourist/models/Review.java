@@ -9,12 +9,18 @@ import java.time.LocalDateTime;
  * рейтинге, комментарии и дате отзыва.
  */
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        // Лента отзывов пакета: новые первыми, курсорная пагинация по (дата отзыва, ID)
+        @Index(name = "idx_reviews_tour_package_date_id", columnList = "tour_package_id, review_date, id")
+})
 public class Review {
 
     /** Уникальный идентификатор отзыва */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reviews")
+    @TableGenerator(name = "reviews", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "reviews",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     /** Связь с пользователем, оставившим отзыв */
@@ -14,7 +14,10 @@ public class Role {
 
     /** Уникальный идентификатор роли */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "roles")
+    @TableGenerator(name = "roles", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "roles",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     /** Название роли (например, "USER", "ADMIN") */
@@ -1,5 +1,6 @@
 package org.example.tourist.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -10,12 +11,21 @@ import java.util.List;
  * а также связи с отзывами и бронированиями.
  */
 @Entity
-@Table(name = "tour_packages")
+@Table(name = "tour_packages", indexes = {
+        // Индексы для курсорной пагинации каталога по паре (поле сортировки, id)
+        @Index(name = "idx_tour_packages_name_id", columnList = "name, id"),
+        @Index(name = "idx_tour_packages_price_id", columnList = "price, id"),
+        @Index(name = "idx_tour_packages_duration_id", columnList = "duration, id"),
+        @Index(name = "idx_tour_packages_availability_id", columnList = "availability, id")
+})
 public class TourPackage {
 
     /** Уникальный идентификатор туристического пакета */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "tour_packages")
+    @TableGenerator(name = "tour_packages", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "tour_packages",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     /** Название туристического пакета */
@@ -38,11 +48,25 @@ public class TourPackage {
     /** Длительность туристического пакета в днях */
     private Integer duration;
 
-    /** Список отзывов, связанных с этим туристическим пакетом */
+    /** Количество мест в туре (null — количество мест не ограничено) */
+    private Integer capacity;
+
+    /**
+     * Количество мест, ещё не выданных сервису учёта мест.
+     * Изменяется только условными UPDATE-запросами {@link org.example.tourist.services.SeatInventoryService},
+     * поэтому при сохранении сущности не перезаписывается (не сериализуется).
+     */
+    @JsonIgnore
+    @Column(name = "seats_left", updatable = false)
+    private Integer seatsLeft;
+
+    /** Список отзывов, связанных с этим туристическим пакетом (не сериализуется: отзывы отдаются отдельным ресурсом) */
+    @JsonIgnore
     @OneToMany(mappedBy = "tourPackage", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Review> reviews = new ArrayList<>();
 
-    /** Список бронирований, связанных с этим туристическим пакетом */
+    /** Список бронирований, связанных с этим туристическим пакетом (не сериализуется) */
+    @JsonIgnore
     @ManyToMany(mappedBy = "tourPackages")
     private List<Booking> bookings = new ArrayList<>();
 
@@ -125,6 +149,22 @@ public class TourPackage {
         this.duration = duration;
     }
 
+    public Integer getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+
+    public Integer getSeatsLeft() {
+        return seatsLeft;
+    }
+
+    public void setSeatsLeft(Integer seatsLeft) {
+        this.seatsLeft = seatsLeft;
+    }
+
     public List<Review> getReviews() {
         return reviews;
     }
@@ -0,0 +1,128 @@
+package org.example.tourist.models;
+
+import jakarta.persistence.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Агрегированный рейтинг туристического пакета.
+ * Хранит количество отзывов, сумму оценок и распределение оценок от 1 до 5,
+ * которые обновляются вместе с сохранением отзыва, поэтому для отображения рейтинга
+ * не нужно читать все отзывы пакета.
+ */
+@Entity
+@Table(name = "tour_package_ratings")
+public class TourPackageRating {
+
+    /** Минимальная допустимая оценка */
+    public static final int MIN_RATING = 1;
+
+    /** Максимальная допустимая оценка */
+    public static final int MAX_RATING = 5;
+
+    /** ID туристического пакета */
+    @Id
+    @Column(name = "tour_package_id")
+    private Long tourPackageId;
+
+    /** Количество отзывов */
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    /** Сумма оценок всех отзывов */
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    /** Количество отзывов с оценкой 1 */
+    @Column(name = "rating_1", nullable = false)
+    private long rating1;
+
+    /** Количество отзывов с оценкой 2 */
+    @Column(name = "rating_2", nullable = false)
+    private long rating2;
+
+    /** Количество отзывов с оценкой 3 */
+    @Column(name = "rating_3", nullable = false)
+    private long rating3;
+
+    /** Количество отзывов с оценкой 4 */
+    @Column(name = "rating_4", nullable = false)
+    private long rating4;
+
+    /** Количество отзывов с оценкой 5 */
+    @Column(name = "rating_5", nullable = false)
+    private long rating5;
+
+    /**
+     * Конструктор по умолчанию.
+     */
+    public TourPackageRating() {}
+
+    /**
+     * Конструктор для создания пустого рейтинга туристического пакета.
+     *
+     * @param tourPackageId ID туристического пакета
+     */
+    public TourPackageRating(Long tourPackageId) {
+        this.tourPackageId = tourPackageId;
+    }
+
+    /**
+     * Учитывает отзывы с указанной оценкой.
+     *
+     * @param rating оценка от 1 до 5
+     * @param count количество отзывов с этой оценкой
+     * @throws IllegalArgumentException если оценка вне допустимого диапазона
+     */
+    public void addRatings(int rating, long count) {
+        switch (rating) {
+            case 1 -> rating1 += count;
+            case 2 -> rating2 += count;
+            case 3 -> rating3 += count;
+            case 4 -> rating4 += count;
+            case 5 -> rating5 += count;
+            default -> throw new IllegalArgumentException("Оценка должна быть от 1 до 5");
+        }
+        reviewCount += count;
+        ratingSum += rating * count;
+    }
+
+    /**
+     * Вычисляет среднюю оценку.
+     *
+     * @return средняя оценка или null, если отзывов нет
+     */
+    public Double getAverageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+    }
+
+    /**
+     * Получает распределение оценок.
+     *
+     * @return карта, где ключ — оценка от 1 до 5, а значение — количество отзывов с этой оценкой
+     */
+    public Map<Integer, Long> getDistribution() {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        distribution.put(1, rating1);
+        distribution.put(2, rating2);
+        distribution.put(3, rating3);
+        distribution.put(4, rating4);
+        distribution.put(5, rating5);
+        return distribution;
+    }
+
+    // Геттеры
+
+    public Long getTourPackageId() {
+        return tourPackageId;
+    }
+
+    public long getReviewCount() {
+        return reviewCount;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+}
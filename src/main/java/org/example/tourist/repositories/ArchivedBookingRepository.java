@@ -0,0 +1,90 @@
+package org.example.tourist.repositories;
+
+import org.example.tourist.models.ArchivedBooking;
+import org.example.tourist.models.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностью {@link ArchivedBooking}.
+ * Содержит запросы переноса бронирований в архив и запросы статистики, дополняющие
+ * одноимённые запросы {@link BookingRepository} данными архива.
+ */
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, ArchivedBooking.Key> {
+
+    /**
+     * Копирует бронирования в архив одним запросом.
+     *
+     * @param ids идентификаторы бронирований
+     * @return количество скопированных бронирований
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (id, booking_date, user_id, total_amount, status) "
+            + "SELECT id, booking_date, user_id, total_amount, status FROM bookings WHERE id IN :ids", nativeQuery = true)
+    int copyBookings(Collection<Long> ids);
+
+    /**
+     * Копирует связи бронирований с турами в архив одним запросом.
+     *
+     * @param ids идентификаторы бронирований
+     * @return количество скопированных связей
+     */
+    @Modifying
+    @Query(value = "INSERT INTO booking_tour_packages_archive (booking_id, booking_date, tour_package_id) "
+            + "SELECT btp.booking_id, b.booking_date, btp.tour_package_id FROM booking_tour_packages btp "
+            + "JOIN bookings b ON b.id = btp.booking_id WHERE btp.booking_id IN :ids", nativeQuery = true)
+    int copyTourPackageLinks(Collection<Long> ids);
+
+    /**
+     * Удаляет архивные бронирования пользователя вместе со связями с турами.
+     *
+     * @param userId ID пользователя
+     * @return количество удалённых бронирований
+     */
+    @Modifying
+    @Query("DELETE FROM ArchivedBooking a WHERE a.user.id = :userId")
+    int deleteByUserId(Long userId);
+
+    /**
+     * Подсчитывает архивные бронирования по месяцам.
+     * Возвращает список массивов, где первый элемент - месяц, второй - количество бронирований.
+     *
+     * @return список объектов, содержащих месяц и количество бронирований в этот месяц
+     */
+    @Query("SELECT MONTH(a.bookingDate), COUNT(a.id) FROM ArchivedBooking a GROUP BY MONTH(a.bookingDate)")
+    List<Object[]> countBookingsPerMonth();
+
+    /**
+     * Подсчитывает архивные бронирования туристического пакета.
+     *
+     * @param tourPackageId идентификатор туристического пакета
+     * @return количество архивных бронирований
+     */
+    @Query("SELECT COUNT(a.id) FROM ArchivedBooking a JOIN a.tourPackages tp WHERE tp.id = :tourPackageId")
+    long countBookingsByTourPackageId(Long tourPackageId);
+
+    /**
+     * Подсчитывает архивные бронирования сразу для нескольких туристических пакетов.
+     * Возвращает список массивов, где первый элемент - ID туристического пакета, второй - количество бронирований.
+     * Пакеты без архивных бронирований в результат не попадают.
+     *
+     * @param tourPackageIds идентификаторы туристических пакетов
+     * @return список объектов, содержащих ID пакета и количество его архивных бронирований
+     */
+    @Query("SELECT tp.id, COUNT(a.id) FROM ArchivedBooking a JOIN a.tourPackages tp WHERE tp.id IN :tourPackageIds GROUP BY tp.id")
+    List<Object[]> countBookingsByTourPackageIds(Collection<Long> tourPackageIds);
+
+    /**
+     * Подсчитывает архивные бронирования для каждого туристического пакета.
+     * Возвращает список массивов, где первый элемент - ID туристического пакета, второй - количество бронирований.
+     * Пакеты без архивных бронирований в результат не попадают.
+     *
+     * @return список объектов, содержащих ID пакета и количество его архивных бронирований
+     */
+    @Query("SELECT tp.id, COUNT(a.id) FROM ArchivedBooking a JOIN a.tourPackages tp GROUP BY tp.id")
+    List<Object[]> countBookingsPerTourPackage();
+}
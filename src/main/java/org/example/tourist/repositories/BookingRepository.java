@@ -3,10 +3,14 @@ package org.example.tourist.repositories;
 import org.example.tourist.models.Booking;
 import org.example.tourist.BookingStatus;
 import org.example.tourist.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -15,7 +19,7 @@ import java.util.List;
  * пользователю, а также методы для статистики по бронированиям.
  */
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     /**
      * Находит все бронирования по статусу.
@@ -33,6 +37,16 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     List<Booking> findByUser(User user);
 
+    /**
+     * Находит ID бронирований пользователя, статус которых отличается от указанного.
+     *
+     * @param userId ID пользователя
+     * @param status исключаемый статус
+     * @return список ID бронирований
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.user.id = :userId AND b.status <> :status")
+    List<Long> findIdsByUserIdAndStatusNot(Long userId, BookingStatus status);
+
     /**
      * Выполняет запрос для подсчета количества бронирований по месяцам.
      * Возвращает список массивов, где первый элемент - месяц, второй - количество бронирований.
@@ -50,4 +64,98 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      */
     @Query("SELECT COUNT(b) FROM Booking b JOIN b.tourPackages tp WHERE tp.id = :tourPackageId")
     long countBookingsByTourPackageId(Long tourPackageId);
+
+    /**
+     * Выполняет запрос для подсчета бронирований сразу для нескольких туристических пакетов.
+     * Возвращает список массивов, где первый элемент - ID туристического пакета, второй - количество бронирований.
+     * Пакеты без бронирований в результат не попадают.
+     *
+     * @param tourPackageIds идентификаторы туристических пакетов
+     * @return список объектов, содержащих ID пакета и количество его бронирований
+     */
+    @Query("SELECT tp.id, COUNT(b) FROM Booking b JOIN b.tourPackages tp WHERE tp.id IN :tourPackageIds GROUP BY tp.id")
+    List<Object[]> countBookingsByTourPackageIds(Collection<Long> tourPackageIds);
+
+    /**
+     * Выполняет запрос для подсчета бронирований по всем туристическим пакетам.
+     * Возвращает список массивов, где первый элемент - ID туристического пакета, второй - количество бронирований.
+     * Пакеты без бронирований в результат не попадают.
+     *
+     * @return список объектов, содержащих ID пакета и количество его бронирований
+     */
+    @Query("SELECT tp.id, COUNT(b) FROM Booking b JOIN b.tourPackages tp GROUP BY tp.id")
+    List<Object[]> countBookingsPerTourPackage();
+
+    /**
+     * Получает текущие статусы бронирований без загрузки сущностей.
+     * Возвращает список массивов, где первый элемент - ID бронирования, второй - его статус,
+     * третий - ID пользователя.
+     *
+     * @param ids идентификаторы бронирований
+     * @return список объектов, содержащих ID, статус и ID пользователя найденных бронирований
+     */
+    @Query("SELECT b.id, b.status, b.user.id FROM Booking b WHERE b.id IN :ids")
+    List<Object[]> findStatusesByIds(Collection<Long> ids);
+
+    /**
+     * Изменяет статус бронирований одним запросом.
+     * Изменяются только бронирования, находящиеся в одном из допустимых статусов, поэтому параллельное
+     * изменение статуса не перезаписывается.
+     *
+     * @param ids идентификаторы бронирований
+     * @param currentStatuses допустимые текущие статусы
+     * @param status новый статус
+     * @return количество изменённых бронирований
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status WHERE b.id IN :ids AND b.status IN :currentStatuses")
+    int updateStatuses(Collection<Long> ids, Collection<BookingStatus> currentStatuses, BookingStatus status);
+
+    /**
+     * Получает страницу бронирований в указанном статусе, упорядоченных по ID, без загрузки сущностей.
+     * Возвращает список массивов, где первый элемент - ID бронирования, второй - дата бронирования.
+     *
+     * @param status статус бронирования
+     * @param afterId ID, после которого начинается страница (0 — с начала)
+     * @param limit максимальное количество бронирований на странице
+     * @return список объектов, содержащих ID и дату бронирования
+     */
+    @Query("SELECT b.id, b.bookingDate FROM Booking b WHERE b.status = :status AND b.id > :afterId ORDER BY b.id")
+    List<Object[]> findIdsAndDatesByStatus(BookingStatus status, Long afterId, Limit limit);
+
+    /**
+     * Получает ID самых старых бронирований в указанном статусе, оформленных до заданного момента.
+     * Порядок совпадает с индексом (статус, дата, ID), поэтому запрос читает только первые строки диапазона.
+     *
+     * @param status статус бронирования
+     * @param before момент, до которого оформлены бронирования (не включительно)
+     * @param limit максимальное количество ID
+     * @return список ID бронирований
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.bookingDate < :before ORDER BY b.bookingDate, b.id")
+    List<Long> findIdsByStatusBefore(BookingStatus status, Date before, Limit limit);
+
+    /**
+     * Находит дату самого старого бронирования в одном из статусов, оформленного до заданного момента.
+     *
+     * @param statuses статусы бронирований
+     * @param before момент, до которого оформлены бронирования (не включительно)
+     * @return дата бронирования или null, если таких бронирований нет
+     */
+    @Query("SELECT MIN(b.bookingDate) FROM Booking b WHERE b.status IN :statuses AND b.bookingDate < :before")
+    Date findMinBookingDate(Collection<BookingStatus> statuses, Date before);
+
+    /**
+     * Удаляет бронирования одним запросом, без загрузки сущностей.
+     * Удаляются только бронирования, находящиеся в одном из указанных статусов, поэтому бронирование,
+     * статус которого изменился после чтения, не удаляется. Связи с турами Hibernate удаляет
+     * отдельным запросом с тем же условием непосредственно перед удалением бронирований.
+     *
+     * @param ids идентификаторы бронирований
+     * @param statuses допустимые текущие статусы
+     * @return количество удалённых бронирований
+     */
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids AND b.status IN :statuses")
+    int deleteByIdsAndStatuses(Collection<Long> ids, Collection<BookingStatus> statuses);
 }
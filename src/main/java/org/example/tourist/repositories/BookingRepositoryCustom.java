@@ -0,0 +1,51 @@
+package org.example.tourist.repositories;
+
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingView;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Дополнительные методы репозитория {@link BookingRepository},
+ * которые не выражаются через производные запросы Spring Data.
+ */
+public interface BookingRepositoryCustom {
+
+    /**
+     * Находит страницу бронирований, новые первыми, с курсорной (keyset) пагинацией по паре (дата бронирования, ID).
+     * Бронирования читаются одним запросом вместе с именем пользователя, а туры всех бронирований страницы —
+     * вторым запросом, поэтому количество запросов не зависит от размера страницы.
+     *
+     * @param filter фильтры: статус, период оформления, имя пользователя; параметры пагинации не используются
+     * @param afterDate дата бронирования последней записи предыдущей страницы
+     * @param afterId ID последней записи предыдущей страницы (null — первая страница)
+     * @param limit максимальное количество записей
+     * @return представления бронирований страницы с заполненными турами
+     */
+    List<BookingView> findPage(BookingQuery filter, Date afterDate, Long afterId, int limit);
+
+    /**
+     * Находит страницу бронирований пользователя, новые первыми, с курсорной пагинацией по паре (дата бронирования, ID).
+     * Бронирования читаются по индексу (пользователь, дата, ID), туры страницы — вторым запросом.
+     *
+     * @param userId ID пользователя
+     * @param afterDate дата бронирования последней записи предыдущей страницы
+     * @param afterId ID последней записи предыдущей страницы (null — первая страница)
+     * @param limit максимальное количество записей
+     * @return представления бронирований страницы с заполненными турами
+     */
+    List<BookingView> findUserPage(Long userId, Date afterDate, Long afterId, int limit);
+
+    /**
+     * Находит страницу архивных бронирований пользователя, новые первыми, с той же пагинацией,
+     * что и {@link #findUserPage}, чтобы страницы текущих и архивных бронирований можно было объединить.
+     *
+     * @param userId ID пользователя
+     * @param afterDate дата бронирования последней записи предыдущей страницы
+     * @param afterId ID последней записи предыдущей страницы (null — первая страница)
+     * @param limit максимальное количество записей
+     * @return представления архивных бронирований страницы с заполненными турами
+     */
+    List<BookingView> findArchivedUserPage(Long userId, Date afterDate, Long afterId, int limit);
+}
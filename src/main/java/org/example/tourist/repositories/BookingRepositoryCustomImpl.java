@@ -0,0 +1,136 @@
+package org.example.tourist.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingView;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация {@link BookingRepositoryCustom} на JPQL.
+ */
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    /** Проекция полей представления бронирования; за ней следует имя сущности с псевдонимом b */
+    private static final String VIEW_SELECT = "SELECT new org.example.tourist.BookingView("
+            + "b.id, u.username, b.bookingDate, b.totalAmount, b.status) FROM ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingView> findPage(BookingQuery filter, Date afterDate, Long afterId, int limit) {
+        String username = filter.getUsername();
+        boolean filterByUser = username != null && !username.isEmpty();
+
+        StringBuilder jpql = new StringBuilder(VIEW_SELECT).append("Booking b JOIN b.user u WHERE 1 = 1");
+        if (filter.getStatus() != null) {
+            jpql.append(" AND b.status = :status");
+        }
+        if (filter.getFrom() != null) {
+            jpql.append(" AND b.bookingDate >= :from");
+        }
+        if (filter.getTo() != null) {
+            jpql.append(" AND b.bookingDate < :to");
+        }
+        if (filterByUser) {
+            jpql.append(" AND u.username = :username");
+        }
+        if (afterId != null) {
+            jpql.append(" AND (b.bookingDate < :afterDate OR (b.bookingDate = :afterDate AND b.id < :afterId))");
+        }
+        jpql.append(" ORDER BY b.bookingDate DESC, b.id DESC");
+
+        TypedQuery<BookingView> query = entityManager.createQuery(jpql.toString(), BookingView.class);
+        if (filter.getStatus() != null) {
+            query.setParameter("status", filter.getStatus());
+        }
+        if (filter.getFrom() != null) {
+            query.setParameter("from", Timestamp.valueOf(filter.getFrom().atStartOfDay()));
+        }
+        if (filter.getTo() != null) {
+            // Последний день периода включается целиком
+            query.setParameter("to", Timestamp.valueOf(filter.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (filterByUser) {
+            query.setParameter("username", username);
+        }
+        if (afterId != null) {
+            query.setParameter("afterDate", afterDate);
+            query.setParameter("afterId", afterId);
+        }
+        return fillTourPackages("Booking", query.setMaxResults(limit).getResultList());
+    }
+
+    @Override
+    public List<BookingView> findUserPage(Long userId, Date afterDate, Long afterId, int limit) {
+        return findUserPage("Booking", userId, afterDate, afterId, limit);
+    }
+
+    @Override
+    public List<BookingView> findArchivedUserPage(Long userId, Date afterDate, Long afterId, int limit) {
+        return findUserPage("ArchivedBooking", userId, afterDate, afterId, limit);
+    }
+
+    /**
+     * Читает страницу бронирований пользователя из сущности с полями бронирования.
+     *
+     * @param entity имя сущности: Booking или ArchivedBooking
+     */
+    private List<BookingView> findUserPage(String entity, Long userId, Date afterDate, Long afterId, int limit) {
+        // Имя сущности задаётся только константами этого класса, поэтому подстановка в запрос безопасна
+        StringBuilder jpql = new StringBuilder(VIEW_SELECT).append(entity).append(" b JOIN b.user u WHERE u.id = :userId");
+        if (afterId != null) {
+            jpql.append(" AND (b.bookingDate < :afterDate OR (b.bookingDate = :afterDate AND b.id < :afterId))");
+        }
+        jpql.append(" ORDER BY b.bookingDate DESC, b.id DESC");
+
+        TypedQuery<BookingView> query = entityManager.createQuery(jpql.toString(), BookingView.class)
+                .setParameter("userId", userId);
+        if (afterId != null) {
+            query.setParameter("afterDate", afterDate);
+            query.setParameter("afterId", afterId);
+        }
+        return fillTourPackages(entity, query.setMaxResults(limit).getResultList());
+    }
+
+    /**
+     * Заполняет туры бронирований страницы одним запросом.
+     * Условие на период дат страницы избыточно для выборки, но в секционированном архиве
+     * ограничивает чтение таблицы связей секциями этих месяцев.
+     *
+     * @param entity имя сущности: Booking или ArchivedBooking
+     * @param views бронирования страницы
+     * @return те же бронирования
+     */
+    private List<BookingView> fillTourPackages(String entity, List<BookingView> views) {
+        if (views.isEmpty()) {
+            return views;
+        }
+        Map<Long, BookingView> byId = views.stream().collect(Collectors.toMap(BookingView::getId, Function.identity()));
+        Date oldest = views.get(0).getBookingDate();
+        Date newest = oldest;
+        for (BookingView view : views) {
+            oldest = view.getBookingDate().before(oldest) ? view.getBookingDate() : oldest;
+            newest = view.getBookingDate().after(newest) ? view.getBookingDate() : newest;
+        }
+        List<Object[]> rows = entityManager.createQuery("SELECT b.id, tp.id, tp.name FROM " + entity
+                        + " b JOIN b.tourPackages tp WHERE b.id IN :ids AND b.bookingDate BETWEEN :oldest AND :newest",
+                        Object[].class)
+                .setParameter("ids", byId.keySet())
+                .setParameter("oldest", oldest)
+                .setParameter("newest", newest)
+                .getResultList();
+        for (Object[] row : rows) {
+            byId.get((Long) row[0]).getTourPackages().add(new BookingView.TourPackageRef((Long) row[1], (String) row[2]));
+        }
+        return views;
+    }
+}
@@ -2,8 +2,12 @@ package org.example.tourist.repositories;
 
 import org.example.tourist.models.Review;
 import org.example.tourist.models.TourPackage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,4 +24,53 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
      */
     List<Review> findByTourPackage(TourPackage tourPackage);
 
+    /**
+     * Считает количество отзывов с каждой оценкой сразу для нескольких туристических пакетов одним запросом.
+     * Используется для заполнения агрегированного рейтинга по уже существующим отзывам.
+     *
+     * @param tourPackageIds идентификаторы туристических пакетов
+     * @return список массивов [ID пакета, оценка, количество отзывов]; пакеты без отзывов отсутствуют
+     */
+    @Query("SELECT r.tourPackage.id, r.rating, COUNT(r) FROM Review r " +
+            "WHERE r.tourPackage.id IN :tourPackageIds GROUP BY r.tourPackage.id, r.rating")
+    List<Object[]> countRatingsByTourPackageIds(Collection<Long> tourPackageIds);
+
+    /**
+     * Считает количество отзывов пользователя с каждой оценкой по туристическим пакетам одним запросом.
+     * Используется для исключения оценок пользователя из агрегированного рейтинга при его удалении.
+     *
+     * @param userId ID пользователя
+     * @return список массивов [ID пакета, оценка, количество отзывов]
+     */
+    @Query("SELECT r.tourPackage.id, r.rating, COUNT(r) FROM Review r " +
+            "WHERE r.user.id = :userId GROUP BY r.tourPackage.id, r.rating")
+    List<Object[]> countRatingsByUserId(Long userId);
+
+    /**
+     * Находит первую страницу отзывов туристического пакета, новые первыми.
+     * Автор отзыва загружается тем же запросом.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @param limit максимальное количество отзывов
+     * @return отзывы, упорядоченные по дате и ID по убыванию
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user WHERE r.tourPackage.id = :tourPackageId " +
+            "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Review> findFirstPage(Long tourPackageId, Limit limit);
+
+    /**
+     * Находит следующую страницу отзывов туристического пакета после отзыва (afterDate, afterId).
+     * Условие по паре (дата, ID) использует индекс (tour_package_id, review_date, id)
+     * и не просматривает уже отданные отзывы.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @param afterDate дата последнего отзыва предыдущей страницы
+     * @param afterId ID последнего отзыва предыдущей страницы
+     * @param limit максимальное количество отзывов
+     * @return отзывы, упорядоченные по дате и ID по убыванию
+     */
+    @Query("SELECT r FROM Review r JOIN FETCH r.user WHERE r.tourPackage.id = :tourPackageId " +
+            "AND (r.reviewDate < :afterDate OR (r.reviewDate = :afterDate AND r.id < :afterId)) " +
+            "ORDER BY r.reviewDate DESC, r.id DESC")
+    List<Review> findPageAfter(Long tourPackageId, LocalDateTime afterDate, Long afterId, Limit limit);
 }
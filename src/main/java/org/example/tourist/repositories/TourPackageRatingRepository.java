@@ -0,0 +1,65 @@
+package org.example.tourist.repositories;
+
+import org.example.tourist.models.TourPackageRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностью {@link TourPackageRating}.
+ */
+public interface TourPackageRatingRepository extends JpaRepository<TourPackageRating, Long> {
+
+    /**
+     * Атомарно учитывает новую оценку в агрегированном рейтинге пакета.
+     * Строка рейтинга создаётся первой оценкой пакета, а следующие оценки прибавляются к ней тем же запросом,
+     * поэтому одновременные отзывы к одному пакету не теряют изменения друг друга, а одновременные первые отзывы
+     * не блокируют друг друга в ожидании вставки.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @param rating оценка от 1 до 5
+     */
+    @Modifying
+    @Query(value = "INSERT INTO tour_package_ratings (tour_package_id, review_count, rating_sum, "
+            + "rating_1, rating_2, rating_3, rating_4, rating_5) VALUES (:tourPackageId, 1, :rating, "
+            + "CASE WHEN :rating = 1 THEN 1 ELSE 0 END, CASE WHEN :rating = 2 THEN 1 ELSE 0 END, "
+            + "CASE WHEN :rating = 3 THEN 1 ELSE 0 END, CASE WHEN :rating = 4 THEN 1 ELSE 0 END, "
+            + "CASE WHEN :rating = 5 THEN 1 ELSE 0 END) "
+            + "ON DUPLICATE KEY UPDATE review_count = review_count + 1, rating_sum = rating_sum + :rating, "
+            + "rating_1 = rating_1 + CASE WHEN :rating = 1 THEN 1 ELSE 0 END, "
+            + "rating_2 = rating_2 + CASE WHEN :rating = 2 THEN 1 ELSE 0 END, "
+            + "rating_3 = rating_3 + CASE WHEN :rating = 3 THEN 1 ELSE 0 END, "
+            + "rating_4 = rating_4 + CASE WHEN :rating = 4 THEN 1 ELSE 0 END, "
+            + "rating_5 = rating_5 + CASE WHEN :rating = 5 THEN 1 ELSE 0 END", nativeQuery = true)
+    void addRating(Long tourPackageId, int rating);
+
+    /**
+     * Атомарно исключает оценки удаляемых отзывов из агрегированного рейтинга пакета.
+     * Обратная операция к {@link #addRating(Long, int)}: вычитает сразу несколько отзывов с одной оценкой.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @param rating оценка от 1 до 5
+     * @param count количество отзывов с этой оценкой
+     */
+    @Modifying
+    @Query(value = "UPDATE tour_package_ratings SET review_count = review_count - :count, "
+            + "rating_sum = rating_sum - :rating * :count, "
+            + "rating_1 = rating_1 - CASE WHEN :rating = 1 THEN :count ELSE 0 END, "
+            + "rating_2 = rating_2 - CASE WHEN :rating = 2 THEN :count ELSE 0 END, "
+            + "rating_3 = rating_3 - CASE WHEN :rating = 3 THEN :count ELSE 0 END, "
+            + "rating_4 = rating_4 - CASE WHEN :rating = 4 THEN :count ELSE 0 END, "
+            + "rating_5 = rating_5 - CASE WHEN :rating = 5 THEN :count ELSE 0 END "
+            + "WHERE tour_package_id = :tourPackageId", nativeQuery = true)
+    void removeRatings(Long tourPackageId, int rating, long count);
+
+    /**
+     * Находит ID туристических пакетов, у которых есть отзывы, но нет строки агрегированного рейтинга.
+     *
+     * @return список ID туристических пакетов
+     */
+    @Query("SELECT DISTINCT r.tourPackage.id FROM Review r WHERE NOT EXISTS " +
+            "(SELECT a FROM TourPackageRating a WHERE a.tourPackageId = r.tourPackage.id)")
+    List<Long> findTourPackageIdsWithoutRating();
+}
@@ -1,10 +1,15 @@
 package org.example.tourist.repositories;
 
+import org.example.tourist.BookingStatus;
 import org.example.tourist.models.TourPackage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,7 +18,7 @@ import java.util.List;
  * такими как поиск по доступности, названию и сортировка.
  */
 @Repository
-public interface TourPackageRepository extends JpaRepository<TourPackage, Long> {
+public interface TourPackageRepository extends JpaRepository<TourPackage, Long>, TourPackageRepositoryCustom {
 
     /**
      * Находит все туристические пакеты, доступные или недоступные.
@@ -48,4 +53,95 @@ public interface TourPackageRepository extends JpaRepository<TourPackage, Long>
      * @return список всех туристических пакетов, отсортированных согласно заданному порядку
      */
     List<TourPackage> findAll(Sort sort);
+
+    /**
+     * Находит пачку туристических пакетов с ID больше указанного, упорядоченных по ID.
+     * Используется для последовательного чтения всего каталога пачками.
+     *
+     * @param id ID, после которого начинается пачка
+     * @param limit максимальный размер пачки
+     * @return список туристических пакетов
+     */
+    List<TourPackage> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Выбирает ID и названия всех туристических пакетов без остальных полей.
+     *
+     * @return список массивов [ID пакета, название]
+     */
+    @Query("SELECT tp.id, tp.name FROM TourPackage tp")
+    List<Object[]> findAllIdsAndNames();
+
+    /**
+     * Условно списывает места тура: строка изменяется, только если свободных мест достаточно.
+     * Для тура без ограничения мест ничего не изменяется.
+     *
+     * @param id ID туристического пакета
+     * @param seats количество списываемых мест
+     * @return 1, если места списаны, иначе 0
+     */
+    @Modifying
+    @Query("UPDATE TourPackage tp SET tp.seatsLeft = tp.seatsLeft - :seats WHERE tp.id = :id AND tp.seatsLeft >= :seats")
+    int takeSeats(Long id, int seats);
+
+    /**
+     * Возвращает места тура (или уменьшает их количество, если передано отрицательное значение).
+     * Для тура без ограничения мест ничего не изменяется.
+     *
+     * @param id ID туристического пакета
+     * @param seats количество возвращаемых мест
+     * @return количество обновлённых строк
+     */
+    @Modifying
+    @Query("UPDATE TourPackage tp SET tp.seatsLeft = tp.seatsLeft + :seats WHERE tp.id = :id AND tp.seatsLeft IS NOT NULL")
+    int returnSeats(Long id, int seats);
+
+    /**
+     * Возвращает места, занятые указанными бронированиями, во все их туры с ограниченной вместимостью.
+     *
+     * @param bookingIds идентификаторы бронирований
+     * @return количество обновлённых туров
+     */
+    @Modifying
+    @Query("UPDATE TourPackage tp SET tp.seatsLeft = tp.seatsLeft + (SELECT COUNT(b) FROM Booking b JOIN b.tourPackages p " +
+            "WHERE p.id = tp.id AND b.id IN :bookingIds) WHERE tp.seatsLeft IS NOT NULL AND tp.id IN " +
+            "(SELECT p.id FROM Booking b JOIN b.tourPackages p WHERE b.id IN :bookingIds)")
+    int returnSeatsOfBookings(Collection<Long> bookingIds);
+
+    /**
+     * Пересчитывает свободные места тура как вместимость за вычетом мест в неотменённых бронированиях,
+     * включая завершённые бронирования, перенесённые в архив.
+     * Для тура без ограничения мест количество свободных мест становится null.
+     *
+     * @param id ID туристического пакета (null — пересчитать все туры)
+     * @param cancelled статус отменённого бронирования
+     * @return количество обновлённых строк
+     */
+    @Modifying
+    @Query("UPDATE TourPackage tp SET tp.seatsLeft = tp.capacity - (SELECT COUNT(b) FROM Booking b JOIN b.tourPackages p " +
+            "WHERE p.id = tp.id AND b.status <> :cancelled) - (SELECT COUNT(a.id) FROM ArchivedBooking a JOIN a.tourPackages ap " +
+            "WHERE ap.id = tp.id AND a.status <> :cancelled) WHERE :id IS NULL OR tp.id = :id")
+    int recountSeats(Long id, BookingStatus cancelled);
+
+    /**
+     * Заполняет свободные места туров с ограниченной вместимостью, для которых они ещё не посчитаны
+     * (например, вместимость задана напрямую в базе). Уже посчитанные строки не изменяются.
+     *
+     * @param cancelled статус отменённого бронирования
+     * @return количество обновлённых строк
+     */
+    @Modifying
+    @Query("UPDATE TourPackage tp SET tp.seatsLeft = tp.capacity - (SELECT COUNT(b) FROM Booking b JOIN b.tourPackages p " +
+            "WHERE p.id = tp.id AND b.status <> :cancelled) - (SELECT COUNT(a.id) FROM ArchivedBooking a JOIN a.tourPackages ap " +
+            "WHERE ap.id = tp.id AND a.status <> :cancelled) WHERE tp.capacity IS NOT NULL AND tp.seatsLeft IS NULL")
+    int recountMissingSeats(BookingStatus cancelled);
+
+    /**
+     * Получает количество мест тура, ещё не выданных сервису учёта мест.
+     *
+     * @param id ID туристического пакета
+     * @return количество мест или null, если количество мест не ограничено
+     */
+    @Query("SELECT tp.seatsLeft FROM TourPackage tp WHERE tp.id = :id")
+    Integer findSeatsLeft(Long id);
 }
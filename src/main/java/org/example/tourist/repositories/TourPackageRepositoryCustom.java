@@ -0,0 +1,51 @@
+package org.example.tourist.repositories;
+
+import org.example.tourist.CatalogQuery;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Дополнительные методы репозитория {@link TourPackageRepository},
+ * которые не выражаются через производные запросы Spring Data.
+ */
+public interface TourPackageRepositoryCustom {
+
+    /**
+     * Находит страницу туристических пакетов с курсорной (keyset) пагинацией по паре (поле сортировки, ID).
+     * Вместо смещения используется условие «после последней записи предыдущей страницы»,
+     * поэтому запрос использует индекс и не просматривает уже отданные строки.
+     * Выбираются только поля краткого представления: описание и связанные коллекции не читаются.
+     *
+     * @param filter фильтры: часть названия для поиска без учёта регистра (null или пустая строка — без фильтра),
+     *               диапазоны цены и длительности, доступность; параметры сортировки и пагинации не используются
+     * @param sortField поле сортировки
+     * @param ascending true — по возрастанию, false — по убыванию
+     * @param afterValue значение поля сортировки у последней записи предыдущей страницы
+     * @param afterId ID последней записи предыдущей страницы (null — первая страница)
+     * @param limit максимальное количество записей
+     * @return краткие представления туристических пакетов страницы
+     */
+    List<TourPackageSummary> findPage(CatalogQuery filter, TourPackageSortField sortField, boolean ascending,
+                                      Object afterValue, Long afterId, int limit);
+
+    /**
+     * Находит краткие представления туристических пакетов по списку ID.
+     *
+     * @param ids идентификаторы туристических пакетов
+     * @return краткие представления найденных пакетов; отсутствующие ID пропускаются
+     */
+    List<TourPackageSummary> findSummariesByIds(Collection<Long> ids);
+
+    /**
+     * Находит пачку кратких представлений туристических пакетов с ID больше указанного, упорядоченных по ID.
+     * Используется для последовательного чтения всего каталога без описаний.
+     *
+     * @param afterId ID, после которого начинается пачка
+     * @param limit максимальный размер пачки
+     * @return краткие представления туристических пакетов
+     */
+    List<TourPackageSummary> findSummaryBatch(Long afterId, int limit);
+}
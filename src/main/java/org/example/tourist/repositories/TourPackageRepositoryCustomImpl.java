@@ -0,0 +1,114 @@
+package org.example.tourist.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.example.tourist.CatalogQuery;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Реализация {@link TourPackageRepositoryCustom} на JPQL.
+ */
+public class TourPackageRepositoryCustomImpl implements TourPackageRepositoryCustom {
+
+    /** Проекция полей краткого представления турпакета */
+    private static final String SUMMARY_SELECT = "SELECT new org.example.tourist.TourPackageSummary("
+            + "tp.id, tp.name, tp.price, tp.duration, tp.availability, tp.imageUrl) FROM TourPackage tp";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TourPackageSummary> findPage(CatalogQuery filter, TourPackageSortField sortField, boolean ascending,
+                                             Object afterValue, Long afterId, int limit) {
+        // Имя свойства берётся только из перечисления, поэтому подстановка в запрос безопасна
+        String field = "tp." + sortField.getProperty();
+        String name = filter.getName();
+        boolean filterByName = name != null && !name.isEmpty();
+
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT).append(" WHERE 1 = 1");
+        if (filterByName) {
+            jpql.append(" AND LOWER(tp.name) LIKE :name ESCAPE '!'");
+        }
+        if (filter.getMinPrice() != null) {
+            jpql.append(" AND tp.price >= :minPrice");
+        }
+        if (filter.getMaxPrice() != null) {
+            jpql.append(" AND tp.price <= :maxPrice");
+        }
+        if (filter.getMinDuration() != null) {
+            jpql.append(" AND tp.duration >= :minDuration");
+        }
+        if (filter.getMaxDuration() != null) {
+            jpql.append(" AND tp.duration <= :maxDuration");
+        }
+        if (filter.getAvailability() != null) {
+            jpql.append(" AND tp.availability = :availability");
+        }
+        if (afterId != null) {
+            // В MySQL NULL меньше любого значения: при сортировке по возрастанию они идут первыми, по убыванию — последними
+            if (ascending) {
+                jpql.append(afterValue == null
+                        ? " AND ((" + field + " IS NULL AND tp.id > :afterId) OR " + field + " IS NOT NULL)"
+                        : " AND (" + field + " > :afterValue OR (" + field + " = :afterValue AND tp.id > :afterId))");
+            } else {
+                jpql.append(afterValue == null
+                        ? " AND (" + field + " IS NULL AND tp.id < :afterId)"
+                        : " AND (" + field + " < :afterValue OR (" + field + " = :afterValue AND tp.id < :afterId)"
+                        + " OR " + field + " IS NULL)");
+            }
+        }
+        String order = ascending ? " ASC" : " DESC";
+        jpql.append(" ORDER BY ").append(field).append(order).append(", tp.id").append(order);
+
+        TypedQuery<TourPackageSummary> query = entityManager.createQuery(jpql.toString(), TourPackageSummary.class);
+        if (filterByName) {
+            query.setParameter("name", "%" + escapeLike(name.toLowerCase()) + "%");
+        }
+        if (filter.getMinPrice() != null) {
+            query.setParameter("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            query.setParameter("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.getMinDuration() != null) {
+            query.setParameter("minDuration", filter.getMinDuration());
+        }
+        if (filter.getMaxDuration() != null) {
+            query.setParameter("maxDuration", filter.getMaxDuration());
+        }
+        if (filter.getAvailability() != null) {
+            query.setParameter("availability", filter.getAvailability());
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (afterValue != null) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<TourPackageSummary> findSummariesByIds(Collection<Long> ids) {
+        return entityManager.createQuery(SUMMARY_SELECT + " WHERE tp.id IN :ids", TourPackageSummary.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public List<TourPackageSummary> findSummaryBatch(Long afterId, int limit) {
+        return entityManager.createQuery(SUMMARY_SELECT + " WHERE tp.id > :afterId ORDER BY tp.id", TourPackageSummary.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -2,6 +2,7 @@ package org.example.tourist.repositories;
 
 import org.example.tourist.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -23,6 +24,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Заменяет хэш пароля пользователя.
+     *
+     * @param username имя пользователя
+     * @param password новый хэш пароля
+     * @return количество изменённых пользователей
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(String username, String password);
+
     /**
      * Выполняет запрос для подсчета количества пользователей для каждой роли.
      * Возвращает список объектов, где первый элемент - имя роли, второй - количество пользователей с этой ролью.
@@ -0,0 +1,169 @@
+package org.example.tourist.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.tourist.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Сервис выпуска и проверки токенов доступа к REST API.
+ * Токен — JWT с подписью HMAC-SHA256: имя пользователя, его ID, роли и срок действия. Проверка выполняется
+ * в памяти, без сессии и без обращения к базе, поэтому запрос с токеном может обработать любой узел
+ * с тем же секретом. Изменение ролей пользователя вступает в силу для уже выданных токенов по истечении их срока.
+ */
+@Service
+public class AccessTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /** Минимальная длина секрета в байтах (размер выхода HMAC-SHA256) */
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** Заголовок токена; других алгоритмов сервис не принимает */
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final long ttlSeconds;
+    private final LongSupplier clock;
+
+    /**
+     * Конструктор для инициализации сервиса.
+     * Если секрет не задан, генерируется случайный: токены тогда действуют только на этом узле и до его перезапуска.
+     *
+     * @param secret секрет подписи в Base64, не короче 32 байт; пустая строка — сгенерировать
+     * @param ttlMinutes срок действия токена в минутах
+     * @throws IllegalStateException если секрет короче 32 байт или срок действия не положительный
+     */
+    @Autowired
+    public AccessTokenService(@Value("${tourist.security.token.secret:}") String secret,
+                              @Value("${tourist.security.token.ttl-minutes:15}") long ttlMinutes) {
+        this(secret, ttlMinutes, System::currentTimeMillis);
+    }
+
+    AccessTokenService(String secret, long ttlMinutes, LongSupplier clock) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            secretBytes = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(secretBytes);
+            log.warn("Секрет токенов доступа не задан (tourist.security.token.secret): токены действуют только на этом узле");
+        } else {
+            secretBytes = Base64.getDecoder().decode(secret.trim());
+        }
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("Секрет токенов доступа должен быть не короче " + MIN_SECRET_BYTES + " байт");
+        }
+        if (ttlMinutes <= 0) {
+            throw new IllegalStateException("Срок действия токена доступа должен быть положительным");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.ttlSeconds = TimeUnit.MINUTES.toSeconds(ttlMinutes);
+        this.clock = clock;
+    }
+
+    /**
+     * Выпускает токен доступа для аутентифицированного пользователя.
+     *
+     * @param user аутентифицированный пользователь
+     * @return подписанный токен
+     */
+    public String issue(AuthenticatedUser user) {
+        long now = TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong());
+        ObjectNode claims = objectMapper.createObjectNode();
+        claims.put("sub", user.getUsername());
+        claims.put("uid", user.getId());
+        claims.putArray("roles").addAll(user.getAuthorities().stream()
+                .map(authority -> objectMapper.getNodeFactory().textNode(authority.getAuthority()))
+                .toList());
+        claims.put("iat", now);
+        claims.put("exp", now + ttlSeconds);
+        String content = HEADER + '.' + ENCODER.encodeToString(claims.toString().getBytes(StandardCharsets.UTF_8));
+        return content + '.' + ENCODER.encodeToString(sign(content));
+    }
+
+    /**
+     * Проверяет токен доступа.
+     *
+     * @param token токен
+     * @return пользователь токена или пустой {@link Optional}, если токен повреждён, подделан или истёк
+     */
+    public Optional<AuthenticatedUser> verify(String token) {
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first < 0 || first == last || !token.substring(0, first).equals(HEADER)) {
+            return Optional.empty();
+        }
+        try {
+            // Сравнение подписи за постоянное время не раскрывает, сколько байт подписи угадано
+            byte[] signature = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, last)))) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(first + 1, last)));
+            long now = TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong());
+            if (!claims.path("exp").canConvertToLong() || claims.path("exp").asLong() <= now
+                    || !claims.path("uid").canConvertToLong() || !claims.path("sub").isTextual()) {
+                return Optional.empty();
+            }
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (JsonNode role : claims.path("roles")) {
+                authorities.add(new SimpleGrantedAuthority(role.asText()));
+            }
+            return Optional.of(new AuthenticatedUser(claims.get("uid").asLong(), claims.get("sub").asText(), "", authorities));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Возвращает срок действия выпускаемых токенов.
+     *
+     * @return срок действия в секундах
+     */
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private byte[] sign(String content) {
+        return macs.get().doFinal(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingArchivePartitions;
+import org.example.tourist.BookingStatus;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис переноса старых бронирований в архив.
+ * Завершённые и отменённые бронирования старше заданного срока копируются в архивные таблицы
+ * и удаляются из рабочих, поэтому рабочие таблицы и их индексы содержат только актуальные бронирования.
+ * Перенос выполняется порциями, каждая — в отдельной короткой транзакции: порция выбирается по индексу
+ * (статус, дата, ID), копируется двумя запросами INSERT ... SELECT и удаляется пакетным DELETE.
+ * Места архивных бронирований не возвращаются в продажу: завершённые бронирования продолжают занимать
+ * места тура, а места отменённых были возвращены при отмене.
+ */
+@Service
+public class BookingArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingArchiveService.class);
+
+    /** Статусы бронирований, которые переносятся в архив */
+    public static final List<BookingStatus> ARCHIVED_STATUSES = List.of(BookingStatus.COMPLETED, BookingStatus.CANCELLED);
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingArchivePartitions partitions;
+    private final TransactionTemplate transactionTemplate;
+    private final long archiveAfterMillis;
+    private final int chunkSize;
+
+    /**
+     * Конструктор для инициализации сервиса.
+     *
+     * @param bookingRepository репозиторий для работы с сущностями Booking
+     * @param archivedBookingRepository репозиторий архивных бронирований
+     * @param partitions секционирование архивных таблиц
+     * @param transactionManager менеджер транзакций; каждая порция переносится в отдельной транзакции
+     * @param archiveAfterDays возраст бронирования в днях, после которого оно переносится в архив
+     * @param chunkSize количество бронирований, переносимых одной транзакцией
+     */
+    public BookingArchiveService(BookingRepository bookingRepository, ArchivedBookingRepository archivedBookingRepository,
+                                 BookingArchivePartitions partitions, PlatformTransactionManager transactionManager,
+                                 @Value("${tourist.booking.archive-after-days:365}") int archiveAfterDays,
+                                 @Value("${tourist.booking.archive-chunk-size:500}") int chunkSize) {
+        if (archiveAfterDays < 0 || chunkSize < 1) {
+            throw new IllegalArgumentException("Срок архивации не может быть отрицательным, а размер порции должен быть положительным");
+        }
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.partitions = partitions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveAfterMillis = TimeUnit.DAYS.toMillis(archiveAfterDays);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Переносит в архив завершённые и отменённые бронирования старше срока архивации.
+     * Запускается планировщиком по расписанию. Порции, перенесённые до ошибки, остаются в архиве;
+     * следующий запуск продолжает перенос.
+     *
+     * @return количество перенесённых бронирований
+     */
+    @Scheduled(cron = "${tourist.booking.archive-cron:0 30 3 * * *}")
+    public int archive() {
+        Date before = new Date(System.currentTimeMillis() - archiveAfterMillis);
+        Date oldest = bookingRepository.findMinBookingDate(ARCHIVED_STATUSES, before);
+        if (oldest == null) {
+            return 0;
+        }
+        // Секции создаются до переноса и вне транзакций порций
+        partitions.ensureMonths(month(oldest), month(before));
+
+        int archived = 0;
+        for (BookingStatus status : ARCHIVED_STATUSES) {
+            int moved;
+            do {
+                Integer chunk = transactionTemplate.execute(tx -> archiveChunk(status, before));
+                moved = chunk != null ? chunk : 0;
+                archived += moved;
+            } while (moved == chunkSize);
+        }
+        log.info("В архив перенесено бронирований старше {}: {}", before, archived);
+        return archived;
+    }
+
+    /**
+     * Переносит в архив порцию самых старых бронирований в указанном статусе.
+     *
+     * @throws IllegalStateException если статус бронирования изменился во время переноса
+     */
+    private int archiveChunk(BookingStatus status, Date before) {
+        List<Long> ids = bookingRepository.findIdsByStatusBefore(status, before, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedBookingRepository.copyBookings(ids);
+        archivedBookingRepository.copyTourPackageLinks(ids);
+        int deleted = bookingRepository.deleteByIdsAndStatuses(ids, EnumSet.of(status));
+        if (deleted != ids.size()) {
+            throw new IllegalStateException("Статусы бронирований изменились во время переноса в архив");
+        }
+        return deleted;
+    }
+
+    private static YearMonth month(Date date) {
+        return YearMonth.from(date.toInstant().atZone(ZoneId.systemDefault()));
+    }
+}
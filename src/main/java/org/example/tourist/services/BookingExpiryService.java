@@ -0,0 +1,192 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.TimingWheel;
+import org.example.tourist.repositories.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Сервис автоматической отмены неподтверждённых бронирований.
+ * Бронирование в статусе {@link BookingStatus#CREATED} удерживает места в туре, поэтому по истечении
+ * времени удержания оно отменяется, а места возвращаются в продажу.
+ * Сроки хранятся в памяти в иерархическом колесе таймеров: постановка бронирования в очередь при
+ * оформлении стоит O(1), а периодическая проверка просматривает только истекшие такты. При запуске
+ * колесо заполняется по неподтверждённым бронированиям из базы. Истекшие бронирования отменяются
+ * пачками: одним запросом статусов, одним возвратом мест и одним UPDATE на пачку.
+ * Подтверждённые или отменённые до истечения срока бронирования из колеса не удаляются — они
+ * пропускаются при отмене, так как UPDATE изменяет только бронирования в статусе CREATED.
+ */
+@Service
+public class BookingExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingExpiryService.class);
+
+    /** Количество бронирований, отменяемых одной транзакцией */
+    static final int EXPIRY_BATCH_SIZE = 500;
+
+    /** Количество бронирований, читаемых из базы за один запрос при заполнении колеса */
+    private static final int REBUILD_PAGE_SIZE = 10_000;
+
+    /** Количество ячеек на уровне колеса таймеров */
+    private static final int WHEEL_SIZE = 64;
+
+    private final BookingRepository bookingRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final long holdMillis;
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private final TimingWheel wheel;
+
+    /**
+     * Конструктор для инициализации сервиса с параметрами из конфигурации.
+     *
+     * @param bookingRepository репозиторий для работы с сущностями Booking
+     * @param seatInventoryService сервис учёта мест в турах с ограниченной вместимостью
+     * @param transactionManager менеджер транзакций; каждая пачка отменяется в отдельной транзакции
+     * @param holdMinutes время удержания неподтверждённого бронирования в минутах (0 — не отменять)
+     * @param tickMillis точность срабатывания в миллисекундах (длительность такта колеса)
+     */
+    @Autowired
+    public BookingExpiryService(BookingRepository bookingRepository, SeatInventoryService seatInventoryService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${tourist.booking.hold-time-minutes:1440}") long holdMinutes,
+                                @Value("${tourist.booking.expiry-tick-ms:1000}") long tickMillis) {
+        this(bookingRepository, seatInventoryService, transactionManager, TimeUnit.MINUTES.toMillis(holdMinutes),
+                tickMillis, System::currentTimeMillis);
+    }
+
+    BookingExpiryService(BookingRepository bookingRepository, SeatInventoryService seatInventoryService,
+                         PlatformTransactionManager transactionManager, long holdMillis, long tickMillis,
+                         LongSupplier clock) {
+        this.bookingRepository = bookingRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.holdMillis = holdMillis;
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.wheel = new TimingWheel(tickMillis, WHEEL_SIZE, clock.getAsLong());
+    }
+
+    /**
+     * Ставит бронирование в очередь на отмену по истечении времени удержания.
+     *
+     * @param bookingId ID бронирования
+     * @param bookingDate дата оформления бронирования
+     */
+    public void schedule(Long bookingId, Date bookingDate) {
+        if (holdMillis <= 0) {
+            return;
+        }
+        long deadline = bookingDate.getTime() + holdMillis;
+        synchronized (wheel) {
+            wheel.schedule(bookingId, deadline);
+        }
+    }
+
+    /**
+     * Заполняет колесо неподтверждёнными бронированиями из базы.
+     * Бронирования, время удержания которых уже истекло, отменяются при ближайшей проверке.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (holdMillis <= 0) {
+            return;
+        }
+        long afterId = 0;
+        int loaded = 0;
+        List<Object[]> page;
+        do {
+            page = bookingRepository.findIdsAndDatesByStatus(BookingStatus.CREATED, afterId, Limit.of(REBUILD_PAGE_SIZE));
+            for (Object[] row : page) {
+                afterId = (Long) row[0];
+                schedule(afterId, (Date) row[1]);
+            }
+            loaded += page.size();
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        log.info("В очередь на отмену поставлено неподтверждённых бронирований: {}", loaded);
+    }
+
+    /**
+     * Отменяет бронирования, время удержания которых истекло.
+     * Запускается периодически планировщиком.
+     *
+     * @return количество отменённых бронирований
+     */
+    @Scheduled(fixedDelayString = "${tourist.booking.expiry-tick-ms:1000}")
+    public int expireDue() {
+        long now = clock.getAsLong();
+        List<Long> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(now, due::add);
+        }
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += EXPIRY_BATCH_SIZE) {
+            List<Long> batch = due.subList(from, Math.min(from + EXPIRY_BATCH_SIZE, due.size()));
+            try {
+                Integer cancelled = transactionTemplate.execute(status -> expire(batch));
+                expired += cancelled != null ? cancelled : 0;
+            } catch (RuntimeException e) {
+                // Пачка откатилась целиком; бронирования проверяются повторно при следующем запуске
+                log.warn("Не удалось отменить просроченные бронирования, повтор через {} мс: {}", tickMillis, e.getMessage());
+                synchronized (wheel) {
+                    batch.forEach(id -> wheel.schedule(id, now));
+                }
+            }
+        }
+        if (expired > 0) {
+            log.info("Отменено просроченных бронирований: {}", expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Возвращает количество бронирований, ожидающих истечения времени удержания.
+     *
+     * @return количество бронирований в очереди
+     */
+    public int getPendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Отменяет бронирования пачки, которые всё ещё не подтверждены, и возвращает их места в продажу.
+     *
+     * @throws IllegalStateException если статус бронирования изменился между чтением и обновлением
+     */
+    private int expire(List<Long> bookingIds) {
+        List<Long> created = new ArrayList<>(bookingIds.size());
+        for (Object[] row : bookingRepository.findStatusesByIds(bookingIds)) {
+            if (row[1] == BookingStatus.CREATED) {
+                created.add((Long) row[0]);
+            }
+        }
+        if (created.isEmpty()) {
+            return 0;
+        }
+        seatInventoryService.returnSold(created);
+        int updated = bookingRepository.updateStatuses(created, List.of(BookingStatus.CREATED), BookingStatus.CANCELLED);
+        if (updated != created.size()) {
+            throw new IllegalStateException("Статусы бронирований изменились во время отмены");
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,324 @@
+package org.example.tourist.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import org.example.tourist.BookingExportFormat;
+import org.example.tourist.BookingQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервис выгрузки бронирований для отчётности.
+ * Бронирования читаются одним запросом через однонаправленный курсор JDBC и сразу записываются в поток
+ * ответа, поэтому потребление памяти не зависит от количества бронирований: в памяти находится только
+ * текущее бронирование и буфер записи. Строки соединения с турами идут подряд для каждого бронирования
+ * (порядок — по дате оформления и ID, как в индексах бронирований), поэтому туры собираются в одну запись
+ * без промежуточных коллекций.
+ * Сначала выгружаются архивные бронирования, затем текущие; архив не читается, если фильтр по статусу
+ * исключает архивные бронирования.
+ * Для MySQL построчная выборка порциями по {@code fetchSize} строк требует параметра useCursorFetch=true
+ * в URL подключения; без него драйвер загружает весь результат в память.
+ */
+@Service
+public class BookingExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingExportService.class);
+
+    private static final String EXPORT_SELECT = "SELECT b.id, u.username, b.booking_date, b.total_amount, b.status,"
+            + " tp.id, tp.name";
+
+    private static final String HOT_FROM = " FROM bookings b JOIN users u ON u.id = b.user_id"
+            + " LEFT JOIN booking_tour_packages btp ON btp.booking_id = b.id";
+
+    /** Связи выбираются и по дате бронирования, чтобы читалась только секция месяца бронирования */
+    private static final String ARCHIVE_FROM = " FROM bookings_archive b JOIN users u ON u.id = b.user_id"
+            + " LEFT JOIN booking_tour_packages_archive btp ON btp.booking_id = b.id AND btp.booking_date = b.booking_date";
+
+    private static final String TOUR_PACKAGES_JOIN = " LEFT JOIN tour_packages tp ON tp.id = btp.tour_package_id";
+
+    /** Размер буфера записи в поток ответа */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    /**
+     * Генератор не сбрасывает и не закрывает поток ответа (этим управляет сервис)
+     * и не разделяет объекты пробелом: объекты разделяются переводом строки
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactoryBuilder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(StreamWriteFeature.FLUSH_PASSED_TO_STREAM)
+            .rootValueSeparator((String) null)
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    /**
+     * Конструктор для инициализации сервиса.
+     *
+     * @param jdbcTemplate шаблон JDBC для построчного чтения бронирований
+     * @param fetchSize количество строк, получаемых драйвером из базы за одно обращение
+     */
+    public BookingExportService(JdbcTemplate jdbcTemplate,
+                                @Value("${tourist.booking.export-fetch-size:1000}") int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Размер порции выгрузки должен быть положительным");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Записывает бронирования в поток в указанном формате.
+     * Учитываются фильтры по статусу, периоду оформления и имени пользователя; курсор и размер страницы
+     * игнорируются — выгружаются все подходящие бронирования. Поток не закрывается.
+     *
+     * @param filter фильтры бронирований
+     * @param format формат выгрузки
+     * @param out поток, в который записывается выгрузка
+     * @return количество выгруженных бронирований
+     * @throws IOException если запись в поток не удалась (например, клиент разорвал соединение)
+     */
+    public int export(BookingQuery filter, BookingExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ExportWriter exportWriter = format == BookingExportFormat.CSV ? new CsvWriter(writer) : new NdjsonWriter(writer);
+        BookingCollector collector = new BookingCollector(exportWriter);
+        try {
+            exportWriter.writeHeader();
+            if (filter.getStatus() == null || BookingArchiveService.ARCHIVED_STATUSES.contains(filter.getStatus())) {
+                jdbcTemplate.query(connection -> prepareStatement(connection, ARCHIVE_FROM, filter), collector);
+            }
+            jdbcTemplate.query(connection -> prepareStatement(connection, HOT_FROM, filter), collector);
+            collector.finish();
+        } catch (UncheckedIOException e) {
+            // Ошибка записи прерывает чтение; курсор и соединение закрываются шаблоном JDBC
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Выгружено бронирований в формате {}: {}", format, collector.count);
+        return collector.count;
+    }
+
+    private PreparedStatement prepareStatement(Connection connection, String from, BookingQuery filter) throws SQLException {
+        String username = filter.getUsername();
+        boolean filterByUser = username != null && !username.isEmpty();
+
+        StringBuilder sql = new StringBuilder(EXPORT_SELECT).append(from).append(TOUR_PACKAGES_JOIN).append(" WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (filter.getStatus() != null) {
+            sql.append(" AND b.status = ?");
+            parameters.add(filter.getStatus().name());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND b.booking_date >= ?");
+            parameters.add(Timestamp.valueOf(filter.getFrom().atStartOfDay()));
+        }
+        if (filter.getTo() != null) {
+            // Последний день периода включается целиком
+            sql.append(" AND b.booking_date < ?");
+            parameters.add(Timestamp.valueOf(filter.getTo().plusDays(1).atStartOfDay()));
+        }
+        if (filterByUser) {
+            sql.append(" AND u.username = ?");
+            parameters.add(username);
+        }
+        sql.append(" ORDER BY b.booking_date, b.id");
+
+        PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+        return statement;
+    }
+
+    /**
+     * Собирает строки результата в бронирования: строки одного бронирования идут подряд,
+     * поэтому бронирование записывается, как только начинается следующее.
+     */
+    private static final class BookingCollector implements RowCallbackHandler {
+        private final ExportWriter writer;
+        private final List<Long> tourPackageIds = new ArrayList<>();
+        private final List<String> tourPackageNames = new ArrayList<>();
+        private Long id;
+        private String username;
+        private Timestamp bookingDate;
+        private Integer totalAmount;
+        private String status;
+        private int count;
+
+        private BookingCollector(ExportWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowId = rs.getLong(1);
+            if (id == null || id != rowId) {
+                finish();
+                id = rowId;
+                username = rs.getString(2);
+                bookingDate = rs.getTimestamp(3);
+                totalAmount = rs.getObject(4, Integer.class);
+                status = rs.getString(5);
+            }
+            Long tourPackageId = rs.getObject(6, Long.class);
+            if (tourPackageId != null) {
+                tourPackageIds.add(tourPackageId);
+                tourPackageNames.add(rs.getString(7));
+            }
+        }
+
+        /** Записывает накопленное бронирование, если оно есть */
+        private void finish() {
+            if (id == null) {
+                return;
+            }
+            String date = bookingDate != null ? DATE_FORMAT.format(bookingDate.toLocalDateTime()) : null;
+            try {
+                writer.writeBooking(id, username, tourPackageIds, tourPackageNames, date, totalAmount, status);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+            id = null;
+            tourPackageIds.clear();
+            tourPackageNames.clear();
+        }
+    }
+
+    /**
+     * Запись бронирований в формате выгрузки.
+     */
+    private interface ExportWriter {
+        void writeHeader() throws IOException;
+
+        void writeBooking(Long id, String username, List<Long> tourPackageIds, List<String> tourPackageNames,
+                          String bookingDate, Integer totalAmount, String status) throws IOException;
+    }
+
+    /**
+     * Выгрузка в CSV по RFC 4180: туры бронирования перечисляются в одном поле через точку с запятой.
+     */
+    private static final class CsvWriter implements ExportWriter {
+        private static final String LINE_END = "\r\n";
+
+        private final Writer writer;
+
+        private CsvWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write("id,username,tour_packages,booking_date,total_amount,status" + LINE_END);
+        }
+
+        @Override
+        public void writeBooking(Long id, String username, List<Long> tourPackageIds, List<String> tourPackageNames,
+                                 String bookingDate, Integer totalAmount, String status) throws IOException {
+            writer.write(String.valueOf(id));
+            writer.write(',');
+            writeText(username);
+            writer.write(',');
+            writeText(String.join("; ", tourPackageNames));
+            writer.write(',');
+            writer.write(bookingDate != null ? bookingDate : "");
+            writer.write(',');
+            writer.write(totalAmount != null ? totalAmount.toString() : "");
+            writer.write(',');
+            writer.write(status != null ? status : "");
+            writer.write(LINE_END);
+        }
+
+        /**
+         * Записывает текстовое поле, заключая его в кавычки при необходимости.
+         * Значение, начинающееся с символа формулы, предваряется апострофом, чтобы табличный редактор
+         * не выполнил его как формулу.
+         */
+        private void writeText(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            if ("=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    /**
+     * Выгрузка в NDJSON: поля объекта совпадают с полями представления бронирования в API.
+     */
+    private static final class NdjsonWriter implements ExportWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        private NdjsonWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = JSON_FACTORY.createGenerator(writer);
+        }
+
+        @Override
+        public void writeHeader() {
+            // У NDJSON нет заголовка
+        }
+
+        @Override
+        public void writeBooking(Long id, String username, List<Long> tourPackageIds, List<String> tourPackageNames,
+                                 String bookingDate, Integer totalAmount, String status) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", id);
+            generator.writeStringField("username", username);
+            generator.writeArrayFieldStart("tourPackages");
+            for (int i = 0; i < tourPackageIds.size(); i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", tourPackageIds.get(i));
+                generator.writeStringField("name", tourPackageNames.get(i));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeStringField("bookingDate", bookingDate);
+            if (totalAmount != null) {
+                generator.writeNumberField("totalAmount", totalAmount);
+            } else {
+                generator.writeNullField("totalAmount");
+            }
+            generator.writeStringField("status", status);
+            generator.writeEndObject();
+            // Переносит объект из буфера генератора в буфер записи, не сбрасывая поток ответа
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.repositories.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис очистки старых бронирований.
+ * Бронирования удаляются порциями, каждая — в отдельной короткой транзакции: строки бронирований
+ * и их связей с турами блокируются только на время удаления одной порции, поэтому оформление
+ * и изменение других бронирований во время очистки не ждёт её завершения.
+ * Порция выбирается по индексу (статус, дата, ID) и удаляется пакетными запросами без загрузки сущностей.
+ */
+@Service
+public class BookingPurgeService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingPurgeService.class);
+
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    /**
+     * Конструктор для инициализации сервиса.
+     *
+     * @param bookingRepository репозиторий для работы с сущностями Booking
+     * @param bookingService сервис бронирований, удаляющий порцию бронирований
+     * @param transactionManager менеджер транзакций; каждая порция удаляется в отдельной транзакции
+     * @param chunkSize количество бронирований, удаляемых одной транзакцией
+     */
+    public BookingPurgeService(BookingRepository bookingRepository, BookingService bookingService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${tourist.booking.purge-chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1 || chunkSize > BookingService.MAX_DELETE_BATCH_SIZE) {
+            throw new IllegalArgumentException("Размер порции очистки должен быть от 1 до " + BookingService.MAX_DELETE_BATCH_SIZE);
+        }
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Удаляет бронирования в указанном статусе, оформленные раньше заданного количества дней назад.
+     * Порции, удалённые до ошибки, остаются удалёнными; повторный вызов продолжает очистку.
+     *
+     * @param status статус удаляемых бронирований
+     * @param olderThanDays минимальный возраст бронирования в днях
+     * @return количество удалённых бронирований
+     * @throws IllegalArgumentException если статус не указан или возраст отрицательный
+     */
+    public int purge(BookingStatus status, int olderThanDays) {
+        if (status == null || olderThanDays < 0) {
+            throw new IllegalArgumentException("Укажите статус и неотрицательный возраст бронирований");
+        }
+        Date before = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(olderThanDays));
+        int purged = 0;
+        int deleted;
+        do {
+            Integer chunk = transactionTemplate.execute(tx -> {
+                List<Long> ids = bookingRepository.findIdsByStatusBefore(status, before, Limit.of(chunkSize));
+                return bookingService.deleteBookings(ids);
+            });
+            deleted = chunk != null ? chunk : 0;
+            purged += deleted;
+        } while (deleted == chunkSize);
+        log.info("Удалено бронирований в статусе {} старше {} дн.: {}", status, olderThanDays, purged);
+        return purged;
+    }
+}
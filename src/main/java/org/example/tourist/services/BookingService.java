@@ -1,21 +1,42 @@
 package org.example.tourist.services;
 
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.example.tourist.models.User;
 import org.example.tourist.models.Booking;
 import org.example.tourist.BookingStatus;
 import org.example.tourist.models.TourPackage;
 import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.TourPackageRepository;
 import org.example.tourist.models.Cart;
+import org.example.tourist.models.CartItem;
 import org.example.tourist.BookingDto;
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingView;
+import org.example.tourist.BoundedCache;
+import org.example.tourist.CursorPage;
+import org.example.tourist.BookingStatusUpdateDto;
+import org.example.tourist.BookingStatusUpdateResult;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -25,47 +46,115 @@ import java.util.stream.Collectors;
 @Service
 public class BookingService {
 
-    // Внедрение EntityManager для работы с управлением сущностями
-    @PersistenceContext
-    private EntityManager entityManager;
+    /** Максимальный размер страницы списка бронирований */
+    public static final int MAX_BOOKINGS_PAGE_SIZE = 100;
+
+    /** Максимальное количество бронирований в одном пакетном изменении статусов */
+    public static final int MAX_STATUS_BATCH_SIZE = 1000;
+
+    /** Максимальное количество бронирований в одном пакетном удалении */
+    public static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+    /** Максимальное количество кэшируемых страниц бронирований одного пользователя */
+    private static final int MAX_CACHED_PAGES_PER_USER = 16;
+
+    /** Порядок списков бронирований: новые первыми, при равной дате — большие ID первыми */
+    private static final Comparator<BookingView> NEWEST_FIRST = Comparator.comparing(BookingView::getBookingDate)
+            .thenComparing(BookingView::getId).reversed();
 
     private final BookingRepository bookingRepository;
-    private final Cart cart;
+    private final TourPackageRepository tourPackageRepository;
+    private final CartService cartService;
+    private final SeatInventoryService seatInventoryService;
+    private final BookingExpiryService bookingExpiryService;
+
+    /**
+     * Страницы бронирований пользователей: ID пользователя — страницы по ключу «курсор:размер».
+     * Все страницы пользователя сбрасываются вместе; страница, загруженная до сброса,
+     * попадает в уже удалённую из кэша карту и не видна следующим запросам.
+     */
+    private final BoundedCache<Long, Map<String, CursorPage<BookingView>>> userPageCache;
 
     /**
      * Конструктор для инициализации сервисов и репозиториев.
      *
      * @param bookingRepository репозиторий для работы с сущностями Booking
-     * @param cart корзина, содержащая добавленные туры для бронирования
+     * @param tourPackageRepository репозиторий для работы с сущностями TourPackage
+     * @param cartService сервис корзин, содержащих добавленные туры для бронирования
+     * @param seatInventoryService сервис учёта мест в турах с ограниченной вместимостью
+     * @param bookingExpiryService сервис отмены неподтверждённых бронирований по истечении времени удержания
+     * @param maxCachedUsers максимальное количество пользователей, чьи страницы бронирований хранятся в кэше
+     * @param userPageTtlSeconds время жизни страниц бронирований пользователя в кэше в секундах
      */
     @Autowired
-    public BookingService(BookingRepository bookingRepository, Cart cart) {
+    public BookingService(BookingRepository bookingRepository, TourPackageRepository tourPackageRepository,
+                          CartService cartService, SeatInventoryService seatInventoryService,
+                          BookingExpiryService bookingExpiryService,
+                          @Value("${tourist.booking.user-cache.max-users:1000}") int maxCachedUsers,
+                          @Value("${tourist.booking.user-cache.ttl-seconds:30}") long userPageTtlSeconds) {
         this.bookingRepository = bookingRepository;
-        this.cart = cart;
+        this.tourPackageRepository = tourPackageRepository;
+        this.cartService = cartService;
+        this.seatInventoryService = seatInventoryService;
+        this.bookingExpiryService = bookingExpiryService;
+        this.userPageCache = new BoundedCache<>(maxCachedUsers, TimeUnit.SECONDS.toMillis(userPageTtlSeconds));
     }
 
     /**
-     * Создает новое бронирование для пользователя.
-     * Бронирование включает выбранные туры из корзины.
-     * После создания бронирования корзина очищается.
+     * Создает новое бронирование для пользователя по его корзине.
+     * То же, что {@link #createBooking(BookingDto, User, String)} с именем пользователя из {@code user}.
      *
      * @param bookingDto объект DTO, содержащий данные для создания бронирования
      * @param user текущий пользователь, который создает бронирование
      * @return объект {@link Booking}, представляющий созданное бронирование
-     * @throws RuntimeException если корзина пуста и бронирование не может быть создано
+     * @throws RuntimeException если корзина пуста
+     * @throws IllegalStateException если в одном из туров нет свободных мест
      */
     @Transactional
     public Booking createBooking(BookingDto bookingDto, User user) {
-        List<TourPackage> tourPackages = new ArrayList<>(cart.getCartItems());
+        return createBooking(bookingDto, user, user.getUsername());
+    }
 
-        if (tourPackages.isEmpty()) {
+    /**
+     * Создает новое бронирование для пользователя.
+     * Бронирование включает выбранные туры из корзины пользователя.
+     * Турпакеты корзины загружаются одним запросом, а строки связи бронирования с турами
+     * вставляются пакетной операцией JDBC, поэтому число обращений к базе не зависит от размера корзины.
+     * Для туров с ограниченной вместимостью резервируется по одному месту; если мест нет хотя бы в одном туре,
+     * бронирование не создаётся, а при откате транзакции зарезервированные места возвращаются.
+     * После фиксации транзакции бронирование ставится в очередь на отмену, если его не подтвердят вовремя.
+     * После создания бронирования оформленные позиции удаляются из корзины.
+     *
+     * @param bookingDto объект DTO, содержащий данные для создания бронирования
+     * @param user текущий пользователь, который создает бронирование
+     * @param username имя пользователя, по которому хранится его корзина; передаётся отдельно, чтобы
+     *                 для ссылки на пользователя без загруженных полей не выполнялся запрос
+     * @return объект {@link Booking}, представляющий созданное бронирование
+     * @throws RuntimeException если корзина пуста
+     * @throws IllegalStateException если в одном из туров нет свободных мест
+     */
+    @Transactional
+    public Booking createBooking(BookingDto bookingDto, User user, String username) {
+        Cart cart = cartService.findCart(username).orElse(null);
+        List<CartItem> cartItems = cart != null ? cart.getCartItems() : List.of();
+
+        if (cartItems.isEmpty()) {
             throw new RuntimeException("Корзина пуста! Невозможно создать бронирование.");
         }
 
-        // Применяем merge для того, чтобы все объекты TourPackage стали отслеживаемыми в текущей сессии
-        tourPackages = tourPackages.stream()
-                .map(t -> entityManager.merge(t))  // Использование merge для обновления отсоединённых объектов
-                .collect(Collectors.toList());
+        // Корзина хранит только идентификаторы, поэтому загружаем все турпакеты одним запросом
+        Set<Long> tourPackageIds = cartItems.stream().map(CartItem::getTourPackageId).collect(Collectors.toSet());
+        Map<Long, TourPackage> found = tourPackageRepository.findAllById(tourPackageIds).stream()
+                .collect(Collectors.toMap(TourPackage::getId, Function.identity()));
+        List<TourPackage> tourPackages = new ArrayList<>(cartItems.size());
+        for (CartItem item : cartItems) {
+            TourPackage tourPackage = found.get(item.getTourPackageId());
+            if (tourPackage == null) {
+                throw new RuntimeException("Туристический пакет не найден");
+            }
+            tourPackages.add(tourPackage);
+        }
+        reserveSeats(tourPackages);
 
         // Создаем объект бронирования и устанавливаем его свойства
         Booking booking = new Booking();
@@ -77,20 +166,178 @@ public class BookingService {
 
         // Сохраняем бронирование в базе данных
         bookingRepository.save(booking);
+        scheduleExpiry(booking);
+        evictUserPages(List.of(user.getId()));
 
-        // Очищаем корзину после оформления бронирования
-        cart.clearCart();
+        // Удаляем оформленные позиции из корзины; добавленные за это время туры остаются
+        cart.removeItems(cartItems);
 
         return booking;
     }
 
     /**
-     * Получить все бронирования.
+     * Резервирует места в турах с ограниченной вместимостью.
+     * Если мест нет хотя бы в одном туре, уже зарезервированные места возвращаются.
+     * Зарезервированные места также возвращаются при откате текущей транзакции.
      *
-     * @return список всех бронирований
+     * @param tourPackages туры бронирования
+     * @throws IllegalStateException если в одном из туров нет свободных мест
      */
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    private void reserveSeats(List<TourPackage> tourPackages) {
+        List<Long> reserved = new ArrayList<>();
+        for (TourPackage tourPackage : tourPackages) {
+            if (tourPackage.getCapacity() == null) {
+                continue;
+            }
+            if (!seatInventoryService.reserve(tourPackage.getId())) {
+                reserved.forEach(seatInventoryService::release);
+                throw new IllegalStateException("Нет свободных мест в туре: " + tourPackage.getName());
+            }
+            reserved.add(tourPackage.getId());
+        }
+        if (!reserved.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reserved.forEach(seatInventoryService::release);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Ставит неподтверждённое бронирование в очередь на отмену после фиксации текущей транзакции,
+     * чтобы отмена не сработала раньше, чем бронирование станет видно в базе.
+     *
+     * @param booking сохранённое бронирование
+     */
+    private void scheduleExpiry(Booking booking) {
+        Long id = booking.getId();
+        Date bookingDate = booking.getBookingDate();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookingExpiryService.schedule(id, bookingDate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bookingExpiryService.schedule(id, bookingDate);
+            }
+        });
+    }
+
+    /**
+     * Получить страницу бронирований, новые первыми, с фильтрами по статусу, периоду оформления и пользователю.
+     * Страница читается двумя запросами независимо от количества бронирований и туров в них.
+     *
+     * @param bookingQuery фильтры, курсор и размер страницы
+     * @return страница представлений бронирований
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public CursorPage<BookingView> getBookingsPage(BookingQuery bookingQuery) {
+        int limit = Math.max(1, Math.min(bookingQuery.getSize(), MAX_BOOKINGS_PAGE_SIZE));
+        long[] after = decodeBookingCursor(bookingQuery.getCursor());
+        Date afterDate = after != null ? new Date(after[0]) : null;
+        Long afterId = after != null ? after[1] : null;
+        // Запрашиваем на одно бронирование больше, чтобы узнать, есть ли следующая страница
+        return toPage(bookingRepository.findPage(bookingQuery, afterDate, afterId, limit + 1), limit);
+    }
+
+    /**
+     * Получить страницу бронирований пользователя, новые первыми, включая перенесённые в архив.
+     * Текущие и архивные бронирования читаются по индексам (пользователь, дата) и объединяются
+     * в один список; страница читается не более чем четырьмя запросами независимо от количества бронирований
+     * и туров в них. Страницы кэшируются на короткое время и сбрасываются, когда этот сервис
+     * создаёт, изменяет или удаляет бронирования пользователя; отмена просроченных бронирований
+     * становится видна по истечении времени жизни кэша.
+     *
+     * @param user пользователь
+     * @param cursor курсор страницы или null для первой страницы
+     * @param size размер страницы
+     * @return страница представлений бронирований пользователя
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public CursorPage<BookingView> getUserBookingsPage(User user, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_BOOKINGS_PAGE_SIZE));
+        String key = (cursor != null ? cursor : "") + ':' + limit;
+        Map<String, CursorPage<BookingView>> pages = userPageCache.get(user.getId(), id -> new ConcurrentHashMap<>());
+        CursorPage<BookingView> page = pages.get(key);
+        if (page == null) {
+            page = loadUserBookingsPage(user.getId(), cursor, limit);
+            if (pages.size() < MAX_CACHED_PAGES_PER_USER) {
+                pages.put(key, page);
+            }
+        }
+        return page;
+    }
+
+    private CursorPage<BookingView> loadUserBookingsPage(Long userId, String cursor, int limit) {
+        long[] after = decodeBookingCursor(cursor);
+        Date afterDate = after != null ? new Date(after[0]) : null;
+        Long afterId = after != null ? after[1] : null;
+        List<BookingView> rows = new ArrayList<>(bookingRepository.findUserPage(userId, afterDate, afterId, limit + 1));
+        rows.addAll(bookingRepository.findArchivedUserPage(userId, afterDate, afterId, limit + 1));
+        rows.sort(NEWEST_FIRST);
+        return toPage(rows, limit);
+    }
+
+    /**
+     * Разбирает курсор списка бронирований.
+     *
+     * @param cursor курсор или null
+     * @return дата бронирования в миллисекундах и ID последней записи предыдущей страницы или null для первой страницы
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    private static long[] decodeBookingCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String[] parts = CursorPage.decodeCursor(cursor, 2);
+        try {
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы", e);
+        }
+    }
+
+    /**
+     * Формирует страницу из упорядоченных записей, запрошенных с одной лишней записью.
+     *
+     * @param rows не больше {@code limit + 1} записей (лишние отбрасываются)
+     * @param limit размер страницы
+     */
+    private static CursorPage<BookingView> toPage(List<BookingView> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<BookingView> items = rows.subList(0, limit);
+        BookingView last = items.get(limit - 1);
+        return new CursorPage<>(new ArrayList<>(items), CursorPage.encodeCursor(last.getBookingDate().getTime(), last.getId()));
+    }
+
+    /**
+     * Сбрасывает кэшированные страницы бронирований пользователей после фиксации текущей транзакции
+     * или сразу, если транзакции нет. Сброс до фиксации позволил бы параллельному запросу
+     * снова закэшировать ещё не изменённые бронирования.
+     *
+     * @param userIds ID пользователей, чьи бронирования изменились
+     */
+    private void evictUserPages(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userIds.forEach(userPageCache::invalidate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userIds.forEach(userPageCache::invalidate);
+            }
+        });
     }
 
     /**
@@ -112,10 +359,96 @@ public class BookingService {
      * @param status новый статус бронирования
      * @throws RuntimeException если бронирование с указанным ID не найдено или статус не может быть обновлен
      */
+    @Transactional
     public void updateBookingStatus(Long id, BookingStatus status) {
         Booking booking = getBookingById(id);
+        changeSeatsOnStatusChange(booking, status);
         booking.setStatus(status);
         bookingRepository.save(booking);
+        if (status == BookingStatus.CREATED) {
+            scheduleExpiry(booking);
+        }
+        evictUserPages(List.of(booking.getUser().getId()));
+    }
+
+    /**
+     * Изменить статусы нескольких бронирований.
+     * Каждый переход проверяется по правилам {@link BookingStatus#canChangeTo}; недопустимые элементы
+     * не применяются, но и не мешают остальным. Текущие статусы читаются одним запросом, а допустимые
+     * изменения применяются одним UPDATE на каждый новый статус.
+     * Места отменяемых бронирований возвращаются в продажу одним запросом.
+     * Все изменения выполняются в одной транзакции.
+     *
+     * @param updates запрошенные изменения статусов
+     * @return результаты в порядке элементов запроса
+     * @throws IllegalArgumentException если элементов больше {@value #MAX_STATUS_BATCH_SIZE}
+     * @throws IllegalStateException если статус какого-либо бронирования изменился во время обновления;
+     *                               в этом случае ни одно изменение не применяется
+     */
+    @Transactional
+    public List<BookingStatusUpdateResult> updateBookingStatuses(List<BookingStatusUpdateDto> updates) {
+        if (updates.size() > MAX_STATUS_BATCH_SIZE) {
+            throw new IllegalArgumentException("Слишком много бронирований в одном запросе: максимум " + MAX_STATUS_BATCH_SIZE);
+        }
+        Set<Long> ids = new HashSet<>();
+        for (BookingStatusUpdateDto update : updates) {
+            if (update.getBookingId() != null) {
+                ids.add(update.getBookingId());
+            }
+        }
+        Map<Long, BookingStatus> currentStatuses = new HashMap<>();
+        Map<Long, Long> userIds = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Object[] row : bookingRepository.findStatusesByIds(ids)) {
+                currentStatuses.put((Long) row[0], (BookingStatus) row[1]);
+                userIds.put((Long) row[0], (Long) row[2]);
+            }
+        }
+
+        List<BookingStatusUpdateResult> results = new ArrayList<>(updates.size());
+        Set<Long> changedUserIds = new HashSet<>();
+        // Допустимые изменения группируются по новому статусу
+        Map<BookingStatus, List<Long>> changes = new EnumMap<>(BookingStatus.class);
+        Set<Long> seen = new HashSet<>();
+        for (BookingStatusUpdateDto update : updates) {
+            Long id = update.getBookingId();
+            BookingStatus target = update.getStatus();
+            BookingStatus current = id != null ? currentStatuses.get(id) : null;
+            BookingStatusUpdateResult.Outcome outcome;
+            if (id == null || target == null || !seen.add(id)) {
+                outcome = BookingStatusUpdateResult.Outcome.INVALID;
+            } else if (current == null) {
+                outcome = BookingStatusUpdateResult.Outcome.NOT_FOUND;
+            } else if (!current.canChangeTo(target)) {
+                outcome = BookingStatusUpdateResult.Outcome.REJECTED;
+            } else {
+                outcome = BookingStatusUpdateResult.Outcome.UPDATED;
+                if (current != target) {
+                    changes.computeIfAbsent(target, key -> new ArrayList<>()).add(id);
+                    changedUserIds.add(userIds.get(id));
+                }
+            }
+            results.add(new BookingStatusUpdateResult(id, target, outcome, current));
+        }
+
+        List<Long> cancelled = changes.get(BookingStatus.CANCELLED);
+        if (cancelled != null) {
+            seatInventoryService.returnSold(cancelled);
+        }
+        for (Map.Entry<BookingStatus, List<Long>> change : changes.entrySet()) {
+            BookingStatus target = change.getKey();
+            // Повторное применение перехода к бронированию, уже находящемуся в новом статусе, не допускается:
+            // иначе места отменённого бронирования вернулись бы в продажу дважды
+            List<BookingStatus> allowedFrom = Arrays.stream(BookingStatus.values())
+                    .filter(status -> status != target && status.canChangeTo(target))
+                    .toList();
+            int updated = bookingRepository.updateStatuses(change.getValue(), allowedFrom, target);
+            if (updated != change.getValue().size()) {
+                throw new IllegalStateException("Статусы бронирований изменились во время обновления, повторите запрос");
+            }
+        }
+        evictUserPages(changedUserIds);
+        return results;
     }
 
     /**
@@ -127,11 +460,12 @@ public class BookingService {
      */
     public void confirmBooking(Long id) {
         Booking booking = getBookingById(id);
-        if (booking.getStatus() != BookingStatus.CREATED) {
+        if (!booking.getStatus().canChangeTo(BookingStatus.CONFIRMED)) {
             throw new RuntimeException("Невозможно подтвердить бронирование в текущем статусе");
         }
         booking.setStatus(BookingStatus.CONFIRMED);
         bookingRepository.save(booking);
+        evictUserPages(List.of(booking.getUser().getId()));
     }
 
     /**
@@ -141,40 +475,104 @@ public class BookingService {
      * @param id ID бронирования
      * @throws RuntimeException если бронирование уже завершено или не может быть отменено
      */
+    @Transactional
     public void cancelBooking(Long id) {
         Booking booking = getBookingById(id);
-        if (booking.getStatus() == BookingStatus.COMPLETED) {
+        if (!booking.getStatus().canChangeTo(BookingStatus.CANCELLED)) {
             throw new RuntimeException("Невозможно отменить завершенное бронирование");
         }
+        changeSeatsOnStatusChange(booking, BookingStatus.CANCELLED);
         booking.setStatus(BookingStatus.CANCELLED);
         bookingRepository.save(booking);
+        evictUserPages(List.of(booking.getUser().getId()));
     }
 
     /**
      * Удалить бронирование по ID.
+     * Бронирование удаляется без загрузки сущности, теми же запросами, что и при пакетном удалении.
      *
      * @param bookingId ID бронирования, которое нужно удалить
-     * @return true, если удаление прошло успешно, иначе false
-     * @throws RuntimeException если бронирование с указанным ID не найдено
+     * @return true, если удаление прошло успешно; false, если бронирование не найдено
+     * @throws IllegalStateException если статус бронирования изменился во время удаления
      */
     @Transactional
     public boolean deleteBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new RuntimeException("Бронирование не найдено"));
+        return deleteBookings(List.of(bookingId)) == 1;
+    }
 
-        // Очистка связей с турпакетами, прежде чем удалить
-        booking.getTourPackages().clear();
-        bookingRepository.delete(booking);
-        return true;
+    /**
+     * Удалить несколько бронирований.
+     * Бронирования не загружаются: статусы читаются одним запросом, места неотменённых бронирований
+     * возвращаются в продажу одним запросом, а бронирования вместе со связями с турами удаляются
+     * пакетными запросами DELETE. Несуществующие ID пропускаются.
+     *
+     * @param bookingIds ID бронирований (не больше {@value #MAX_DELETE_BATCH_SIZE})
+     * @return количество удалённых бронирований
+     * @throws IllegalArgumentException если ID больше {@value #MAX_DELETE_BATCH_SIZE}
+     * @throws IllegalStateException если статус какого-либо бронирования изменился во время удаления;
+     *                               в этом случае ни одно бронирование не удаляется
+     */
+    @Transactional
+    public int deleteBookings(Collection<Long> bookingIds) {
+        if (bookingIds.size() > MAX_DELETE_BATCH_SIZE) {
+            throw new IllegalArgumentException("Слишком много бронирований в одном запросе: максимум " + MAX_DELETE_BATCH_SIZE);
+        }
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> cancelled = new ArrayList<>();
+        List<Long> active = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+        for (Object[] row : bookingRepository.findStatusesByIds(bookingIds)) {
+            (row[1] == BookingStatus.CANCELLED ? cancelled : active).add((Long) row[0]);
+            userIds.add((Long) row[2]);
+        }
+        if (cancelled.isEmpty() && active.isEmpty()) {
+            return 0;
+        }
+        // Места неотменённых бронирований возвращаются в продажу, пока связи с турами ещё существуют
+        if (!active.isEmpty()) {
+            seatInventoryService.returnSold(active);
+        }
+        // Бронирования удаляются только в прочитанных статусах: иначе места бронирования, отменённого
+        // параллельно, вернулись бы в продажу дважды
+        int deleted = 0;
+        if (!cancelled.isEmpty()) {
+            deleted += bookingRepository.deleteByIdsAndStatuses(cancelled, EnumSet.of(BookingStatus.CANCELLED));
+        }
+        if (!active.isEmpty()) {
+            deleted += bookingRepository.deleteByIdsAndStatuses(active, EnumSet.complementOf(EnumSet.of(BookingStatus.CANCELLED)));
+        }
+        if (deleted != cancelled.size() + active.size()) {
+            throw new IllegalStateException("Статусы бронирований изменились во время удаления, повторите запрос");
+        }
+        evictUserPages(userIds);
+        return deleted;
     }
 
     /**
-     * Получить все бронирования для конкретного пользователя.
+     * Возвращает места в продажу при отмене бронирования и резервирует их снова при выходе из отмены.
      *
-     * @param user пользователь, для которого нужно получить бронирования
-     * @return список бронирований этого пользователя
+     * @param booking бронирование
+     * @param status новый статус бронирования
+     * @throws IllegalStateException если при выходе из отмены в одном из туров нет свободных мест
      */
-    public List<Booking> getBookingsByUser(User user) {
-        return bookingRepository.findByUser(user);
+    private void changeSeatsOnStatusChange(Booking booking, BookingStatus status) {
+        boolean wasCancelled = booking.getStatus() == BookingStatus.CANCELLED;
+        boolean cancelled = status == BookingStatus.CANCELLED;
+        if (!wasCancelled && cancelled) {
+            returnSeats(booking);
+        } else if (wasCancelled && !cancelled) {
+            reserveSeats(booking.getTourPackages());
+        }
+    }
+
+    /** Возвращает в базу места бронирования в турах с ограниченной вместимостью */
+    private void returnSeats(Booking booking) {
+        for (TourPackage tourPackage : booking.getTourPackages()) {
+            if (tourPackage.getCapacity() != null) {
+                seatInventoryService.returnSold(tourPackage.getId());
+            }
+        }
     }
 }
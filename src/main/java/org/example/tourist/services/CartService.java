@@ -0,0 +1,159 @@
+package org.example.tourist.services;
+
+import org.example.tourist.models.Cart;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Сервис для хранения корзин пользователей.
+ * Каждому пользователю соответствует собственная корзина, поэтому покупатели не видят и не изменяют чужие корзины.
+ * Корзины, к которым не обращались дольше заданного времени, вытесняются,
+ * а общее количество корзин ограничено сверху.
+ */
+@Service
+public class CartService {
+
+    private final Map<String, Cart> carts = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long idleTtlMillis;
+    private final int maxCarts;
+    private final int maxItemsPerCart;
+    private final LongSupplier clock;
+
+    /**
+     * Конструктор для инициализации сервиса с параметрами из конфигурации.
+     *
+     * @param idleTtlMinutes время неактивности (в минутах), после которого корзина вытесняется
+     * @param maxCarts максимальное количество одновременно хранимых корзин
+     * @param maxItemsPerCart максимальное количество позиций в одной корзине
+     */
+    @Autowired
+    public CartService(@Value("${tourist.cart.idle-ttl-minutes:30}") long idleTtlMinutes,
+                       @Value("${tourist.cart.max-carts:100000}") int maxCarts,
+                       @Value("${tourist.cart.max-items:50}") int maxItemsPerCart) {
+        this(TimeUnit.MINUTES.toMillis(idleTtlMinutes), maxCarts, maxItemsPerCart, System::currentTimeMillis);
+    }
+
+    CartService(long idleTtlMillis, int maxCarts, int maxItemsPerCart, LongSupplier clock) {
+        this.idleTtlMillis = idleTtlMillis;
+        this.maxCarts = maxCarts;
+        this.maxItemsPerCart = maxItemsPerCart;
+        this.clock = clock;
+    }
+
+    /**
+     * Получает корзину пользователя, создавая её при необходимости.
+     * Используется для операций, изменяющих корзину.
+     *
+     * @param username имя пользователя
+     * @return корзина пользователя
+     */
+    public Cart getCart(String username) {
+        long now = clock.getAsLong();
+        if (carts.size() >= maxCarts && !carts.containsKey(username)) {
+            makeRoom(now);
+        }
+        // compute выполняется под блокировкой сегмента карты, поэтому корзина не может быть
+        // вытеснена между проверкой срока и обновлением времени обращения
+        return carts.compute(username, (key, cart) -> {
+            if (cart == null || isExpired(cart, now)) {
+                cart = new Cart(maxItemsPerCart);
+            }
+            cart.touch(now);
+            return cart;
+        });
+    }
+
+    /**
+     * Находит корзину пользователя, не создавая новую.
+     * Используется для отображения корзины и операций удаления.
+     *
+     * @param username имя пользователя
+     * @return {@link Optional} с корзиной, если она существует и не истекла
+     */
+    public Optional<Cart> findCart(String username) {
+        Cart cart = carts.get(username);
+        if (cart == null || isExpired(cart, clock.getAsLong())) {
+            return Optional.empty();
+        }
+        return Optional.of(cart);
+    }
+
+    /**
+     * Удаляет корзину пользователя.
+     *
+     * @param username имя пользователя
+     */
+    public void removeCart(String username) {
+        carts.remove(username);
+    }
+
+    /**
+     * Возвращает количество хранимых корзин.
+     *
+     * @return количество корзин
+     */
+    public int size() {
+        return carts.size();
+    }
+
+    /**
+     * Вытесняет корзины, к которым не обращались дольше заданного времени.
+     * Запускается периодически планировщиком.
+     */
+    @Scheduled(fixedDelayString = "${tourist.cart.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        evictExpired(clock.getAsLong());
+    }
+
+    private void evictExpired(long now) {
+        for (String username : carts.keySet()) {
+            carts.computeIfPresent(username, (key, cart) -> isExpired(cart, now) ? null : cart);
+        }
+    }
+
+    /**
+     * Освобождает место для новой корзины: сначала вытесняет истекшие корзины,
+     * затем, если лимит всё ещё превышен, — самые давно не использовавшиеся.
+     * Вытеснение выполняется пачкой, чтобы сканирование не повторялось на каждую новую корзину;
+     * потоки, ожидавшие блокировку, после этого видят свободное место и сразу выходят.
+     */
+    private void makeRoom(long now) {
+        evictionLock.lock();
+        try {
+            evictExpired(now);
+            int excess = carts.size() - maxCarts + 1;
+            if (excess <= 0) {
+                return;
+            }
+            int batch = excess + maxCarts / 100;
+            // Время обращения фиксируется заранее: во время сортировки корзины продолжают использоваться
+            List<Map.Entry<String, Long>> entries = new ArrayList<>(carts.size());
+            carts.forEach((username, cart) -> entries.add(Map.entry(username, cart.lastAccessTime())));
+            entries.sort(Map.Entry.comparingByValue());
+            for (int i = 0; i < batch && i < entries.size(); i++) {
+                Map.Entry<String, Long> entry = entries.get(i);
+                carts.computeIfPresent(entry.getKey(),
+                        (key, cart) -> cart.lastAccessTime() == entry.getValue() ? null : cart);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private boolean isExpired(Cart cart, long now) {
+        return now - cart.lastAccessTime() > idleTtlMillis;
+    }
+}
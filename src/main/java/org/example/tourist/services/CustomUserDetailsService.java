@@ -1,36 +1,58 @@
 package org.example.tourist.services;
 
-import org.example.tourist.models.User;
+import org.example.tourist.AuthenticatedUser;
+import org.example.tourist.BoundedCache;
 import org.example.tourist.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Сервис для загрузки информации о пользователе для аутентификации.
  * Реализует интерфейс {@link UserDetailsService} для интеграции с системой безопасности Spring Security.
+ * Данные пользователей кэшируются по имени пользователя; {@link UserService} сбрасывает запись
+ * при регистрации, смене роли и удалении пользователя.
+ * Реализует {@link UserDetailsPasswordService}: Spring Security сохраняет через него пароль, перехэшированный
+ * при входе, если стоимость сохранённого хэша ниже текущей.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
+    /** Данные пользователей для аутентификации по имени пользователя */
+    private final BoundedCache<String, AuthenticatedUser> userCache;
+
     /**
-     * Конструктор для инициализации {@link UserRepository}.
+     * Конструктор для инициализации {@link UserRepository} и кэша пользователей.
      *
      * @param userRepository репозиторий для работы с пользователями
+     * @param maxCachedUsers максимальное количество пользователей в кэше
+     * @param ttlSeconds время жизни записи кэша в секундах
      */
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${tourist.security.user-cache.max-users:10000}") int maxCachedUsers,
+                                    @Value("${tourist.security.user-cache.ttl-seconds:300}") long ttlSeconds) {
         this.userRepository = userRepository;
+        this.userCache = new BoundedCache<>(maxCachedUsers, TimeUnit.SECONDS.toMillis(ttlSeconds));
     }
 
     /**
      * Загружает пользователя по имени пользователя для аутентификации.
-     * Преобразует информацию о пользователе в объект {@link UserDetails}, который используется для аутентификации в Spring Security.
+     * Преобразует информацию о пользователе в объект {@link AuthenticatedUser}, который используется для аутентификации
+     * в Spring Security и хранит ID пользователя.
+     * Каждый вызов возвращает новый объект: Spring Security стирает пароль в объекте после успешного входа,
+     * поэтому кэшированный объект наружу не отдаётся.
      *
      * @param username имя пользователя
      * @return объект {@link UserDetails} для аутентификации
@@ -38,17 +60,68 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Ищем пользователя по имени пользователя
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + username));
-
-        // Преобразуем его в объект UserDetails
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName())) // Преобразуем роли в авторитеты
-                        .collect(Collectors.toList())
-        );
+        AuthenticatedUser cached = userCache.get(username, this::findUserDetails);
+        if (cached == null) {
+            throw new UsernameNotFoundException("Пользователь не найден: " + username);
+        }
+        return new AuthenticatedUser(cached.getId(), cached.getUsername(), cached.getPassword(), cached.getAuthorities());
+    }
+
+    /**
+     * Сохраняет новый хэш пароля пользователя после успешного входа и сбрасывает его кэшированные данные.
+     *
+     * @param user данные пользователя, загруженные {@link #loadUserByUsername(String)}
+     * @param newPassword новый хэш пароля
+     * @return данные пользователя с новым хэшем пароля
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AuthenticatedUser authenticatedUser = (AuthenticatedUser) user;
+        userRepository.updatePassword(authenticatedUser.getUsername(), newPassword);
+        evict(authenticatedUser.getUsername());
+        return new AuthenticatedUser(authenticatedUser.getId(), authenticatedUser.getUsername(), newPassword,
+                authenticatedUser.getAuthorities());
+    }
+
+    /**
+     * Сбрасывает кэшированные данные пользователя после фиксации текущей транзакции или сразу, если транзакции нет.
+     * Сброс до фиксации позволил бы параллельному входу снова закэшировать ещё не изменённые данные.
+     *
+     * @param username имя пользователя
+     */
+    public void evict(String username) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userCache.invalidate(username);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.invalidate(username);
+            }
+        });
+    }
+
+    /**
+     * Получить статистику кэша пользователей.
+     *
+     * @return снимок счётчиков кэша
+     */
+    public BoundedCache.Stats getCacheStats() {
+        return userCache.getStats();
+    }
+
+    private AuthenticatedUser findUserDetails(String username) {
+        // Ищем пользователя по имени пользователя и преобразуем его в объект UserDetails
+        return userRepository.findByUsername(username)
+                .map(user -> new AuthenticatedUser(
+                        user.getId(),
+                        user.getUsername(),
+                        user.getPassword(),
+                        user.getRoles().stream()
+                                .map(role -> new SimpleGrantedAuthority(role.getName())) // Преобразуем роли в авторитеты
+                                .collect(Collectors.toList())))
+                .orElse(null);
     }
 }
@@ -0,0 +1,230 @@
+package org.example.tourist.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Сервис идемпотентного выполнения запросов по ключу идемпотентности клиента.
+ * Результат первого запроса с ключом сохраняется, а повторные запросы с тем же ключом получают его
+ * без повторного выполнения операции. Повтор, пришедший во время выполнения первого запроса,
+ * ожидает его результата, а не выполняет операцию второй раз. Вместе с результатом хранится отпечаток
+ * запроса, поэтому повтор ключа с другими данными отклоняется, а не получает чужой результат.
+ * Неудачное выполнение не сохраняется, поэтому клиент может повторить запрос с тем же ключом.
+ * Записи хранятся ограниченное время, а их количество ограничено сверху.
+ */
+@Service
+public class IdempotencyService {
+
+    /** Максимальная длина ключа идемпотентности */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final long waitMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Конструктор для инициализации сервиса с параметрами из конфигурации.
+     *
+     * @param ttlMinutes время хранения результата (в минутах)
+     * @param maxEntries максимальное количество хранимых ключей
+     * @param waitSeconds максимальное время ожидания результата выполняющегося запроса (в секундах)
+     */
+    @Autowired
+    public IdempotencyService(@Value("${tourist.idempotency.ttl-minutes:60}") long ttlMinutes,
+                              @Value("${tourist.idempotency.max-keys:10000}") int maxEntries,
+                              @Value("${tourist.idempotency.wait-seconds:30}") long waitSeconds) {
+        this(TimeUnit.MINUTES.toMillis(ttlMinutes), maxEntries, TimeUnit.SECONDS.toMillis(waitSeconds),
+                System::currentTimeMillis);
+    }
+
+    IdempotencyService(long ttlMillis, int maxEntries, long waitMillis, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.waitMillis = waitMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Проверяет ключ идемпотентности: он не пустой и не длиннее {@value #MAX_KEY_LENGTH} символов.
+     *
+     * @param key ключ идемпотентности
+     * @return true, если ключ допустим
+     */
+    public static boolean isValidKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * Выполняет операцию один раз для ключа идемпотентности.
+     * Ключ действует в пределах области (например, пользователя), поэтому один клиент
+     * не может получить результат запроса другого клиента.
+     *
+     * @param scope область действия ключа
+     * @param key ключ идемпотентности
+     * @param fingerprint отпечаток данных запроса, сравниваемый через {@link Object#equals(Object)}
+     * @param action операция, результат которой сохраняется
+     * @param <T> тип результата
+     * @return результат операции или сохранённый результат первого запроса с этим ключом
+     * @throws IllegalArgumentException если ключ пустой или слишком длинный
+     * @throws KeyReusedException если ключ уже использован запросом с другим отпечатком
+     * @throws InProgressException если запрос с этим ключом всё ещё выполняется после истечения времени ожидания
+     * @throws RuntimeException исключение операции, если она завершилась неудачно
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, Object fingerprint, Supplier<T> action) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Ключ идемпотентности должен содержать от 1 до " + MAX_KEY_LENGTH + " символов");
+        }
+        String entryKey = scope + '\n' + key;
+        long now = clock.getAsLong();
+        if (entries.size() >= maxEntries && !entries.containsKey(entryKey)) {
+            makeRoom(now);
+        }
+        Entry created = new Entry(now, fingerprint);
+        // compute под блокировкой сегмента карты: из одновременных запросов с одним ключом
+        // запись создаёт ровно один, остальные получают его запись и ждут результата
+        Entry entry = entries.compute(entryKey, (k, existing) ->
+                existing == null || isExpired(existing, now) ? created : existing);
+        if (entry != created) {
+            if (!Objects.equals(entry.fingerprint, fingerprint)) {
+                throw new KeyReusedException();
+            }
+            return (T) await(entry);
+        }
+        try {
+            T result = action.get();
+            created.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            // Неудачный результат не сохраняется: следующий запрос с этим ключом выполнит операцию заново
+            entries.remove(entryKey, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Возвращает количество хранимых ключей.
+     *
+     * @return количество ключей
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Удаляет результаты, срок хранения которых истёк.
+     * Запускается периодически планировщиком.
+     */
+    @Scheduled(fixedDelayString = "${tourist.idempotency.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        evictExpired(clock.getAsLong());
+    }
+
+    private void evictExpired(long now) {
+        entries.entrySet().removeIf(e -> isExpired(e.getValue(), now));
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new InProgressException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание результата запроса прервано");
+        }
+    }
+
+    /**
+     * Освобождает место для нового ключа: сначала удаляет истекшие записи,
+     * затем, если лимит всё ещё превышен, — пачку самых старых завершённых.
+     * Записи выполняющихся запросов не вытесняются, иначе повтор выполнил бы операцию второй раз.
+     */
+    private void makeRoom(long now) {
+        evictionLock.lock();
+        try {
+            evictExpired(now);
+            int excess = entries.size() - maxEntries + 1;
+            if (excess <= 0) {
+                return;
+            }
+            int batch = excess + maxEntries / 100;
+            List<Map.Entry<String, Entry>> completed = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> {
+                if (entry.result.isDone()) {
+                    completed.add(Map.entry(key, entry));
+                }
+            });
+            completed.sort((a, b) -> Long.compare(a.getValue().createdTime, b.getValue().createdTime));
+            for (int i = 0; i < batch && i < completed.size(); i++) {
+                entries.remove(completed.get(i).getKey(), completed.get(i).getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return entry.result.isDone() && now - entry.createdTime > ttlMillis;
+    }
+
+    /**
+     * Запись ключа идемпотентности: результат (возможно, ещё не готовый), отпечаток запроса и время создания.
+     */
+    private static final class Entry {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final long createdTime;
+        private final Object fingerprint;
+
+        private Entry(long now, Object fingerprint) {
+            this.createdTime = now;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * Запрос с этим ключом ещё выполняется, а время ожидания его результата истекло.
+     */
+    public static class InProgressException extends RuntimeException {
+        public InProgressException() {
+            super("Запрос с этим ключом идемпотентности ещё выполняется");
+        }
+    }
+
+    /**
+     * Ключ уже использован запросом с другими данными.
+     */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException() {
+            super("Ключ идемпотентности уже использован запросом с другими данными");
+        }
+    }
+}
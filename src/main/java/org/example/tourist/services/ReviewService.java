@@ -1,46 +1,181 @@
 package org.example.tourist.services;
 
+import jakarta.transaction.Transactional;
+import org.example.tourist.CursorPage;
+import org.example.tourist.ReviewDto;
 import org.example.tourist.models.Review;
-import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.TourPackageRating;
 import org.example.tourist.repositories.ReviewRepository;
+import org.example.tourist.repositories.TourPackageRatingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для работы с отзывами.
  * Включает методы для сохранения отзыва и получения отзывов по туристическому пакету.
+ * Вместе с отзывом в той же транзакции обновляется агрегированный рейтинг пакета {@link TourPackageRating},
+ * поэтому для отображения рейтинга не нужно читать все отзывы.
  */
 @Service
 public class ReviewService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
+    /** Максимальный размер страницы отзывов */
+    public static final int MAX_REVIEWS_PAGE_SIZE = 50;
+
+    /** Количество пакетов, рейтинг которых заполняется одним запросом */
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
     private final ReviewRepository reviewRepository;
+    private final TourPackageRatingRepository ratingRepository;
 
     /**
-     * Конструктор для инициализации {@link ReviewRepository}.
+     * Конструктор для инициализации репозиториев.
      *
      * @param reviewRepository репозиторий для работы с отзывами
+     * @param ratingRepository репозиторий агрегированных рейтингов туристических пакетов
      */
-    public ReviewService(ReviewRepository reviewRepository) {
+    public ReviewService(ReviewRepository reviewRepository, TourPackageRatingRepository ratingRepository) {
         this.reviewRepository = reviewRepository;
+        this.ratingRepository = ratingRepository;
     }
 
     /**
-     * Сохраняет новый отзыв в базе данных.
+     * Сохраняет новый отзыв в базе данных и учитывает его оценку в агрегированном рейтинге пакета.
      *
      * @param review отзыв, который нужно сохранить
+     * @throws IllegalArgumentException если оценка вне диапазона от 1 до 5
      */
+    @Transactional
     public void saveReview(Review review) {
+        int rating = review.getRating();
+        if (rating < TourPackageRating.MIN_RATING || rating > TourPackageRating.MAX_RATING) {
+            throw new IllegalArgumentException("Оценка должна быть от 1 до 5");
+        }
         reviewRepository.save(review);
+        ratingRepository.addRating(review.getTourPackage().getId(), rating);
+    }
+
+    /**
+     * Исключает оценки всех отзывов пользователя из агрегированных рейтингов пакетов.
+     * Вызывается перед удалением пользователя, отзывы которого удаляются каскадно, в той же транзакции.
+     *
+     * @param userId ID пользователя
+     */
+    @Transactional
+    public void removeRatingsOfUser(Long userId) {
+        for (Object[] row : reviewRepository.countRatingsByUserId(userId)) {
+            int rating = (Integer) row[1];
+            if (rating < TourPackageRating.MIN_RATING || rating > TourPackageRating.MAX_RATING) {
+                // Такие оценки не попадали в рейтинг, см. computeRatings
+                continue;
+            }
+            ratingRepository.removeRatings((Long) row[0], rating, (Long) row[2]);
+        }
+    }
+
+    /**
+     * Получает страницу отзывов туристического пакета, новые первыми.
+     * Используется курсорная пагинация по паре (дата отзыва, ID): курсор указывает на последний отзыв
+     * предыдущей страницы, поэтому стоимость страницы не зависит от количества отзывов пакета.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @param cursor курсор следующей страницы (null — первая страница)
+     * @param size размер страницы (ограничивается {@link #MAX_REVIEWS_PAGE_SIZE})
+     * @return страница отзывов
+     * @throws IllegalArgumentException если курсор некорректен
+     */
+    public CursorPage<ReviewDto> getReviewsPage(Long tourPackageId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_REVIEWS_PAGE_SIZE));
+        // Запрашиваем на один отзыв больше, чтобы узнать, есть ли следующая страница
+        List<Review> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = reviewRepository.findFirstPage(tourPackageId, Limit.of(limit + 1));
+        } else {
+            String[] parts = CursorPage.decodeCursor(cursor, 2);
+            try {
+                rows = reviewRepository.findPageAfter(tourPackageId, LocalDateTime.parse(parts[0]),
+                        Long.valueOf(parts[1]), Limit.of(limit + 1));
+            } catch (DateTimeParseException | NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы", e);
+            }
+        }
+        List<ReviewDto> items = rows.stream().limit(limit).map(ReviewDto::from).collect(Collectors.toList());
+        if (rows.size() <= limit) {
+            return new CursorPage<>(items, null);
+        }
+        ReviewDto last = items.get(limit - 1);
+        return new CursorPage<>(items, CursorPage.encodeCursor(last.getReviewDate(), last.getId()));
     }
 
     /**
-     * Получает список отзывов для конкретного туристического пакета.
+     * Получает агрегированный рейтинг туристического пакета.
      *
-     * @param tourPackage туристический пакет, для которого необходимо получить отзывы
-     * @return список отзывов для указанного туристического пакета
+     * @param tourPackageId ID туристического пакета
+     * @return рейтинг пакета; для пакета без отзывов — пустой рейтинг
+     */
+    public TourPackageRating getRating(Long tourPackageId) {
+        return ratingRepository.findById(tourPackageId).orElseGet(() -> new TourPackageRating(tourPackageId));
+    }
+
+    /**
+     * Получает агрегированные рейтинги сразу для нескольких туристических пакетов одним запросом.
+     *
+     * @param tourPackageIds идентификаторы туристических пакетов
+     * @return карта, где ключ — ID пакета, а значение — его рейтинг; пакеты без отзывов отсутствуют
+     */
+    public Map<Long, TourPackageRating> getRatings(Collection<Long> tourPackageIds) {
+        Map<Long, TourPackageRating> ratings = new HashMap<>();
+        for (TourPackageRating rating : ratingRepository.findAllById(tourPackageIds)) {
+            ratings.put(rating.getTourPackageId(), rating);
+        }
+        return ratings;
+    }
+
+    /**
+     * Заполняет агрегированный рейтинг для пакетов, отзывы которых были оставлены до появления таблицы рейтингов.
+     * Выполняется после запуска приложения; пакеты, у которых строка рейтинга уже есть, не затрагиваются.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRatings() {
+        List<Long> missing = ratingRepository.findTourPackageIdsWithoutRating();
+        for (int from = 0; from < missing.size(); from += BACKFILL_BATCH_SIZE) {
+            List<Long> batch = missing.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, missing.size()));
+            ratingRepository.saveAll(computeRatings(batch).values());
+        }
+        if (!missing.isEmpty()) {
+            log.info("Заполнен агрегированный рейтинг для {} туристических пакетов", missing.size());
+        }
+    }
+
+    /**
+     * Считает рейтинги пакетов по их отзывам одним сгруппированным запросом.
      */
-    public List<Review> getReviewsByTourPackage(TourPackage tourPackage) {
-        return reviewRepository.findByTourPackage(tourPackage);
+    private Map<Long, TourPackageRating> computeRatings(Collection<Long> tourPackageIds) {
+        Map<Long, TourPackageRating> ratings = new HashMap<>();
+        for (Object[] row : reviewRepository.countRatingsByTourPackageIds(tourPackageIds)) {
+            Long tourPackageId = (Long) row[0];
+            int rating = (Integer) row[1];
+            if (rating < TourPackageRating.MIN_RATING || rating > TourPackageRating.MAX_RATING) {
+                // Оценки вне диапазона могли попасть в базу до появления проверки — в рейтинге они не учитываются
+                continue;
+            }
+            ratings.computeIfAbsent(tourPackageId, TourPackageRating::new).addRatings(rating, (Long) row[2]);
+        }
+        return ratings;
     }
 }
@@ -0,0 +1,268 @@
+package org.example.tourist.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.tourist.BookingStatus;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сервис учёта мест в турах с ограниченной вместимостью.
+ * Свободные места хранятся в столбце seats_left таблицы туров. Чтобы при распродаже одного тура оформления
+ * не выстраивались в очередь за блокировкой одной строки, сервис забирает места из базы партиями
+ * (условным UPDATE, который не даёт уйти в минус) и раздаёт их из нескольких счётчиков в памяти.
+ * Каждый поток начинает с собственного случайного счётчика, поэтому одновременные оформления почти не
+ * конкурируют друг с другом, а обращение к базе происходит один раз на партию мест.
+ * Места, выданные сервису, но ещё не проданные, возвращаются в базу при изменении вместимости тура
+ * и при остановке приложения. Места, потерянные при аварийной остановке, восстанавливаются
+ * полным пересчётом ({@link #recountAll()}), который администратор запускает явно.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatInventoryService.class);
+
+    private final TourPackageRepository tourPackageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int shardCount;
+    private final int leaseSize;
+
+    /** Счётчики мест в памяти по ID тура */
+    private final Map<Long, AtomicInteger[]> leases = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор для инициализации сервиса.
+     *
+     * @param tourPackageRepository репозиторий туристических пакетов
+     * @param transactionManager менеджер транзакций; партии мест забираются в отдельной транзакции
+     * @param shardCount количество счётчиков мест в памяти на один тур
+     * @param leaseSize максимальное количество мест, забираемых из базы за одно обращение
+     */
+    @Autowired
+    public SeatInventoryService(TourPackageRepository tourPackageRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${tourist.seats.shards:8}") int shardCount,
+                                @Value("${tourist.seats.lease-size:16}") int leaseSize) {
+        if (shardCount < 1 || leaseSize < 1) {
+            throw new IllegalArgumentException("Количество счётчиков и размер партии мест должны быть положительными");
+        }
+        this.tourPackageRepository = tourPackageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardCount = shardCount;
+        this.leaseSize = leaseSize;
+    }
+
+    /**
+     * Заполняет при запуске свободные места туров, для которых они ещё не посчитаны.
+     * Остальные строки не изменяются: другие экземпляры приложения могут в это время держать
+     * в памяти выданные им места, и пересчёт вернул бы эти места в продажу второй раз.
+     */
+    @PostConstruct
+    public void recountMissing() {
+        Integer updated = transactionTemplate.execute(status ->
+                tourPackageRepository.recountMissingSeats(BookingStatus.CANCELLED));
+        if (updated != null && updated > 0) {
+            log.info("Свободные места заполнены для {} туров", updated);
+        }
+    }
+
+    /**
+     * Пересчитывает свободные места всех туров по неотменённым бронированиям, сбрасывая места в памяти.
+     * Восстанавливает места, выданные в память экземпляру, который остановился аварийно и не вернул их в базу.
+     * Запускается администратором, когда бронирования обслуживает только этот экземпляр приложения:
+     * места в памяти других экземпляров пересчёт считает свободными.
+     *
+     * @return количество пересчитанных туров
+     */
+    public int recountAll() {
+        leases.keySet().forEach(this::drain);
+        Integer updated = transactionTemplate.execute(status ->
+                tourPackageRepository.recountSeats(null, BookingStatus.CANCELLED));
+        log.info("Свободные места пересчитаны для {} туров", updated);
+        return updated != null ? updated : 0;
+    }
+
+    /**
+     * Резервирует одно место в туре с ограниченной вместимостью.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @return true, если место зарезервировано; false, если свободных мест нет
+     */
+    public boolean reserve(Long tourPackageId) {
+        AtomicInteger[] shards = leases.computeIfAbsent(tourPackageId, id -> newShards());
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        if (takeFromAny(shards, start)) {
+            return true;
+        }
+        // Все счётчики пусты: пополняем свой счётчик новой партией мест из базы
+        AtomicInteger shard = shards[start];
+        synchronized (shard) {
+            if (takeOne(shard)) {
+                return true;
+            }
+            int leased = leaseFromDatabase(tourPackageId);
+            if (leased > 0) {
+                shard.addAndGet(leased - 1);
+                return true;
+            }
+        }
+        // В базе мест нет, но другой поток мог за это время пополнить свой счётчик
+        return takeFromAny(shards, start);
+    }
+
+    /**
+     * Возвращает зарезервированное место в счётчик в памяти (например, если оформление бронирования откатилось).
+     *
+     * @param tourPackageId ID туристического пакета
+     */
+    public void release(Long tourPackageId) {
+        AtomicInteger[] shards = leases.computeIfAbsent(tourPackageId, id -> newShards());
+        shards[ThreadLocalRandom.current().nextInt(shardCount)].incrementAndGet();
+    }
+
+    /**
+     * Возвращает в базу место проданного ранее бронирования (например, при его отмене).
+     * Выполняется в текущей транзакции.
+     *
+     * @param tourPackageId ID туристического пакета
+     */
+    public void returnSold(Long tourPackageId) {
+        tourPackageRepository.returnSeats(tourPackageId, 1);
+    }
+
+    /**
+     * Возвращает в базу места нескольких проданных бронирований одним запросом (например, при пакетной отмене).
+     * Выполняется в текущей транзакции.
+     *
+     * @param bookingIds ID бронирований
+     */
+    public void returnSold(Collection<Long> bookingIds) {
+        tourPackageRepository.returnSeatsOfBookings(bookingIds);
+    }
+
+    /**
+     * Учитывает изменение вместимости тура.
+     * Непроданные места из памяти возвращаются в базу, после чего количество свободных мест
+     * изменяется на разницу вместимостей; при появлении или снятии ограничения места пересчитываются.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @param oldCapacity прежняя вместимость (null — без ограничения)
+     * @param newCapacity новая вместимость (null — без ограничения)
+     */
+    public void onCapacityChanged(Long tourPackageId, Integer oldCapacity, Integer newCapacity) {
+        int drained = drain(tourPackageId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (oldCapacity != null && newCapacity != null) {
+                tourPackageRepository.returnSeats(tourPackageId, drained + newCapacity - oldCapacity);
+            } else {
+                tourPackageRepository.recountSeats(tourPackageId, BookingStatus.CANCELLED);
+            }
+        });
+    }
+
+    /**
+     * Получает количество свободных мест тура: места в базе и непроданные места в памяти.
+     *
+     * @param tourPackageId ID туристического пакета
+     * @return количество свободных мест или null, если количество мест не ограничено
+     */
+    public Integer getSeatsLeft(Long tourPackageId) {
+        Integer inDatabase = tourPackageRepository.findSeatsLeft(tourPackageId);
+        if (inDatabase == null) {
+            return null;
+        }
+        int inMemory = 0;
+        AtomicInteger[] shards = leases.get(tourPackageId);
+        if (shards != null) {
+            for (AtomicInteger shard : shards) {
+                inMemory += shard.get();
+            }
+        }
+        return inDatabase + inMemory;
+    }
+
+    /**
+     * Возвращает в базу все непроданные места из памяти при остановке приложения.
+     */
+    @PreDestroy
+    public void drainAll() {
+        for (Long tourPackageId : leases.keySet()) {
+            int drained = drain(tourPackageId);
+            if (drained > 0) {
+                transactionTemplate.executeWithoutResult(status ->
+                        tourPackageRepository.returnSeats(tourPackageId, drained));
+            }
+        }
+    }
+
+    /**
+     * Забирает из базы партию мест, уменьшая её размер вдвое, если столько мест уже не осталось.
+     *
+     * @return количество забранных мест (0 — мест нет)
+     */
+    private int leaseFromDatabase(Long tourPackageId) {
+        Integer leased = transactionTemplate.execute(status -> {
+            for (int seats = leaseSize; seats >= 1; seats /= 2) {
+                if (tourPackageRepository.takeSeats(tourPackageId, seats) == 1) {
+                    return seats;
+                }
+            }
+            return 0;
+        });
+        return leased != null ? leased : 0;
+    }
+
+    /** Обнуляет счётчики тура в памяти и возвращает количество снятых с них мест */
+    private int drain(Long tourPackageId) {
+        AtomicInteger[] shards = leases.get(tourPackageId);
+        int drained = 0;
+        if (shards != null) {
+            for (AtomicInteger shard : shards) {
+                drained += shard.getAndSet(0);
+            }
+        }
+        return drained;
+    }
+
+    private boolean takeFromAny(AtomicInteger[] shards, int start) {
+        for (int i = 0; i < shardCount; i++) {
+            if (takeOne(shards[(start + i) % shardCount])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean takeOne(AtomicInteger shard) {
+        int seats;
+        do {
+            seats = shard.get();
+            if (seats <= 0) {
+                return false;
+            }
+        } while (!shard.compareAndSet(seats, seats - 1));
+        return true;
+    }
+
+    private AtomicInteger[] newShards() {
+        AtomicInteger[] shards = new AtomicInteger[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new AtomicInteger();
+        }
+        return shards;
+    }
+}
@@ -1,9 +1,11 @@
 package org.example.tourist.services;
 
+import org.example.tourist.repositories.ArchivedBookingRepository;
 import org.example.tourist.repositories.BookingRepository;
 import org.example.tourist.repositories.UserRepository;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,16 +19,21 @@ public class StatisticsService {
 
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
 
     /**
-     * Конструктор для инициализации сервисов {@link UserRepository} и {@link BookingRepository}.
+     * Конструктор для инициализации сервисов {@link UserRepository}, {@link BookingRepository}
+     * и {@link ArchivedBookingRepository}.
      *
      * @param userRepository репозиторий пользователей
      * @param bookingRepository репозиторий бронирований
+     * @param archivedBookingRepository репозиторий архивных бронирований
      */
-    public StatisticsService(UserRepository userRepository, BookingRepository bookingRepository) {
+    public StatisticsService(UserRepository userRepository, BookingRepository bookingRepository,
+                             ArchivedBookingRepository archivedBookingRepository) {
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
     }
 
     /**
@@ -56,18 +63,20 @@ public class StatisticsService {
     /**
      * Получает статистику по бронированиям, сгруппированную по месяцам.
      * Статистика возвращается в виде карты, где ключ — это месяц (в виде строки), а значение — количество бронирований в этом месяце.
+     * Учитываются как текущие, так и архивные бронирования.
      *
      * @return карта с количеством бронирований по месяцам
      */
     public Map<String, Long> getBookingStats() {
-        List<Object[]> result = bookingRepository.countBookingsPerMonth();
+        List<Object[]> result = new ArrayList<>(bookingRepository.countBookingsPerMonth());
+        result.addAll(archivedBookingRepository.countBookingsPerMonth());
         Map<String, Long> bookingStats = new HashMap<>();
 
         for (Object[] row : result) {
             // Приводим Integer (месяц) к String
             String month = String.valueOf(row[0]);
             Long count = (Long) row[1];
-            bookingStats.put(month, count);
+            bookingStats.merge(month, count, Long::sum);
         }
         return bookingStats;
     }
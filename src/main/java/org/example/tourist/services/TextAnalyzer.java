@@ -0,0 +1,108 @@
+package org.example.tourist.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Разбор текста на термы для полнотекстового поиска по каталогу.
+ * Текст разбивается на слова из букв и цифр, приводится к нижнему регистру («ё» заменяется на «е»),
+ * стоп-слова отбрасываются, а окончания русских и английских слов отсекаются облегчённым стеммером,
+ * чтобы разные формы одного слова («Париж», «Парижа», «Парижу») давали один терм.
+ */
+public final class TextAnalyzer {
+
+    /** Минимальная длина основы, которая остаётся после отсечения окончания */
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "к", "ко", "по", "за", "из", "от", "до", "для", "о", "об", "у",
+            "не", "а", "но", "или", "что", "как", "это",
+            "the", "a", "an", "and", "or", "of", "in", "on", "to", "for", "with", "at", "by", "is");
+
+    /** Окончания русских слов, от длинных к коротким */
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими", "ией", "иях", "ях", "ах",
+            "ий", "ый", "ой", "ая", "яя", "ое", "ее", "ые", "ие", "ую", "юю", "ых", "их", "ым", "им",
+            "ом", "ем", "ам", "ям", "ов", "ев", "ей", "ия", "ие", "ию", "ии",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"};
+
+    /** Окончания английских слов, от длинных к коротким */
+    private static final String[] ENGLISH_ENDINGS = {
+            "ations", "ation", "ings", "ing", "ies", "ed", "es", "ly", "s"};
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Разбирает текст на термы в порядке их появления (с повторами).
+     *
+     * @param text исходный текст (null — пустой список)
+     * @return список термов
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : tokenize(text)) {
+            if (!STOP_WORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Разбивает текст на слова в нижнем регистре без стемминга и без удаления стоп-слов.
+     *
+     * @param text исходный текст (null — пустой список)
+     * @return список слов
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Отсекает окончание слова.
+     *
+     * @param token слово в нижнем регистре
+     * @return основа слова
+     */
+    public static String stem(String token) {
+        String[] endings = isCyrillic(token) ? RUSSIAN_ENDINGS : ENGLISH_ENDINGS;
+        for (String ending : endings) {
+            if (token.endsWith(ending) && token.length() - ending.length() >= MIN_STEM_LENGTH) {
+                String stem = token.substring(0, token.length() - ending.length());
+                // «cities» и «city» должны давать одну основу
+                return ending.equals("ies") ? stem + "y" : stem;
+            }
+        }
+        return token;
+    }
+
+    private static boolean isCyrillic(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.UnicodeBlock.of(token.charAt(i)) == Character.UnicodeBlock.CYRILLIC) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
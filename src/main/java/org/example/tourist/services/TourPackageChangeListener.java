@@ -0,0 +1,25 @@
+package org.example.tourist.services;
+
+import org.example.tourist.models.TourPackage;
+
+/**
+ * Получатель уведомлений об изменениях каталога туристических пакетов.
+ * {@link TourPackageService} вызывает слушателей после фиксации транзакции, в которой пакет был изменён,
+ * чтобы построенные в памяти индексы каталога оставались согласованными с базой данных.
+ */
+public interface TourPackageChangeListener {
+
+    /**
+     * Вызывается после создания или изменения туристического пакета.
+     *
+     * @param tourPackage сохранённый туристический пакет
+     */
+    void onTourPackageSaved(TourPackage tourPackage);
+
+    /**
+     * Вызывается после удаления туристического пакета.
+     *
+     * @param tourPackageId ID удалённого пакета
+     */
+    void onTourPackageDeleted(Long tourPackageId);
+}
@@ -0,0 +1,423 @@
+package org.example.tourist.services;
+
+import org.example.tourist.FacetBucket;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Индекс каталога в памяти для фильтрации по цене, длительности и доступности и подсчёта фасетов.
+ * Поля пакетов хранятся в примитивных массивах (столбцах); для цены и длительности дополнительно хранятся
+ * отсортированные значения и соответствующие им номера пакетов, поэтому фильтр по диапазону — это два двоичных поиска
+ * и заполнение битовой карты. Страницы результатов выбираются обходом заранее отсортированного порядка пакетов
+ * для нужного поля сортировки.
+ * Индекс неизменяем: каждое изменение каталога строит новый снимок (копирование при записи),
+ * поэтому чтение не требует блокировок. Изменения каталога редки, а запросы к нему часты.
+ */
+@Component
+public class TourPackageFacetIndex implements TourPackageChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TourPackageFacetIndex.class);
+
+    /** Размер пачки при построении индекса из базы данных */
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    /** Значение столбца, обозначающее отсутствие цены или длительности; меньше любого значения, как NULL в MySQL */
+    private static final int NULL_VALUE = Integer.MIN_VALUE;
+
+    private final TourPackageRepository tourPackageRepository;
+    private final int[] priceBounds;
+    private final int[] durationBounds;
+
+    /** Все пакеты по ID; источник для построения снимков, изменяется только под блокировкой объекта */
+    private final TreeMap<Long, TourPackageSummary> packages = new TreeMap<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Конструктор для инициализации индекса.
+     *
+     * @param tourPackageRepository репозиторий для чтения каталога
+     * @param priceBounds границы диапазонов цены для фасета (по возрастанию)
+     * @param durationBounds границы диапазонов длительности для фасета (по возрастанию)
+     */
+    public TourPackageFacetIndex(TourPackageRepository tourPackageRepository,
+                                 @Value("${tourist.catalog.facets.price-bounds:500,1000,2000,5000}") int[] priceBounds,
+                                 @Value("${tourist.catalog.facets.duration-bounds:4,8,15}") int[] durationBounds) {
+        this.tourPackageRepository = tourPackageRepository;
+        this.priceBounds = priceBounds.clone();
+        this.durationBounds = durationBounds.clone();
+        Arrays.sort(this.priceBounds);
+        Arrays.sort(this.durationBounds);
+    }
+
+    /**
+     * Строит индекс по всем пакетам после запуска приложения.
+     * Читаются только поля кратких представлений, пачками по возрастанию ID.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        packages.clear();
+        Long afterId = 0L;
+        List<TourPackageSummary> batch;
+        do {
+            batch = tourPackageRepository.findSummaryBatch(afterId, BUILD_BATCH_SIZE);
+            for (TourPackageSummary summary : batch) {
+                packages.put(summary.getId(), summary);
+                afterId = summary.getId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        snapshot = new Snapshot(packages.values());
+        log.info("Индекс фасетов каталога построен: {} пакетов за {} мс",
+                packages.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Проверяет, построен ли индекс.
+     *
+     * @return true, если индекс можно использовать для запросов
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    @Override
+    public synchronized void onTourPackageSaved(TourPackage tourPackage) {
+        packages.put(tourPackage.getId(), new TourPackageSummary(tourPackage.getId(), tourPackage.getName(),
+                tourPackage.getPrice(), tourPackage.getDuration(), tourPackage.getAvailability(), tourPackage.getImageUrl()));
+        if (snapshot != null) {
+            snapshot = new Snapshot(packages.values());
+        }
+    }
+
+    @Override
+    public synchronized void onTourPackageDeleted(Long tourPackageId) {
+        if (packages.remove(tourPackageId) != null && snapshot != null) {
+            snapshot = new Snapshot(packages.values());
+        }
+    }
+
+    /**
+     * Отбирает пакеты, удовлетворяющие фильтрам.
+     *
+     * @param minPrice минимальная цена (включительно) или null
+     * @param maxPrice максимальная цена (включительно) или null
+     * @param minDuration минимальная длительность (включительно) или null
+     * @param maxDuration максимальная длительность (включительно) или null
+     * @param availability требуемая доступность или null
+     * @param textMatchIds ID пакетов, найденных текстовым поиском, или null, если текстового запроса нет
+     * @return выборка, по которой можно получить страницу результатов и счётчики фасетов
+     * @throws IllegalStateException если индекс ещё не построен
+     */
+    public Selection select(Integer minPrice, Integer maxPrice, Integer minDuration, Integer maxDuration,
+                            Boolean availability, long[] textMatchIds) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Индекс фасетов ещё не построен");
+        }
+        BitSet priceBits = minPrice != null || maxPrice != null
+                ? current.rangeBits(current.byPrice, current.sortedPrices, minPrice, maxPrice) : null;
+        BitSet durationBits = minDuration != null || maxDuration != null
+                ? current.rangeBits(current.byDuration, current.sortedDurations, minDuration, maxDuration) : null;
+        BitSet availabilityBits = availability != null
+                ? (availability ? current.available : current.unavailable) : null;
+        BitSet textBits = textMatchIds != null ? current.ordinalsOf(textMatchIds) : null;
+        return new Selection(current, priceBits, durationBits, availabilityBits, textBits);
+    }
+
+    /**
+     * Результат применения фильтров к снимку индекса.
+     * Хранит битовые карты каждого фильтра отдельно, чтобы счётчики фасета учитывали все фильтры, кроме собственного.
+     */
+    public final class Selection {
+        private final Snapshot snapshot;
+        private final BitSet priceBits;
+        private final BitSet durationBits;
+        private final BitSet availabilityBits;
+        private final BitSet textBits;
+        private final BitSet matched;
+
+        private Selection(Snapshot snapshot, BitSet priceBits, BitSet durationBits, BitSet availabilityBits, BitSet textBits) {
+            this.snapshot = snapshot;
+            this.priceBits = priceBits;
+            this.durationBits = durationBits;
+            this.availabilityBits = availabilityBits;
+            this.textBits = textBits;
+            this.matched = intersect(priceBits, durationBits, availabilityBits, textBits);
+        }
+
+        /**
+         * Проверяет, попадает ли пакет в выборку.
+         *
+         * @param tourPackageId ID пакета
+         * @return true, если пакет удовлетворяет всем фильтрам
+         */
+        public boolean contains(long tourPackageId) {
+            int ordinal = Arrays.binarySearch(snapshot.ids, tourPackageId);
+            return ordinal >= 0 && matched.get(ordinal);
+        }
+
+        /**
+         * Возвращает страницу выборки, упорядоченную по полю сортировки и ID,
+         * начиная после записи (afterValue, afterId).
+         *
+         * @param sortField поле сортировки
+         * @param ascending направление сортировки
+         * @param afterValue значение поля у последней записи предыдущей страницы
+         * @param afterId ID последней записи предыдущей страницы (null — первая страница)
+         * @param limit максимальное количество записей
+         * @return краткие представления пакетов (новые объекты без рейтинга)
+         */
+        public List<TourPackageSummary> page(TourPackageSortField sortField, boolean ascending,
+                                             Object afterValue, Long afterId, int limit) {
+            int[] order = snapshot.order(sortField);
+            IntUnaryOperator anchorCompare = ordinal -> {
+                int c = TourPackageSortField.compareValues(sortField.extractValue(snapshot.docs[ordinal]), afterValue);
+                return c != 0 ? c : Long.compare(snapshot.ids[ordinal], afterId);
+            };
+            List<TourPackageSummary> items = new ArrayList<>(Math.min(limit, 64));
+            if (ascending) {
+                int start = afterId == null ? 0 : firstPosition(order, ordinal -> anchorCompare.applyAsInt(ordinal) > 0);
+                for (int i = start; i < order.length && items.size() < limit; i++) {
+                    if (matched.get(order[i])) {
+                        items.add(copy(snapshot.docs[order[i]]));
+                    }
+                }
+            } else {
+                int end = afterId == null ? order.length : firstPosition(order, ordinal -> anchorCompare.applyAsInt(ordinal) >= 0);
+                for (int i = end - 1; i >= 0 && items.size() < limit; i--) {
+                    if (matched.get(order[i])) {
+                        items.add(copy(snapshot.docs[order[i]]));
+                    }
+                }
+            }
+            return items;
+        }
+
+        /**
+         * Считает пакеты по диапазонам цены с учётом всех фильтров, кроме фильтра по цене.
+         *
+         * @return счётчики диапазонов цены
+         */
+        public List<FacetBucket> priceFacets() {
+            return buckets(snapshot.byPrice, snapshot.sortedPrices, priceBounds,
+                    intersect(durationBits, availabilityBits, textBits));
+        }
+
+        /**
+         * Считает пакеты по диапазонам длительности с учётом всех фильтров, кроме фильтра по длительности.
+         *
+         * @return счётчики диапазонов длительности
+         */
+        public List<FacetBucket> durationFacets() {
+            return buckets(snapshot.byDuration, snapshot.sortedDurations, durationBounds,
+                    intersect(priceBits, availabilityBits, textBits));
+        }
+
+        /**
+         * Считает доступные пакеты с учётом всех фильтров, кроме фильтра по доступности.
+         *
+         * @return количество доступных пакетов
+         */
+        public long availableCount() {
+            BitSet base = intersect(priceBits, durationBits, textBits);
+            base.and(snapshot.available);
+            return base.cardinality();
+        }
+
+        /**
+         * Считает недоступные пакеты с учётом всех фильтров, кроме фильтра по доступности.
+         *
+         * @return количество недоступных пакетов
+         */
+        public long unavailableCount() {
+            BitSet base = intersect(priceBits, durationBits, textBits);
+            base.and(snapshot.unavailable);
+            return base.cardinality();
+        }
+
+        private BitSet intersect(BitSet... filters) {
+            BitSet result = new BitSet(snapshot.ids.length);
+            result.set(0, snapshot.ids.length);
+            for (BitSet filter : filters) {
+                if (filter != null) {
+                    result.and(filter);
+                }
+            }
+            return result;
+        }
+
+        private List<FacetBucket> buckets(int[] order, int[] sortedValues, int[] bounds, BitSet base) {
+            List<FacetBucket> buckets = new ArrayList<>(bounds.length + 1);
+            // Пакеты без значения не попадают ни в один диапазон
+            int from = lowerBound(sortedValues, NULL_VALUE + 1);
+            for (int b = 0; b <= bounds.length; b++) {
+                int to = b < bounds.length ? lowerBound(sortedValues, bounds[b]) : sortedValues.length;
+                long count = 0;
+                for (int i = from; i < to; i++) {
+                    if (base.get(order[i])) {
+                        count++;
+                    }
+                }
+                buckets.add(new FacetBucket(b > 0 ? bounds[b - 1] : null, b < bounds.length ? bounds[b] : null, count));
+                from = to;
+            }
+            return buckets;
+        }
+    }
+
+    /**
+     * Неизменяемый снимок индекса. Номер пакета в снимке (ordinal) — его позиция в массиве ID, упорядоченном по возрастанию.
+     */
+    private static final class Snapshot {
+        private final long[] ids;
+        private final TourPackageSummary[] docs;
+
+        /** Номера пакетов, упорядоченные по (цена, ID), и цены в том же порядке */
+        private final int[] byPrice;
+        private final int[] sortedPrices;
+
+        /** Номера пакетов, упорядоченные по (длительность, ID), и длительности в том же порядке */
+        private final int[] byDuration;
+        private final int[] sortedDurations;
+
+        /** Номера пакетов, упорядоченные по (название, ID) и по (доступность, ID) */
+        private final int[] byName;
+        private final int[] byAvailability;
+
+        private final BitSet available = new BitSet();
+        private final BitSet unavailable = new BitSet();
+
+        private Snapshot(Collection<TourPackageSummary> summaries) {
+            int size = summaries.size();
+            ids = new long[size];
+            docs = summaries.toArray(new TourPackageSummary[0]);
+            int[] prices = new int[size];
+            int[] durations = new int[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = docs[i].getId();
+                prices[i] = docs[i].getPrice() != null ? docs[i].getPrice() : NULL_VALUE;
+                durations[i] = docs[i].getDuration() != null ? docs[i].getDuration() : NULL_VALUE;
+                if (Boolean.TRUE.equals(docs[i].getAvailability())) {
+                    available.set(i);
+                } else if (Boolean.FALSE.equals(docs[i].getAvailability())) {
+                    unavailable.set(i);
+                }
+            }
+            byPrice = sortedOrder(size, TourPackageSortField.PRICE);
+            sortedPrices = valuesInOrder(byPrice, prices);
+            byDuration = sortedOrder(size, TourPackageSortField.DURATION);
+            sortedDurations = valuesInOrder(byDuration, durations);
+            byName = sortedOrder(size, TourPackageSortField.NAME);
+            byAvailability = sortedOrder(size, TourPackageSortField.AVAILABILITY);
+        }
+
+        private int[] order(TourPackageSortField sortField) {
+            switch (sortField) {
+                case PRICE:
+                    return byPrice;
+                case DURATION:
+                    return byDuration;
+                case AVAILABILITY:
+                    return byAvailability;
+                default:
+                    return byName;
+            }
+        }
+
+        /**
+         * Упорядочивает номера пакетов по значению поля и ID.
+         * Номера уже упорядочены по ID, поэтому устойчивая сортировка по значению даёт нужный порядок.
+         */
+        private int[] sortedOrder(int size, TourPackageSortField sortField) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> TourPackageSortField.compareValues(
+                    sortField.extractValue(docs[a]), sortField.extractValue(docs[b])));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+
+        private static int[] valuesInOrder(int[] order, int[] values) {
+            int[] sorted = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sorted[i] = values[order[i]];
+            }
+            return sorted;
+        }
+
+        private BitSet rangeBits(int[] order, int[] sortedValues, Integer min, Integer max) {
+            int from = lowerBound(sortedValues, min != null ? Math.max(min, NULL_VALUE + 1) : NULL_VALUE + 1);
+            int to = max != null && max < Integer.MAX_VALUE ? lowerBound(sortedValues, max + 1) : sortedValues.length;
+            BitSet bits = new BitSet(ids.length);
+            for (int i = from; i < to; i++) {
+                bits.set(order[i]);
+            }
+            return bits;
+        }
+
+        private BitSet ordinalsOf(long[] tourPackageIds) {
+            BitSet bits = new BitSet(ids.length);
+            for (long id : tourPackageIds) {
+                int ordinal = Arrays.binarySearch(ids, id);
+                if (ordinal >= 0) {
+                    bits.set(ordinal);
+                }
+            }
+            return bits;
+        }
+    }
+
+    /** Первая позиция в отсортированном массиве со значением не меньше заданного */
+    private static int lowerBound(int[] sortedValues, int value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedValues[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Первая позиция в порядке, для которой условие истинно (условие монотонно вдоль порядка) */
+    private static int firstPosition(int[] order, IntPredicate condition) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (condition.test(order[mid])) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static TourPackageSummary copy(TourPackageSummary summary) {
+        return new TourPackageSummary(summary.getId(), summary.getName(), summary.getPrice(),
+                summary.getDuration(), summary.getAvailability(), summary.getImageUrl());
+    }
+}
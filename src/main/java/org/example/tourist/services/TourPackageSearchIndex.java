@@ -0,0 +1,454 @@
+package org.example.tourist.services;
+
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Инвертированный индекс по названию и описанию туристических пакетов для полнотекстового поиска.
+ * Индекс строится при запуске приложения и обновляется {@link TourPackageService} после каждого изменения каталога.
+ * Найденные пакеты ранжируются по BM25; совпадения в названии весят больше совпадений в описании.
+ * Чтение выполняется под блокировкой чтения, поэтому поиски не мешают друг другу;
+ * изменения каталога редки и выполняются под блокировкой записи.
+ */
+@Component
+public class TourPackageSearchIndex implements TourPackageChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TourPackageSearchIndex.class);
+
+    /** Параметры BM25 */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Вес вхождения терма в название относительно вхождения в описание */
+    private static final int NAME_WEIGHT = 3;
+
+    /** Размер пачки при построении индекса из базы данных */
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    private final TourPackageRepository tourPackageRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Текущее состояние индекса; заменяется целиком при перестроении */
+    private IndexData data = new IndexData();
+
+    /** true, пока индекс строится; изменения за это время накапливаются в pendingChanges */
+    private boolean building;
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    public TourPackageSearchIndex(TourPackageRepository tourPackageRepository) {
+        this.tourPackageRepository = tourPackageRepository;
+    }
+
+    /**
+     * Найденный пакет и его оценка релевантности.
+     */
+    public static final class SearchHit {
+        private final TourPackageSummary summary;
+        private final double score;
+
+        SearchHit(TourPackageSummary summary, double score) {
+            this.summary = summary;
+            this.score = score;
+        }
+
+        public TourPackageSummary getSummary() {
+            return summary;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Строит индекс по всем пакетам из базы данных после запуска приложения.
+     * Пакеты читаются пачками по возрастанию ID, чтобы не держать в памяти весь каталог с описаниями.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            building = true;
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.currentTimeMillis();
+        IndexData rebuilt = new IndexData();
+        Long afterId = 0L;
+        List<TourPackage> batch;
+        do {
+            batch = tourPackageRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(BUILD_BATCH_SIZE));
+            for (TourPackage tourPackage : batch) {
+                rebuilt.add(tourPackage);
+                afterId = tourPackage.getId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            data = rebuilt;
+            // Изменения, сделанные во время построения, применяются поверх прочитанного снимка
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+            building = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс турпакетов построен: {} пакетов, {} термов за {} мс",
+                rebuilt.liveCount, rebuilt.postings.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Проверяет, построен ли индекс.
+     *
+     * @return true, если индекс можно использовать для поиска
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Добавляет пакет в индекс или заменяет его предыдущую версию.
+     *
+     * @param tourPackage сохранённый туристический пакет
+     */
+    @Override
+    public void onTourPackageSaved(TourPackage tourPackage) {
+        apply(() -> data.add(tourPackage));
+    }
+
+    /**
+     * Удаляет пакет из индекса.
+     *
+     * @param tourPackageId ID удалённого пакета
+     */
+    @Override
+    public void onTourPackageDeleted(Long tourPackageId) {
+        apply(() -> data.remove(tourPackageId));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                pendingChanges.add(change);
+            } else {
+                change.run();
+                if (data.needsCompaction()) {
+                    data = data.compact();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет пакеты, содержащие все термы запроса, и возвращает одну страницу результатов.
+     * Результаты упорядочиваются по релевантности (по убыванию) либо по полю сортировки; при равенстве — по ID.
+     * Для курсорной пагинации возвращаются только результаты, идущие после (afterValue, afterId).
+     *
+     * @param query поисковый запрос
+     * @param sortField поле сортировки или null для сортировки по релевантности
+     * @param ascending направление сортировки по полю (для релевантности не используется)
+     * @param afterValue значение сортировки последнего результата предыдущей страницы (оценка для релевантности)
+     * @param afterId ID последнего результата предыдущей страницы (null — первая страница)
+     * @param limit максимальное количество результатов
+     * @param idFilter дополнительное условие на ID пакета (например, фильтры каталога) или null
+     * @return результаты страницы; краткие представления — новые объекты без рейтинга
+     */
+    public List<SearchHit> search(String query, TourPackageSortField sortField, boolean ascending,
+                                  Object afterValue, Long afterId, int limit, LongPredicate idFilter) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        boolean descending = sortField == null || !ascending;
+        Comparator<Candidate> order = (a, b) -> {
+            int c = TourPackageSortField.compareValues(a.sortValue, b.sortValue);
+            if (c == 0) {
+                c = Long.compare(a.id, b.id);
+            }
+            return descending ? -c : c;
+        };
+        Candidate anchor = afterId != null ? new Candidate(-1, afterId, afterValue, 0) : null;
+
+        lock.readLock().lock();
+        try {
+            int[] matches = data.match(terms);
+            // Куча из limit лучших результатов: корень — худший из отобранных
+            PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, order.reversed());
+            for (int docNo : matches) {
+                Doc doc = data.docs.get(docNo);
+                if (idFilter != null && !idFilter.test(doc.summary.getId())) {
+                    continue;
+                }
+                double score = data.score(terms, docNo);
+                Object sortValue = sortField == null ? (Object) score : sortField.extractValue(doc.summary);
+                Candidate candidate = new Candidate(docNo, doc.summary.getId(), sortValue, score);
+                if (anchor != null && order.compare(candidate, anchor) <= 0) {
+                    continue;
+                }
+                top.add(candidate);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Candidate> selected = new ArrayList<>(top);
+            selected.sort(order);
+            List<SearchHit> hits = new ArrayList<>(selected.size());
+            for (Candidate candidate : selected) {
+                hits.add(new SearchHit(copy(data.docs.get(candidate.docNo).summary), candidate.score));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Находит ID всех пакетов, содержащих все термы запроса.
+     *
+     * @param query поисковый запрос
+     * @return ID найденных пакетов в произвольном порядке
+     */
+    public long[] matchingIds(String query) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(query)));
+        if (terms.isEmpty()) {
+            return new long[0];
+        }
+        lock.readLock().lock();
+        try {
+            int[] matches = data.match(terms);
+            long[] ids = new long[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                ids[i] = data.docs.get(matches[i]).summary.getId();
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static TourPackageSummary copy(TourPackageSummary summary) {
+        return new TourPackageSummary(summary.getId(), summary.getName(), summary.getPrice(),
+                summary.getDuration(), summary.getAvailability(), summary.getImageUrl());
+    }
+
+    /** Кандидат в результаты поиска */
+    private static final class Candidate {
+        private final int docNo;
+        private final long id;
+        private final Object sortValue;
+        private final double score;
+
+        private Candidate(int docNo, long id, Object sortValue, double score) {
+            this.docNo = docNo;
+            this.id = id;
+            this.sortValue = sortValue;
+            this.score = score;
+        }
+    }
+
+    /** Проиндексированный документ */
+    private static final class Doc {
+        private final TourPackageSummary summary;
+
+        /** Взвешенная длина документа в термах */
+        private final int length;
+
+        /** Различные термы документа, чтобы при удалении уменьшить их документную частоту */
+        private final String[] terms;
+
+        private Doc(TourPackageSummary summary, int length, String[] terms) {
+            this.summary = summary;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    /** Список вхождений терма: номера документов по возрастанию и взвешенные частоты */
+    private static final class Postings {
+        private int[] docNos = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        /** Количество неудалённых документов, содержащих терм */
+        private int liveCount;
+
+        private void add(int docNo, int frequency) {
+            if (size == docNos.length) {
+                docNos = Arrays.copyOf(docNos, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docNos[size] = docNo;
+            frequencies[size] = frequency;
+            size++;
+            liveCount++;
+        }
+
+        private int frequency(int docNo) {
+            int index = Arrays.binarySearch(docNos, 0, size, docNo);
+            return index >= 0 ? frequencies[index] : 0;
+        }
+    }
+
+    /**
+     * Данные индекса. Документам присваиваются возрастающие номера, поэтому списки вхождений
+     * остаются отсортированными при добавлении. Изменённый пакет получает новый номер,
+     * а старый помечается удалённым; когда удалённых становится много, индекс уплотняется.
+     */
+    private static final class IndexData {
+        private final List<Doc> docs = new ArrayList<>();
+        private final BitSet deleted = new BitSet();
+        private final Map<Long, Integer> docNoById = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private int liveCount;
+        private long totalLength;
+
+        private void add(TourPackage tourPackage) {
+            remove(tourPackage.getId());
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : TextAnalyzer.analyze(tourPackage.getName())) {
+                frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+            }
+            for (String term : TextAnalyzer.analyze(tourPackage.getDescription())) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+            int docNo = docs.size();
+            TourPackageSummary summary = new TourPackageSummary(tourPackage.getId(), tourPackage.getName(),
+                    tourPackage.getPrice(), tourPackage.getDuration(), tourPackage.getAvailability(), tourPackage.getImageUrl());
+            docs.add(new Doc(summary, length, frequencies.keySet().toArray(new String[0])));
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new Postings()).add(docNo, frequency));
+            docNoById.put(tourPackage.getId(), docNo);
+            liveCount++;
+            totalLength += length;
+        }
+
+        private void remove(Long tourPackageId) {
+            Integer docNo = docNoById.remove(tourPackageId);
+            if (docNo == null) {
+                return;
+            }
+            Doc doc = docs.get(docNo);
+            deleted.set(docNo);
+            for (String term : doc.terms) {
+                postings.get(term).liveCount--;
+            }
+            liveCount--;
+            totalLength -= doc.length;
+        }
+
+        private boolean needsCompaction() {
+            int deletedCount = docs.size() - liveCount;
+            return deletedCount > 1000 && deletedCount > liveCount;
+        }
+
+        /**
+         * Строит новый индекс только из неудалённых документов.
+         */
+        private IndexData compact() {
+            IndexData compacted = new IndexData();
+            Map<Integer, Map<String, Integer>> frequenciesByDoc = new HashMap<>();
+            postings.forEach((term, list) -> {
+                for (int i = 0; i < list.size; i++) {
+                    if (!deleted.get(list.docNos[i])) {
+                        frequenciesByDoc.computeIfAbsent(list.docNos[i], d -> new HashMap<>()).put(term, list.frequencies[i]);
+                    }
+                }
+            });
+            for (int docNo = 0; docNo < docs.size(); docNo++) {
+                if (deleted.get(docNo)) {
+                    continue;
+                }
+                Doc doc = docs.get(docNo);
+                int newDocNo = compacted.docs.size();
+                compacted.docs.add(doc);
+                frequenciesByDoc.getOrDefault(docNo, Map.of()).forEach((term, frequency) ->
+                        compacted.postings.computeIfAbsent(term, t -> new Postings()).add(newDocNo, frequency));
+                compacted.docNoById.put(doc.summary.getId(), newDocNo);
+                compacted.liveCount++;
+                compacted.totalLength += doc.length;
+            }
+            return compacted;
+        }
+
+        /**
+         * Находит неудалённые документы, содержащие все (различные) термы,
+         * пересечением отсортированных списков вхождений.
+         */
+        private int[] match(List<String> terms) {
+            List<Postings> lists = new ArrayList<>();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null || list.liveCount == 0) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            // Начинаем с самого короткого списка, чтобы пересечение было дешевле
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            Postings shortest = lists.get(0);
+            int[] result = new int[shortest.size];
+            int count = 0;
+            for (int i = 0; i < shortest.size; i++) {
+                int docNo = shortest.docNos[i];
+                if (deleted.get(docNo)) {
+                    continue;
+                }
+                boolean inAll = true;
+                for (int l = 1; l < lists.size() && inAll; l++) {
+                    inAll = lists.get(l).frequency(docNo) > 0;
+                }
+                if (inAll) {
+                    result[count++] = docNo;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        /**
+         * Считает оценку BM25 документа по термам запроса.
+         */
+        private double score(List<String> terms, int docNo) {
+            double averageLength = liveCount > 0 ? (double) totalLength / liveCount : 1;
+            int length = docs.get(docNo).length;
+            double score = 0;
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                int frequency = list.frequency(docNo);
+                double idf = Math.log(1 + (liveCount - list.liveCount + 0.5) / (list.liveCount + 0.5));
+                score += idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+            }
+            return score;
+        }
+    }
+}
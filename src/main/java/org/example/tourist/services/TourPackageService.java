@@ -1,37 +1,115 @@
 package org.example.tourist.services;
 
 import jakarta.persistence.EntityNotFoundException;
-import org.springframework.data.domain.Sort;
+import org.example.tourist.BoundedCache;
+import org.example.tourist.CatalogPage;
+import org.example.tourist.CatalogQuery;
+import org.example.tourist.CursorPage;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSuggestion;
+import org.example.tourist.TourPackageSummary;
 import jakarta.transaction.Transactional;
 import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.TourPackageRating;
+import org.example.tourist.repositories.ArchivedBookingRepository;
 import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.TourPackageRatingRepository;
 import org.example.tourist.repositories.TourPackageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервис для работы с туристическими пакетами.
  * Предоставляет функциональность для получения, добавления, обновления и удаления турпакетов,
  * а также для поиска и фильтрации туров.
+ * Пакеты по ID и страницы каталога кэшируются в памяти; кэши сбрасываются методами изменения каталога
+ * после фиксации транзакции.
  */
 @Service
 public class TourPackageService {
 
+    /** Размер страницы каталога по умолчанию */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Максимальный размер страницы каталога */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** Значение параметра сортировки, означающее сортировку по релевантности поисковому запросу */
+    public static final String RELEVANCE_SORT = "relevance";
+
+    /** Обозначение сортировки по релевантности в курсоре страницы */
+    private static final String RELEVANCE_CURSOR_KEY = "RELEVANCE";
+
     private final TourPackageRepository tourPackageRepository;
     private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final TourPackageRatingRepository ratingRepository;
+    private final TourPackageSearchIndex searchIndex;
+    private final TourPackageSuggestIndex suggestIndex;
+    private final TourPackageFacetIndex facetIndex;
+    private final SeatInventoryService seatInventoryService;
+    private final List<TourPackageChangeListener> changeListeners;
+
+    /** Кэш туристических пакетов по ID */
+    private final BoundedCache<Long, TourPackage> packageCache;
+
+    /** Кэш страниц каталога по параметрам запроса */
+    private final BoundedCache<List<Object>, CatalogPage> pageCache;
 
     /**
-     * Конструктор для инициализации сервисов и репозиториев.
+     * Конструктор для инициализации сервисов, репозиториев и кэшей каталога.
      *
      * @param tourPackageRepository репозиторий для работы с сущностями TourPackage
      * @param bookingRepository репозиторий для работы с сущностями Booking
+     * @param archivedBookingRepository репозиторий архивных бронирований
+     * @param ratingRepository репозиторий агрегированных рейтингов туристических пакетов
+     * @param searchIndex полнотекстовый индекс каталога
+     * @param suggestIndex индекс автодополнения по названиям
+     * @param facetIndex индекс фильтров и фасетов каталога
+     * @param seatInventoryService сервис учёта мест в турах с ограниченной вместимостью
+     * @param changeListeners получатели уведомлений об изменениях каталога
+     * @param maxCachedPackages максимальное количество пакетов в кэше по ID
+     * @param packageTtlSeconds время жизни пакета в кэше (в секундах)
+     * @param maxCachedPages максимальное количество страниц каталога в кэше
+     * @param pageTtlSeconds время жизни страницы каталога в кэше (в секундах); ограничивает устаревание рейтинга
      */
     @Autowired
-    public TourPackageService(TourPackageRepository tourPackageRepository, BookingRepository bookingRepository) {
+    public TourPackageService(TourPackageRepository tourPackageRepository, BookingRepository bookingRepository,
+                              ArchivedBookingRepository archivedBookingRepository,
+                              TourPackageRatingRepository ratingRepository, TourPackageSearchIndex searchIndex,
+                              TourPackageSuggestIndex suggestIndex, TourPackageFacetIndex facetIndex,
+                              SeatInventoryService seatInventoryService,
+                              List<TourPackageChangeListener> changeListeners,
+                              @Value("${tourist.catalog.cache.max-packages:1000}") int maxCachedPackages,
+                              @Value("${tourist.catalog.cache.package-ttl-seconds:300}") long packageTtlSeconds,
+                              @Value("${tourist.catalog.cache.max-pages:500}") int maxCachedPages,
+                              @Value("${tourist.catalog.cache.page-ttl-seconds:60}") long pageTtlSeconds) {
         this.tourPackageRepository = tourPackageRepository;
         this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.ratingRepository = ratingRepository;
+        this.searchIndex = searchIndex;
+        this.suggestIndex = suggestIndex;
+        this.facetIndex = facetIndex;
+        this.seatInventoryService = seatInventoryService;
+        this.changeListeners = changeListeners;
+        this.packageCache = new BoundedCache<>(maxCachedPackages, TimeUnit.SECONDS.toMillis(packageTtlSeconds));
+        this.pageCache = new BoundedCache<>(maxCachedPages, TimeUnit.SECONDS.toMillis(pageTtlSeconds));
     }
 
     /**
@@ -45,46 +123,104 @@ public class TourPackageService {
 
     /**
      * Получить туристический пакет по его ID.
+     * Пакет берётся из кэша; возвращаемый объект общий для всех запросов и не должен изменяться.
      *
      * @param id ID пакета
      * @return объект {@link TourPackage}, соответствующий данному ID
      * @throws RuntimeException если туристический пакет с данным ID не найден
      */
     public TourPackage getTourPackageById(Long id) {
-        return tourPackageRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Туристический пакет не найден"));
+        TourPackage tourPackage = packageCache.get(id, key -> tourPackageRepository.findById(key).orElse(null));
+        if (tourPackage == null) {
+            throw new RuntimeException("Туристический пакет не найден");
+        }
+        return tourPackage;
+    }
+
+    /**
+     * Получить краткие представления туристических пакетов по списку ID одним запросом.
+     * Рейтинг в результатах не заполняется.
+     *
+     * @param ids идентификаторы пакетов
+     * @return карта, где ключ — ID пакета, а значение — найденный пакет; отсутствующие ID пропускаются
+     */
+    public Map<Long, TourPackageSummary> getTourPackageSummariesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return tourPackageRepository.findSummariesByIds(ids).stream()
+                .collect(Collectors.toMap(TourPackageSummary::getId, Function.identity()));
     }
 
     /**
      * Добавить новый туристический пакет.
-     * Сохраняет новый туристический пакет в базе данных.
+     * Сохраняет новый туристический пакет в базе данных; все места тура с ограниченной вместимостью свободны.
      *
      * @param tourPackage объект {@link TourPackage}, представляющий новый туристический пакет
      * @return сохраненный объект {@link TourPackage}
+     * @throws IllegalArgumentException если количество мест отрицательно
      */
     public TourPackage addTourPackage(TourPackage tourPackage) {
-        return tourPackageRepository.save(tourPackage);
+        validateCapacity(tourPackage.getCapacity());
+        tourPackage.setSeatsLeft(tourPackage.getCapacity());
+        TourPackage saved = tourPackageRepository.save(tourPackage);
+        afterCommit(() -> {
+            changeListeners.forEach(listener -> listener.onTourPackageSaved(saved));
+            invalidateCaches(null);
+        });
+        return saved;
     }
 
     /**
      * Обновить данные туристического пакета.
      * Обновляет существующий туристический пакет в базе данных.
+     * При изменении количества мест свободные места тура пересчитываются.
      *
      * @param id ID пакета, который нужно обновить
      * @param updatedTourPackage объект {@link TourPackage} с обновленными данными
      * @return обновленный объект {@link TourPackage}
      * @throws RuntimeException если туристический пакет с данным ID не найден
+     * @throws IllegalArgumentException если количество мест отрицательно
      */
     public TourPackage updateTourPackage(Long id, TourPackage updatedTourPackage) {
-        TourPackage tourPackage = getTourPackageById(id);
+        validateCapacity(updatedTourPackage.getCapacity());
+        // Изменяется управляемая копия из базы, а не общий объект из кэша
+        TourPackage tourPackage = tourPackageRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Туристический пакет не найден"));
         tourPackage.setName(updatedTourPackage.getName());
         tourPackage.setDescription(updatedTourPackage.getDescription());
         tourPackage.setImageUrl(updatedTourPackage.getImageUrl());
         tourPackage.setPrice(updatedTourPackage.getPrice());
         tourPackage.setAvailability(updatedTourPackage.getAvailability());
         tourPackage.setDuration(updatedTourPackage.getDuration());
+        Integer oldCapacity = tourPackage.getCapacity();
+        tourPackage.setCapacity(updatedTourPackage.getCapacity());
 
-        return tourPackageRepository.save(tourPackage);
+        TourPackage saved = tourPackageRepository.save(tourPackage);
+        if (!Objects.equals(oldCapacity, saved.getCapacity())) {
+            seatInventoryService.onCapacityChanged(id, oldCapacity, saved.getCapacity());
+        }
+        afterCommit(() -> {
+            changeListeners.forEach(listener -> listener.onTourPackageSaved(saved));
+            invalidateCaches(id);
+        });
+        return saved;
+    }
+
+    /**
+     * Получить количество свободных мест в туре.
+     *
+     * @param id ID пакета
+     * @return количество свободных мест или null, если количество мест не ограничено
+     */
+    public Integer getSeatsLeft(Long id) {
+        return seatInventoryService.getSeatsLeft(id);
+    }
+
+    private static void validateCapacity(Integer capacity) {
+        if (capacity != null && capacity < 0) {
+            throw new IllegalArgumentException("Количество мест не может быть отрицательным");
+        }
     }
 
     /**
@@ -98,34 +234,219 @@ public class TourPackageService {
     }
 
     /**
-     * Поиск туристических пакетов по названию с возможностью сортировки.
+     * Получить страницу каталога туристических пакетов, отсортированного по названию.
      *
-     * @param name название пакета для поиска
-     * @param sort поле для сортировки (например, "price", "name")
-     * @param direction направление сортировки ("asc" или "desc")
-     * @return список туристических пакетов, которые содержат указанное имя
+     * @param cursor курсор следующей страницы (null — первая страница)
+     * @param size размер страницы
+     * @return страница кратких представлений туристических пакетов
      */
-    public List<TourPackage> searchTourPackages(String name, String sort, String direction) {
-        Sort sorting = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
+    public CursorPage<TourPackageSummary> getTourPackagesPage(String cursor, int size) {
+        CatalogQuery catalogQuery = new CatalogQuery();
+        catalogQuery.setSort(TourPackageSortField.NAME.getProperty());
+        catalogQuery.setCursor(cursor);
+        catalogQuery.setSize(size);
+        return findCatalogPage(catalogQuery, false);
+    }
+
+    /**
+     * Поиск туристических пакетов по названию и описанию с фильтрами по цене, длительности и доступности,
+     * сортировкой, курсорной пагинацией и счётчиками фасетов.
+     * Текстовый запрос обслуживается полнотекстовым индексом {@link TourPackageSearchIndex},
+     * фильтры и фасеты — индексом {@link TourPackageFacetIndex}; оба работают в памяти без обращения к базе данных.
+     * Пока индексы не построены, страница выбирается из базы данных по индексу (поле сортировки, ID)
+     * с поиском по подстроке в названии, а счётчики фасетов не заполняются.
+     * Курсор кодирует значение сортировки (или оценку релевантности) и ID последней записи страницы,
+     * поэтому следующая страница не требует пропуска предыдущих записей.
+     * Страница содержит краткие представления пакетов с рейтингом, посчитанным одним запросом для всей страницы.
+     * Страницы кэшируются по параметрам запроса.
+     *
+     * @param catalogQuery поисковый запрос, фильтры, сортировка ("relevance" — по релевантности запросу),
+     *                     направление сортировки, курсор и размер страницы (ограничивается {@link #MAX_PAGE_SIZE})
+     * @return страница туристических пакетов, соответствующих запросу, со счётчиками фасетов
+     * @throws IllegalArgumentException если поле сортировки не поддерживается или курсор некорректен
+     */
+    public CatalogPage searchTourPackages(CatalogQuery catalogQuery) {
+        return findCatalogPage(catalogQuery, true);
+    }
+
+    private CatalogPage findCatalogPage(CatalogQuery catalogQuery, boolean withFacets) {
+        String name = catalogQuery.getName();
+        String query = name != null && !name.isBlank() ? name : null;
+        boolean fullText = query != null && searchIndex.isReady() && !TextAnalyzer.analyze(query).isEmpty();
+        // Индекс фасетов не выполняет поиск по подстроке, поэтому запрос без значимых слов обслуживает база данных
+        boolean inMemory = facetIndex.isReady() && (query == null || fullText);
+        // Без индекса фасетов текстовый индекс не умеет применять фильтры — тогда поиск идёт по подстроке в базе данных
+        boolean useTextIndex = fullText && (inMemory || !catalogQuery.hasFilters());
+        boolean byRelevance = RELEVANCE_SORT.equalsIgnoreCase(catalogQuery.getSort());
+        // Без полнотекстового запроса сортировать по релевантности нечего — используется сортировка по названию
+        TourPackageSortField sortField = byRelevance
+                ? (useTextIndex ? null : TourPackageSortField.NAME)
+                : TourPackageSortField.fromProperty(catalogQuery.getSort());
+        boolean ascending = byRelevance ? !useTextIndex : "asc".equalsIgnoreCase(catalogQuery.getDirection());
+        int limit = Math.max(1, Math.min(catalogQuery.getSize(), MAX_PAGE_SIZE));
+        String cursor = catalogQuery.getCursor() != null && !catalogQuery.getCursor().isEmpty()
+                ? catalogQuery.getCursor() : null;
+        // Пока текстовый индекс строится или перестраивается, сортировка по релевантности заменяется сортировкой
+        // по названию, и курсор, выданный другим способом выборки, продолжить нельзя — начинаем с первой страницы
+        String pageCursor = byRelevance && cursor != null && !cursorMatches(cursor, sortField, ascending)
+                ? null : cursor;
+        return pageCache.get(Arrays.asList(query, catalogQuery.getMinPrice(), catalogQuery.getMaxPrice(),
+                        catalogQuery.getMinDuration(), catalogQuery.getMaxDuration(), catalogQuery.getAvailability(),
+                        inMemory, useTextIndex, sortField, ascending, pageCursor, limit, withFacets),
+                key -> loadPage(catalogQuery, query, inMemory, useTextIndex, sortField, ascending, pageCursor,
+                        limit, withFacets));
+    }
 
-        if (name != null && !name.isEmpty()) {
-            return tourPackageRepository.findByNameContainingIgnoreCase(name, sorting);
+    /**
+     * Загружает страницу каталога из индексов в памяти или базы данных в обход кэша.
+     * Поле сортировки null означает сортировку по релевантности.
+     */
+    private CatalogPage loadPage(CatalogQuery filter, String query, boolean inMemory, boolean useTextIndex,
+                                 TourPackageSortField sortField, boolean ascending, String cursor, int limit,
+                                 boolean withFacets) {
+        String sortKey = cursorSortKey(sortField);
+        Object afterValue = null;
+        Long afterId = null;
+        if (cursor != null) {
+            String[] parts = CursorPage.decodeCursor(cursor, 4);
+            if (!sortKey.equals(parts[0]) || !String.valueOf(ascending).equals(parts[1]) || parts[3] == null) {
+                throw new IllegalArgumentException("Курсор не соответствует параметрам сортировки");
+            }
+            try {
+                afterValue = sortField != null ? sortField.parseValue(parts[2]) : Double.valueOf(parts[2]);
+                afterId = Long.valueOf(parts[3]);
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы", e);
+            }
+        }
+
+        // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        List<TourPackageSummary> rows;
+        Object lastValue = null;
+        TourPackageFacetIndex.Selection selection = inMemory
+                ? facetIndex.select(filter.getMinPrice(), filter.getMaxPrice(), filter.getMinDuration(),
+                        filter.getMaxDuration(), filter.getAvailability(),
+                        useTextIndex && sortField != null ? searchIndex.matchingIds(query) : null)
+                : null;
+        if (useTextIndex && sortField == null) {
+            List<TourPackageSearchIndex.SearchHit> hits = searchIndex.search(query, null, false, afterValue, afterId,
+                    limit + 1, selection != null ? selection::contains : null);
+            rows = hits.stream().map(TourPackageSearchIndex.SearchHit::getSummary).collect(Collectors.toList());
+            if (hits.size() > limit) {
+                lastValue = hits.get(limit - 1).getScore();
+            }
+        } else if (selection != null) {
+            rows = selection.page(sortField, ascending, afterValue, afterId, limit + 1);
+        } else if (useTextIndex) {
+            rows = searchIndex.search(query, sortField, ascending, afterValue, afterId, limit + 1, null).stream()
+                    .map(TourPackageSearchIndex.SearchHit::getSummary)
+                    .collect(Collectors.toList());
         } else {
-            return tourPackageRepository.findAll(sorting);
+            rows = tourPackageRepository.findPage(filter, sortField, ascending, afterValue, afterId, limit + 1);
+        }
+
+        List<TourPackageSummary> items = rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        fillRatings(items);
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            TourPackageSummary last = items.get(limit - 1);
+            if (sortField != null) {
+                lastValue = sortField.extractValue(last);
+            }
+            nextCursor = CursorPage.encodeCursor(sortKey, ascending, lastValue, last.getId());
+        }
+        if (!withFacets || selection == null) {
+            return new CatalogPage(items, nextCursor, List.of(), List.of(), 0, 0);
+        }
+        // Для счётчиков фасетов нужен текстовый фильтр и при сортировке по релевантности
+        TourPackageFacetIndex.Selection facets = useTextIndex && sortField == null
+                ? facetIndex.select(filter.getMinPrice(), filter.getMaxPrice(), filter.getMinDuration(),
+                        filter.getMaxDuration(), filter.getAvailability(), searchIndex.matchingIds(query))
+                : selection;
+        return new CatalogPage(items, nextCursor, facets.priceFacets(), facets.durationFacets(),
+                facets.availableCount(), facets.unavailableCount());
+    }
+
+    /**
+     * Проверяет, выдан ли курсор для той же сортировки и того же направления.
+     *
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    private static boolean cursorMatches(String cursor, TourPackageSortField sortField, boolean ascending) {
+        String[] parts = CursorPage.decodeCursor(cursor, 4);
+        return cursorSortKey(sortField).equals(parts[0]) && String.valueOf(ascending).equals(parts[1]);
+    }
+
+    private static String cursorSortKey(TourPackageSortField sortField) {
+        return sortField != null ? sortField.name() : RELEVANCE_CURSOR_KEY;
+    }
+
+    /**
+     * Получить варианты автодополнения поискового запроса по названиям пакетов.
+     * Варианты берутся из индекса в памяти без обращения к базе данных и упорядочены по популярности.
+     *
+     * @param prefix введённое начало названия или одного из его слов
+     * @param limit максимальное количество вариантов
+     * @return варианты автодополнения
+     */
+    public List<TourPackageSuggestion> suggestTourPackages(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
+    /**
+     * Заполняет рейтинг кратких представлений одним запросом к таблице агрегированных рейтингов.
+     *
+     * @param summaries краткие представления туристических пакетов
+     */
+    private void fillRatings(List<TourPackageSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        Map<Long, TourPackageSummary> byId = summaries.stream()
+                .collect(Collectors.toMap(TourPackageSummary::getId, Function.identity()));
+        for (TourPackageRating rating : ratingRepository.findAllById(byId.keySet())) {
+            byId.get(rating.getTourPackageId()).setRating(rating.getAverageRating(), rating.getReviewCount());
         }
     }
 
 
     /**
      * Проверить, можно ли удалить туристический пакет.
-     * Пакет можно удалить, если для него нет активных бронирований.
+     * Пакет можно удалить, если для него нет бронирований, в том числе архивных.
      *
      * @param id ID туристического пакета
      * @return true, если пакет можно удалить, иначе false
      */
     @Transactional
     public boolean canDeleteTourPackage(Long id) {
-        return bookingRepository.countBookingsByTourPackageId(id) == 0;
+        return bookingRepository.countBookingsByTourPackageId(id) == 0
+                && archivedBookingRepository.countBookingsByTourPackageId(id) == 0;
+    }
+
+    /**
+     * Проверить сразу для нескольких туристических пакетов, можно ли их удалить.
+     * Количество бронирований считается одним сгруппированным запросом для всех пакетов
+     * по рабочей таблице и одним — по архиву.
+     *
+     * @param ids идентификаторы туристических пакетов
+     * @return карта, где ключ — ID пакета, а значение — true, если у пакета нет бронирований
+     */
+    @Transactional
+    public Map<Long, Boolean> getDeletabilityMap(Collection<Long> ids) {
+        Map<Long, Boolean> canDeleteMap = new HashMap<>();
+        if (ids.isEmpty()) {
+            return canDeleteMap;
+        }
+        ids.forEach(id -> canDeleteMap.put(id, true));
+        for (Object[] row : bookingRepository.countBookingsByTourPackageIds(ids)) {
+            canDeleteMap.put((Long) row[0], (Long) row[1] == 0);
+        }
+        for (Object[] row : archivedBookingRepository.countBookingsByTourPackageIds(ids)) {
+            if ((Long) row[1] > 0) {
+                canDeleteMap.put((Long) row[0], false);
+            }
+        }
+        return canDeleteMap;
     }
 
     /**
@@ -140,8 +461,57 @@ public class TourPackageService {
         if (canDeleteTourPackage(tourPackageId)) {
             // Удаляем туристический пакет
             tourPackageRepository.deleteById(tourPackageId);
+            ratingRepository.deleteById(tourPackageId);
+            afterCommit(() -> {
+                changeListeners.forEach(listener -> listener.onTourPackageDeleted(tourPackageId));
+                invalidateCaches(tourPackageId);
+            });
         } else {
             throw new IllegalStateException("Невозможно удалить турпакет, так как для него есть активные бронирования.");
         }
     }
+
+    /**
+     * Получить статистику кэшей каталога.
+     *
+     * @return карта, где ключ — название кэша, а значение — снимок его счётчиков
+     */
+    public Map<String, BoundedCache.Stats> getCacheStats() {
+        Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("tourPackages", packageCache.getStats());
+        stats.put("catalogPages", pageCache.getStats());
+        return stats;
+    }
+
+    /**
+     * Сбрасывает кэшированный пакет и все страницы каталога.
+     *
+     * @param tourPackageId ID изменённого пакета или null, если изменился только состав каталога
+     */
+    private void invalidateCaches(Long tourPackageId) {
+        if (tourPackageId != null) {
+            packageCache.invalidate(tourPackageId);
+        }
+        pageCache.invalidateAll();
+    }
+
+    /**
+     * Выполняет действие после фиксации текущей транзакции или сразу, если транзакции нет.
+     * Кэши и индексы каталога обновляются только после фиксации: иначе параллельный запрос
+     * успел бы снова закэшировать ещё не изменённые данные, а откат оставил бы в индексе несуществующие изменения.
+     *
+     * @param action действие
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 }
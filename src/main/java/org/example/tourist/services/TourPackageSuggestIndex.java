@@ -0,0 +1,462 @@
+package org.example.tourist.services;
+
+import org.example.tourist.TourPackageSuggestion;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс автодополнения по названиям туристических пакетов.
+ * Названия хранятся в сжатом префиксном дереве (radix trie): в дерево добавляется название целиком
+ * и каждый его суффикс, начинающийся с нового слова, поэтому запрос «пар» находит и «Париж», и «Выходные в Париже».
+ * Каждый узел хранит заранее отобранные лучшие варианты своего поддерева, упорядоченные по популярности
+ * (количеству текущих и архивных бронирований), поэтому ответ на запрос требует только спуска по префиксу и не обращается к базе данных.
+ * Дерево обновляется при создании, переименовании и удалении пакетов; популярность периодически пересчитывается
+ * полным перестроением.
+ */
+@Component
+public class TourPackageSuggestIndex implements TourPackageChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TourPackageSuggestIndex.class);
+
+    /** Максимальная длина ключа в дереве; для подсказки достаточно начала названия */
+    private static final int MAX_KEY_LENGTH = 48;
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator
+            .comparingLong((Entry entry) -> entry.popularity).reversed()
+            .thenComparing(entry -> entry.name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(entry -> entry.id);
+
+    private final TourPackageRepository tourPackageRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Trie trie;
+
+    /** Текущие варианты по ID пакета; нужны, чтобы удалить старые ключи при переименовании */
+    private Map<Long, Entry> entries = new HashMap<>();
+
+    /** true, пока дерево перестраивается; изменения за это время накапливаются в pendingChanges */
+    private boolean building;
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+
+    /**
+     * Конструктор для инициализации индекса.
+     *
+     * @param tourPackageRepository репозиторий для чтения названий пакетов
+     * @param bookingRepository репозиторий для подсчёта популярности пакетов
+     * @param archivedBookingRepository репозиторий архивных бронирований, которые также учитываются в популярности
+     * @param maxResults количество лучших вариантов, хранимых в каждом узле (максимальный размер ответа)
+     */
+    public TourPackageSuggestIndex(TourPackageRepository tourPackageRepository, BookingRepository bookingRepository,
+                                   ArchivedBookingRepository archivedBookingRepository,
+                                   @Value("${tourist.catalog.suggest.max-results:10}") int maxResults) {
+        this.tourPackageRepository = tourPackageRepository;
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.maxResults = maxResults;
+        this.trie = new Trie(maxResults);
+    }
+
+    /**
+     * Строит дерево по всем пакетам и их количеству бронирований.
+     * Выполняется после запуска приложения и периодически, чтобы учесть изменившуюся популярность.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${tourist.catalog.suggest.refresh-interval-ms:900000}",
+            fixedDelayString = "${tourist.catalog.suggest.refresh-interval-ms:900000}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            building = true;
+            pendingChanges.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.currentTimeMillis();
+        Map<Long, Long> popularity = new HashMap<>();
+        for (Object[] row : bookingRepository.countBookingsPerTourPackage()) {
+            popularity.put((Long) row[0], (Long) row[1]);
+        }
+        // Старые бронирования перенесены в архив, но по-прежнему говорят о популярности пакета
+        for (Object[] row : archivedBookingRepository.countBookingsPerTourPackage()) {
+            popularity.merge((Long) row[0], (Long) row[1], Long::sum);
+        }
+        Trie rebuilt = new Trie(maxResults);
+        Map<Long, Entry> rebuiltEntries = new HashMap<>();
+        for (Object[] row : tourPackageRepository.findAllIdsAndNames()) {
+            Long id = (Long) row[0];
+            String name = (String) row[1];
+            if (name != null) {
+                Entry entry = new Entry(id, name, popularity.getOrDefault(id, 0L));
+                rebuiltEntries.put(id, entry);
+                for (String key : keys(name)) {
+                    rebuilt.insert(key, entry);
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            trie = rebuilt;
+            entries = rebuiltEntries;
+            // Изменения, сделанные во время построения, применяются поверх прочитанного снимка
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges.clear();
+            building = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс автодополнения построен: {} пакетов за {} мс",
+                rebuiltEntries.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Добавляет пакет в дерево или обновляет его название.
+     *
+     * @param tourPackage сохранённый туристический пакет
+     */
+    @Override
+    public void onTourPackageSaved(TourPackage tourPackage) {
+        apply(() -> {
+            Entry old = entries.get(tourPackage.getId());
+            if (old != null && old.name.equals(tourPackage.getName())) {
+                return;
+            }
+            removeEntry(tourPackage.getId());
+            if (tourPackage.getName() != null) {
+                Entry entry = new Entry(tourPackage.getId(), tourPackage.getName(), old != null ? old.popularity : 0);
+                entries.put(entry.id, entry);
+                for (String key : keys(entry.name)) {
+                    trie.insert(key, entry);
+                }
+            }
+        });
+    }
+
+    /**
+     * Удаляет пакет из дерева.
+     *
+     * @param tourPackageId ID удалённого пакета
+     */
+    @Override
+    public void onTourPackageDeleted(Long tourPackageId) {
+        apply(() -> removeEntry(tourPackageId));
+    }
+
+    /**
+     * Находит самые популярные пакеты, название которых (или одно из слов названия) начинается с префикса.
+     *
+     * @param prefix введённый пользователем префикс
+     * @param limit максимальное количество вариантов (не больше размера, хранимого в узлах)
+     * @return варианты автодополнения по убыванию популярности
+     */
+    public List<TourPackageSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix, false);
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Entry[] top = trie.complete(normalizedPrefix);
+            int count = Math.min(limit, top.length);
+            List<TourPackageSuggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                suggestions.add(new TourPackageSuggestion(top[i].id, top[i].name));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (building) {
+                pendingChanges.add(change);
+            } else {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeEntry(Long tourPackageId) {
+        Entry old = entries.remove(tourPackageId);
+        if (old != null) {
+            for (String key : keys(old.name)) {
+                trie.remove(key, old.id);
+            }
+        }
+    }
+
+    /**
+     * Строит ключи дерева для названия: всё название и суффиксы, начинающиеся с каждого следующего слова.
+     */
+    private static Set<String> keys(String name) {
+        String normalized = normalize(name, true);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)));
+            if (wordStart || i == 0) {
+                keys.add(normalized.substring(i, Math.min(normalized.length(), i + MAX_KEY_LENGTH)));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Приводит текст к нижнему регистру, заменяет «ё» на «е» и схлопывает пробелы.
+     * Завершающий пробел префикса сохраняется: он означает, что пользователь начал следующее слово.
+     */
+    private static String normalize(String text, boolean trimEnd) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е').replaceAll("\\s+", " ").stripLeading();
+        return trimEnd ? normalized.stripTrailing() : normalized;
+    }
+
+    /** Вариант автодополнения с популярностью */
+    private static final class Entry {
+        private final long id;
+        private final String name;
+        private final long popularity;
+
+        private Entry(long id, String name, long popularity) {
+            this.id = id;
+            this.name = name;
+            this.popularity = popularity;
+        }
+    }
+
+    /** Узел сжатого префиксного дерева */
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final Entry[] NO_ENTRIES = new Entry[0];
+
+        /** Метка ребра, ведущего в узел */
+        private String label;
+
+        /** Дочерние узлы, упорядоченные по первому символу метки */
+        private Node[] children = NO_CHILDREN;
+
+        /** Варианты, ключ которых заканчивается в этом узле */
+        private Entry[] terminals = NO_ENTRIES;
+
+        /** Лучшие варианты поддерева */
+        private Entry[] top = NO_ENTRIES;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void putChild(Node child) {
+            int index = childIndex(child.label.charAt(0));
+            if (index >= 0) {
+                children[index] = child;
+                return;
+            }
+            int insertAt = -(index + 1);
+            Node[] updated = new Node[children.length + 1];
+            System.arraycopy(children, 0, updated, 0, insertAt);
+            updated[insertAt] = child;
+            System.arraycopy(children, insertAt, updated, insertAt + 1, children.length - insertAt);
+            children = updated;
+        }
+
+        private void removeChild(Node child) {
+            int index = childIndex(child.label.charAt(0));
+            Node[] updated = new Node[children.length - 1];
+            System.arraycopy(children, 0, updated, 0, index);
+            System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+            children = updated;
+        }
+    }
+
+    /** Сжатое префиксное дерево с лучшими вариантами в каждом узле */
+    private static final class Trie {
+        private final Node root = new Node("");
+        private final int topSize;
+
+        private Trie(int topSize) {
+            this.topSize = topSize;
+        }
+
+        private void insert(String key, Entry entry) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.childIndex(key.charAt(i));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(i));
+                    node.putChild(leaf);
+                    node = leaf;
+                    path.add(node);
+                    i = key.length();
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, i);
+                if (common < child.label.length()) {
+                    // Ключ расходится с меткой ребра посередине — ребро разделяется промежуточным узлом
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.putChild(child);
+                    middle.top = child.top;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                path.add(node);
+                i += common;
+            }
+            node.terminals = append(node.terminals, entry);
+            for (int p = path.size() - 1; p >= 0; p--) {
+                recompute(path.get(p));
+            }
+        }
+
+        private void remove(String key, long id) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int i = 0;
+            while (i < key.length()) {
+                int index = node.childIndex(key.charAt(i));
+                if (index < 0) {
+                    return;
+                }
+                Node child = node.children[index];
+                if (!key.startsWith(child.label, i)) {
+                    return;
+                }
+                node = child;
+                path.add(node);
+                i += child.label.length();
+            }
+            node.terminals = Arrays.stream(node.terminals).filter(entry -> entry.id != id).toArray(Entry[]::new);
+            for (int p = path.size() - 1; p >= 0; p--) {
+                Node current = path.get(p);
+                if (p > 0) {
+                    Node parent = path.get(p - 1);
+                    if (current.terminals.length == 0 && current.children.length == 0) {
+                        parent.removeChild(current);
+                        continue;
+                    }
+                    if (current.terminals.length == 0 && current.children.length == 1) {
+                        // Узел без вариантов с единственным потомком сливается с ним, сохраняя дерево сжатым
+                        Node only = current.children[0];
+                        only.label = current.label + only.label;
+                        parent.putChild(only);
+                        continue;
+                    }
+                }
+                recompute(current);
+            }
+        }
+
+        private Entry[] complete(String prefix) {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                int index = node.childIndex(prefix.charAt(i));
+                if (index < 0) {
+                    return Node.NO_ENTRIES;
+                }
+                Node child = node.children[index];
+                int length = Math.min(child.label.length(), prefix.length() - i);
+                if (!child.label.regionMatches(0, prefix, i, length)) {
+                    return Node.NO_ENTRIES;
+                }
+                node = child;
+                i += length;
+            }
+            return node.top;
+        }
+
+        /**
+         * Пересчитывает лучшие варианты узла из его собственных вариантов и лучших вариантов потомков.
+         * Один пакет может встречаться в нескольких потомках (по разным словам названия) и учитывается один раз.
+         */
+        private void recompute(Node node) {
+            List<Entry> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(BY_POPULARITY);
+            List<Entry> top = new ArrayList<>(Math.min(topSize, candidates.size()));
+            Set<Long> seen = new HashSet<>();
+            for (Entry candidate : candidates) {
+                if (top.size() == topSize) {
+                    break;
+                }
+                if (seen.add(candidate.id)) {
+                    top.add(candidate);
+                }
+            }
+            node.top = top.toArray(Node.NO_ENTRIES);
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int max = Math.min(label.length(), key.length() - offset);
+            int i = 0;
+            while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        private static Entry[] append(Entry[] entries, Entry entry) {
+            Entry[] updated = Arrays.copyOf(entries, entries.length + 1);
+            updated[entries.length] = entry;
+            return updated;
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package org.example.tourist.services;
 
+import org.example.tourist.BookingStatus;
+import org.example.tourist.BoundedPasswordEncoder;
 import org.example.tourist.models.Role;
 import org.example.tourist.models.User;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
 import org.example.tourist.repositories.RoleRepository;
 import org.example.tourist.repositories.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Сервис для работы с пользователями.
@@ -22,39 +30,101 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingRepository bookingRepository;
+    private final SeatInventoryService seatInventoryService;
+    private final CustomUserDetailsService userDetailsService;
+    private final ReviewService reviewService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor taskExecutor;
 
     /**
-     * Конструктор для инициализации сервисов {@link UserRepository}, {@link RoleRepository} и {@link PasswordEncoder}.
+     * Конструктор для инициализации сервисов {@link UserRepository}, {@link RoleRepository} и {@link BoundedPasswordEncoder}.
      *
      * @param userRepository репозиторий пользователей
      * @param roleRepository репозиторий ролей
      * @param passwordEncoder компонент для кодирования паролей
+     * @param archivedBookingRepository репозиторий архивных бронирований
+     * @param bookingRepository репозиторий бронирований
+     * @param seatInventoryService сервис учёта мест, в продажу которого возвращаются места удаляемых бронирований
+     * @param userDetailsService сервис данных для аутентификации, кэш которого сбрасывается при изменении пользователя
+     * @param reviewService сервис отзывов, из рейтингов которого исключаются оценки удаляемого пользователя
+     * @param transactionManager менеджер транзакций для сохранения пользователя после хэширования пароля
+     * @param taskExecutor пул задач приложения, в котором пользователь сохраняется после асинхронного хэширования пароля
      */
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, BoundedPasswordEncoder passwordEncoder,
+                       ArchivedBookingRepository archivedBookingRepository, BookingRepository bookingRepository,
+                       SeatInventoryService seatInventoryService, CustomUserDetailsService userDetailsService,
+                       ReviewService reviewService, PlatformTransactionManager transactionManager,
+                       @Qualifier("applicationTaskExecutor") Executor taskExecutor) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.bookingRepository = bookingRepository;
+        this.seatInventoryService = seatInventoryService;
+        this.userDetailsService = userDetailsService;
+        this.reviewService = reviewService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
     }
 
     /**
      * Регистрирует нового пользователя с заданным именем, паролем и ролью.
      * Проверяет, что пользователь с таким именем еще не существует.
+     * Пароль хэшируется до начала транзакции, чтобы не держать соединение с базой на время хэширования.
      *
      * @param username имя пользователя
      * @param rawPassword необработанный пароль пользователя
      * @param roleName имя роли для нового пользователя
      * @throws IllegalArgumentException если пользователь с таким именем уже существует или роль не найдена
+     * @throws org.example.tourist.PasswordHashingBusyException если очередь хэширования паролей переполнена
      */
-    @Transactional
     public void registerUser(String username, String rawPassword, String roleName) {
+        checkRegistration(username, roleName);
+        String encodedPassword = passwordEncoder.encode(rawPassword);
+        transactionTemplate.executeWithoutResult(status -> saveUser(username, encodedPassword, roleName));
+    }
+
+    /**
+     * Регистрирует нового пользователя, не блокируя вызывающий поток на время хэширования пароля.
+     * Имя и роль проверяются сразу, до постановки хэширования в очередь; после вычисления хэша пользователь
+     * сохраняется в пуле задач приложения, чтобы транзакция не занимала поток хэширования.
+     *
+     * @param username имя пользователя
+     * @param rawPassword необработанный пароль пользователя
+     * @param roleName имя роли для нового пользователя
+     * @return завершается после сохранения пользователя; с {@link IllegalArgumentException} или
+     * {@link org.springframework.dao.DataIntegrityViolationException}, если пользователь с таким именем успел
+     * зарегистрироваться
+     * @throws IllegalArgumentException если пользователь с таким именем уже существует или роль не найдена
+     * @throws java.util.concurrent.RejectedExecutionException если очередь хэширования паролей переполнена
+     */
+    public CompletableFuture<Void> registerUserAsync(String username, String rawPassword, String roleName) {
+        checkRegistration(username, roleName);
+        return passwordEncoder.encodeAsync(rawPassword).thenAcceptAsync(encodedPassword ->
+                transactionTemplate.executeWithoutResult(status -> saveUser(username, encodedPassword, roleName)), taskExecutor);
+    }
+
+    private void checkRegistration(String username, String roleName) {
+        if (userRepository.findByUsername(username).isPresent()) {
+            throw new IllegalArgumentException("Пользователь с таким именем уже существует");
+        }
+        if (roleRepository.findByName(roleName).isEmpty()) {
+            throw new IllegalArgumentException("Роль не найдена: " + roleName);
+        }
+    }
+
+    private void saveUser(String username, String encodedPassword, String roleName) {
+        // Повторная проверка: пока хэшировался пароль, имя мог занять другой запрос
         if (userRepository.findByUsername(username).isPresent()) {
             throw new IllegalArgumentException("Пользователь с таким именем уже существует");
         }
 
         User user = new User();
         user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(rawPassword));
+        user.setPassword(encodedPassword);
 
         Role role = roleRepository.findByName(roleName)
                 .orElseThrow(() -> new IllegalArgumentException("Роль не найдена: " + roleName));
@@ -65,6 +135,7 @@ public class UserService {
         user.setRoles(roles);
 
         userRepository.save(user);
+        userDetailsService.evict(username);
     }
 
     /**
@@ -97,10 +168,14 @@ public class UserService {
         user.getRoles().add(role);
 
         userRepository.save(user);
+        userDetailsService.evict(user.getUsername());
     }
 
     /**
      * Удаляет пользователя по идентификатору.
+     * Текущие бронирования и отзывы пользователя удаляются каскадно, архивные бронирования — отдельным запросом,
+     * так как архив не связан с пользователем внешним ключом. В той же транзакции места неотменённых бронирований
+     * возвращаются в продажу, а оценки отзывов пользователя исключаются из агрегированных рейтингов пакетов.
      *
      * @param userId идентификатор пользователя, которого нужно удалить
      */
@@ -108,7 +183,15 @@ public class UserService {
     public void deleteUser(Long userId) {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isPresent()) {
+            archivedBookingRepository.deleteByUserId(userId);
+            // Места возвращаются до удаления, пока связи бронирований с турами ещё существуют
+            List<Long> active = bookingRepository.findIdsByUserIdAndStatusNot(userId, BookingStatus.CANCELLED);
+            if (!active.isEmpty()) {
+                seatInventoryService.returnSold(active);
+            }
+            reviewService.removeRatingsOfUser(userId);
             userRepository.delete(userOpt.get());
+            userDetailsService.evict(userOpt.get().getUsername());
         } else {
             throw new IllegalArgumentException("Пользователь не найден с id: " + userId);
         }
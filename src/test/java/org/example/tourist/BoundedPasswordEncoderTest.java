@@ -0,0 +1,67 @@
+package org.example.tourist;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 4, 1, 1)) {
+            CompletableFuture<String> running = encoder.encodeAsync("first");
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = encoder.encodeAsync("second");
+
+            assertThrows(RejectedExecutionException.class, () -> encoder.encodeAsync("third"));
+            assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+            assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("third", "hash"));
+
+            release.countDown();
+            String first = running.get(5, TimeUnit.SECONDS);
+            String second = queued.get(5, TimeUnit.SECONDS);
+            assertTrue(encoder.matches("first", first));
+            assertTrue(encoder.matches("second", second));
+        }
+    }
+
+    @Test
+    void upgradesOnlyHashesWeakerThanCurrentStrength() {
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 1)) {
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("pw")));
+            assertFalse(encoder.upgradeEncoding(encoder.encode("pw")));
+            assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("pw")));
+        }
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertEquals(4, BoundedPasswordEncoder.calibrateStrength(0, 4, 6));
+        assertEquals(6, BoundedPasswordEncoder.calibrateStrength(TimeUnit.HOURS.toMillis(1), 4, 6));
+        assertThrows(IllegalArgumentException.class, () -> BoundedPasswordEncoder.calibrateStrength(250, 12, 10));
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.tourist;
+
+import jakarta.persistence.EntityManager;
+import org.example.tourist.models.User;
+import org.example.tourist.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrentUserArgumentResolverTest {
+
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private CurrentUserArgumentResolver resolver;
+    private NativeWebRequest request;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        entityManager = mock(EntityManager.class);
+        resolver = new CurrentUserArgumentResolver(userRepository);
+        ReflectionTestUtils.setField(resolver, "entityManager", entityManager);
+        request = new ServletWebRequest(new MockHttpServletRequest());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatedUserIsResolvedToReferenceWithoutQueryOncePerRequest() {
+        AuthenticatedUser principal = new AuthenticatedUser(7L, "alice", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        User reference = new User();
+        when(entityManager.getReference(User.class, 7L)).thenReturn(reference);
+
+        assertSame(reference, resolver.resolveArgument(null, null, request, null));
+        assertSame(reference, resolver.resolveArgument(null, null, request, null));
+
+        verify(entityManager, times(1)).getReference(User.class, 7L);
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void otherPrincipalsAreLoadedByUsername() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("bob", null, List.of()));
+        User bob = new User("bob", "hash");
+        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(bob));
+
+        assertSame(bob, resolver.resolveArgument(null, null, request, null));
+    }
+
+    @Test
+    void anonymousRequestResolvesToNull() {
+        assertNull(resolver.resolveArgument(null, null, request, null));
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.tourist;
+
+import org.example.tourist.models.TourPackage;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Import(IdGeneratorInitializer.class)
+class IdGeneratorInitializerTest extends JpaTestSupport {
+
+    @Autowired
+    private IdGeneratorInitializer initializer;
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void newIdsStartAboveRowsInsertedWithoutGenerator() {
+        // Строка, созданная до перехода на табличный генератор (например, через AUTO_INCREMENT);
+        // как и при запуске приложения, выравнивание выполняется вне транзакции
+        jdbcTemplate.update("INSERT INTO tour_packages (id, name, description, price) VALUES (1000, 'Старый тур', '', 100)");
+        initializer.alignGenerators();
+
+        TourPackage tourPackage = new TourPackage("Новый тур", "", null, 100, true, 5);
+        inTransaction(() -> entityManager.persist(tourPackage));
+
+        assertTrue(tourPackage.getId() > 1000, "id " + tourPackage.getId());
+        jdbcTemplate.update("DELETE FROM tour_packages");
+    }
+
+    @Test
+    void insertsAreBatched() {
+        Statistics statistics = clearedStatistics();
+        for (int i = 0; i < 40; i++) {
+            entityManager.persist(new TourPackage("Тур " + i, "", null, 100, true, 5));
+        }
+        entityManager.flush();
+
+        // 40 строк уходят одним пакетом JDBC, а не 40 отдельными запросами
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(40, statistics.getEntityInsertCount());
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.tourist;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Основа тестов слоя данных на встроенной базе H2.
+ * Основная конфигурация задаёт диалект MySQL, поэтому здесь он заменяется на диалект H2; статистика Hibernate
+ * включена для замеров обращений к базе. Методы создают пользователей, туры и бронирования для тестов.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public abstract class JpaTestSupport {
+
+    @Autowired
+    protected EntityManager entityManager;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+
+    protected User persistUser(String username) {
+        User user = new User(username, "password");
+        entityManager.persist(user);
+        return user;
+    }
+
+    protected TourPackage persistTourPackage(String name, int price) {
+        TourPackage tourPackage = new TourPackage(name, "Описание", null, price, true, 5);
+        entityManager.persist(tourPackage);
+        return tourPackage;
+    }
+
+    /**
+     * Сохраняет тур с ограниченным количеством мест.
+     */
+    protected TourPackage persistTourPackage(String name, int price, int capacity, int seatsLeft) {
+        TourPackage tourPackage = new TourPackage(name, "Описание", null, price, true, 5);
+        tourPackage.setCapacity(capacity);
+        tourPackage.setSeatsLeft(seatsLeft);
+        entityManager.persist(tourPackage);
+        return tourPackage;
+    }
+
+    protected Booking persistBooking(User user, List<TourPackage> tourPackages, Date bookingDate, int totalAmount,
+                                     BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setTourPackages(new ArrayList<>(tourPackages));
+        booking.setBookingDate(bookingDate);
+        booking.setTotalAmount(totalAmount);
+        booking.setStatus(status);
+        entityManager.persist(booking);
+        return booking;
+    }
+
+    protected void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Выполняет действие в отдельной транзакции, которая фиксируется по его завершении.
+     * Нужно тестам без общей откатываемой транзакции.
+     */
+    protected void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+
+    /**
+     * Получить статистику Hibernate со сброшенными счётчиками.
+     */
+    protected Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    /**
+     * Удаляет зафиксированные тестом бронирования, туры и пользователей.
+     */
+    protected void deleteAll() {
+        jdbcTemplate.update("DELETE FROM booking_tour_packages_archive");
+        jdbcTemplate.update("DELETE FROM bookings_archive");
+        jdbcTemplate.update("DELETE FROM booking_tour_packages");
+        jdbcTemplate.update("DELETE FROM bookings");
+        jdbcTemplate.update("DELETE FROM tour_packages");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.tourist;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.tourist.controller.api.BookingRestController;
+import org.example.tourist.repositories.UserRepository;
+import org.example.tourist.services.AccessTokenService;
+import org.example.tourist.services.BookingExportService;
+import org.example.tourist.services.BookingService;
+import org.example.tourist.services.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Правила доступа цепочки фильтров REST API к бронированиям.
+ */
+@WebMvcTest(BookingRestController.class)
+@Import(SecurityConfig.class)
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private BookingService bookingService;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private BookingExportService bookingExportService;
+
+    @MockitoBean
+    private AccessTokenService accessTokenService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotListAllBookings() throws Exception {
+        mockMvc.perform(get("/api/bookings")).andExpect(status().isForbidden());
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    @WithMockUser(roles = "AGENT")
+    void agentListsAllBookings() throws Exception {
+        when(bookingService.getBookingsPage(any())).thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc.perform(get("/api/bookings")).andExpect(status().isOk());
+    }
+
+    @Test
+    void anonymousRequestIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/api/bookings")).andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.tourist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void firesEveryTimerOnceWithinOneTickAfterDeadline() {
+        long start = 1_700_000_000_123L;
+        TimingWheel wheel = new TimingWheel(TICK, 64, start);
+        Random random = new Random(42);
+        int timers = 200_000;
+        long[] deadlines = new long[timers];
+        for (int id = 0; id < timers; id++) {
+            // От уже истекших до истекающих через трое суток
+            deadlines[id] = start - TICK + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(3));
+            wheel.schedule(id, deadlines[id]);
+        }
+
+        long[] firedAt = new long[timers];
+        int[] fired = {0};
+        long now = start;
+        while (fired[0] < timers) {
+            now += 1 + random.nextInt((int) TimeUnit.MINUTES.toMillis(7));
+            long time = now;
+            wheel.advance(now, id -> {
+                assertEquals(0, firedAt[(int) id], "таймер сработал повторно: " + id);
+                firedAt[(int) id] = time;
+                fired[0]++;
+            });
+        }
+
+        assertEquals(0, wheel.size());
+        for (int id = 0; id < timers; id++) {
+            assertTrue(firedAt[id] >= deadlines[id], "таймер " + id + " сработал раньше срока");
+        }
+    }
+
+    @Test
+    void firesNoLaterThanOneTickWhenAdvancedEveryTick() {
+        long start = 0;
+        TimingWheel wheel = new TimingWheel(TICK, 8, start);
+        Random random = new Random(7);
+        int timers = 10_000;
+        long[] deadlines = new long[timers];
+        for (int id = 0; id < timers; id++) {
+            deadlines[id] = random.nextInt((int) TimeUnit.HOURS.toMillis(2));
+            wheel.schedule(id, deadlines[id]);
+        }
+
+        List<Long> late = new ArrayList<>();
+        for (long now = start; wheel.size() > 0; now += TICK) {
+            long time = now;
+            wheel.advance(now, id -> {
+                if (time < deadlines[(int) id] || time > deadlines[(int) id] + TICK) {
+                    late.add(id);
+                }
+            });
+        }
+
+        assertTrue(late.isEmpty(), "сработали не вовремя: " + late.size());
+    }
+
+    @Test
+    void schedulingCostDoesNotGrowWithPendingTimers() {
+        long start = System.currentTimeMillis();
+        TimingWheel wheel = new TimingWheel(TICK, 64, start);
+        long hold = TimeUnit.DAYS.toMillis(1);
+        int timers = 2_000_000;
+
+        for (int id = 0; id < timers; id++) {
+            wheel.schedule(id, start + hold + id);
+        }
+
+        assertEquals(timers, wheel.size());
+        int[] fired = {0};
+        wheel.advance(start + hold + timers + TICK, id -> fired[0]++);
+        assertEquals(timers, fired[0]);
+    }
+}
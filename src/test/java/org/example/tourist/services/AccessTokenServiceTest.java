@@ -0,0 +1,62 @@
+package org.example.tourist.services;
+
+import org.example.tourist.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final AccessTokenService accessTokenService = new AccessTokenService(SECRET, 15, now::get);
+    private final AuthenticatedUser alice = new AuthenticatedUser(7L, "alice", "hash",
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_AGENT")));
+
+    @Test
+    void issuedTokenIsVerifiedOnAnyNodeWithSameSecret() {
+        String token = accessTokenService.issue(alice);
+
+        Optional<AuthenticatedUser> verified = new AccessTokenService(SECRET, 15, now::get).verify(token);
+
+        assertTrue(verified.isPresent());
+        assertEquals(7L, verified.get().getId());
+        assertEquals("alice", verified.get().getUsername());
+        assertEquals(List.of("ROLE_AGENT", "ROLE_USER"), verified.get().getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).sorted().toList());
+    }
+
+    @Test
+    void rejectsExpiredTamperedAndForeignTokens() {
+        String token = accessTokenService.issue(alice);
+        String[] parts = token.split("\\.");
+        String forgedClaims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"admin\",\"uid\":1,\"roles\":[\"ROLE_ADMIN\"],\"exp\":9999999999}".getBytes());
+
+        assertTrue(accessTokenService.verify(parts[0] + "." + forgedClaims + "." + parts[2]).isEmpty());
+        assertTrue(accessTokenService.verify(token.substring(0, token.length() - 2)).isEmpty());
+        assertTrue(accessTokenService.verify("eyJhbGciOiJub25lIn0." + parts[1] + ".").isEmpty());
+        assertTrue(accessTokenService.verify("garbage").isEmpty());
+        assertTrue(new AccessTokenService("", 15, now::get).verify(token).isEmpty());
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(15));
+        assertTrue(accessTokenService.verify(token).isEmpty());
+    }
+
+    @Test
+    void rejectsShortSecret() {
+        assertThrows(IllegalStateException.class,
+                () -> new AccessTokenService(Base64.getEncoder().encodeToString(new byte[16]), 15, now::get));
+    }
+}
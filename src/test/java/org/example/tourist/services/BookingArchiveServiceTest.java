@@ -0,0 +1,88 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.BookingView;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Перенос бронирований в архив и учёт архива при чтении бронирований пользователя, статистике и пересчёте мест.
+ */
+@Import(BookingServicesTestConfiguration.class)
+@TestPropertySource(properties = "tourist.booking.archive-chunk-size=2")
+class BookingArchiveServiceTest extends JpaTestSupport {
+
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private TourPackageRepository tourPackageRepository;
+
+    private User user;
+    private TourPackage limited;
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser("archive-user");
+        limited = persistTourPackage("Тур с местами", 500, 10, 5);
+        TourPackage unlimited = persistTourPackage("Тур без ограничения", 300);
+        Date old = Date.from(Instant.now().minus(400, ChronoUnit.DAYS));
+        // Старые: три завершённых, два отменённых и одно подтверждённое; новое завершённое
+        BookingStatus[] statuses = {BookingStatus.COMPLETED, BookingStatus.COMPLETED, BookingStatus.COMPLETED,
+                BookingStatus.CANCELLED, BookingStatus.CANCELLED, BookingStatus.CONFIRMED, BookingStatus.COMPLETED};
+        for (int i = 0; i < statuses.length; i++) {
+            persistBooking(user, List.of(limited, unlimited), i < 6 ? old : new Date(), 800, statuses[i]);
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void movesOldCompletedAndCancelledBookingsWithTheirTourPackages() {
+        int archived = bookingArchiveService.archive();
+        entityManager.clear();
+
+        assertEquals(5, archived);
+        assertEquals(5, archivedBookingRepository.count());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class));
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_tour_packages", Integer.class));
+        assertEquals(10, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_tour_packages_archive", Integer.class));
+
+        // Бронирования пользователя и статистика учитывают архив
+        List<BookingView> bookings = bookingService.getUserBookingsPage(user, null, 20).getItems();
+        assertEquals(7, bookings.size());
+        assertTrue(bookings.stream().allMatch(booking -> booking.getTourPackages().size() == 2));
+        assertEquals(7L, statisticsService.getBookingStats().values().stream().mapToLong(Long::longValue).sum());
+
+        // Завершённые бронирования в архиве продолжают занимать места тура
+        tourPackageRepository.recountSeats(limited.getId(), BookingStatus.CANCELLED);
+        entityManager.clear();
+        assertEquals(5, entityManager.find(TourPackage.class, limited.getId()).getSeatsLeft());
+
+        assertEquals(0, bookingArchiveService.archive());
+    }
+}
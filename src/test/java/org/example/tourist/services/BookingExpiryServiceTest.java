@@ -0,0 +1,75 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.example.tourist.repositories.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Import(BookingServicesTestConfiguration.class)
+class BookingExpiryServiceTest extends JpaTestSupport {
+
+    private static final long HOLD = TimeUnit.MINUTES.toMillis(30);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+    private final List<Booking> bookings = new ArrayList<>();
+    private TourPackage limited;
+
+    @BeforeEach
+    void setUp() {
+        User user = persistUser("expiry");
+        limited = persistTourPackage("Тур с местами", 500, 10, 7);
+        long[] ages = {HOLD + 1000, HOLD + 1000, 1000};
+        BookingStatus[] statuses = {BookingStatus.CREATED, BookingStatus.CONFIRMED, BookingStatus.CREATED};
+        for (int i = 0; i < ages.length; i++) {
+            bookings.add(persistBooking(user, List.of(limited), new Date(now.get() - ages[i]), 500, statuses[i]));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void cancelsOnlyExpiredUnconfirmedBookingsAndReturnsSeats() {
+        BookingExpiryService service = new BookingExpiryService(bookingRepository, seatInventoryService,
+                transactionManager, HOLD, 1000, now::get);
+        service.rebuild();
+        assertEquals(2, service.getPendingCount());
+
+        assertEquals(1, service.expireDue());
+        entityManager.clear();
+        assertEquals(BookingStatus.CANCELLED, status(0));
+        assertEquals(BookingStatus.CONFIRMED, status(1));
+        assertEquals(BookingStatus.CREATED, status(2));
+        assertEquals(8, entityManager.find(TourPackage.class, limited.getId()).getSeatsLeft());
+
+        // Бронирование, подтверждённое до истечения срока, остаётся подтверждённым
+        bookingRepository.updateStatuses(List.of(bookings.get(2).getId()), List.of(BookingStatus.CREATED), BookingStatus.CONFIRMED);
+        now.addAndGet(HOLD);
+        assertEquals(0, service.expireDue());
+        entityManager.clear();
+        assertEquals(BookingStatus.CONFIRMED, status(2));
+        assertEquals(0, service.getPendingCount());
+    }
+
+    private BookingStatus status(int index) {
+        return entityManager.find(Booking.class, bookings.get(index).getId()).getStatus();
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.tourist.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.tourist.BookingExportFormat;
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingStatus;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Выгрузка бронирований: фильтры, сборка туров бронирования и экранирование значений.
+ */
+@Import(BookingServicesTestConfiguration.class)
+@TestPropertySource(properties = "tourist.booking.export-fetch-size=2")
+class BookingExportServiceTest extends JpaTestSupport {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @BeforeEach
+    void setUp() {
+        User alice = persistUser("alice-export");
+        User formula = persistUser("=cmd");
+        List<TourPackage> tourPackages = new ArrayList<>();
+        for (String name : List.of("Горы, \"лучшие\"", "Море", "Озеро")) {
+            tourPackages.add(persistTourPackage(name, 100));
+        }
+        // 10 бронирований: по одному в день, чётные подтверждены, в i-м бронировании i % 4 тура
+        for (int i = 0; i < 10; i++) {
+            persistBooking(i == 9 ? formula : alice, tourPackages.subList(0, i % 4),
+                    Date.from(FIRST_DAY.plusDays(i).atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant()), 100 * i,
+                    i % 2 == 0 ? BookingStatus.CONFIRMED : BookingStatus.CREATED);
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void exportsFilteredBookingsAsCsvWithOneLinePerBooking() throws Exception {
+        BookingQuery query = new BookingQuery();
+        query.setStatus(BookingStatus.CREATED);
+        query.setFrom(FIRST_DAY.plusDays(2));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int exported = bookingExportService.export(query, BookingExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(4, exported);
+        assertEquals(5, lines.length);
+        assertEquals("id,username,tour_packages,booking_date,total_amount,status", lines[0]);
+        assertTrue(lines[1].endsWith(",2024-05-04T12:00:00,300,CREATED") && lines[1].contains("Озеро"));
+        assertEquals(",alice-export,\"Горы, \"\"лучшие\"\"\",2024-05-06T12:00:00,500,CREATED",
+                lines[2].substring(lines[2].indexOf(',')));
+        // Значение, похожее на формулу, не выполняется табличным редактором
+        assertTrue(lines[4].contains(",'=cmd,"));
+    }
+
+    @Test
+    void exportsBookingsAsNdjsonInBookingDateOrder() throws Exception {
+        BookingQuery query = new BookingQuery();
+        query.setTo(FIRST_DAY.plusDays(4));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int exported = bookingExportService.export(query, BookingExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, exported);
+        assertEquals(5, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        int[] packageCounts = {0, 1, 2, 3, 0};
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode booking = objectMapper.readTree(lines[i]);
+            assertEquals("alice-export", booking.get("username").asText());
+            assertEquals(100 * i, booking.get("totalAmount").asInt());
+            assertEquals(packageCounts[i], booking.get("tourPackages").size());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingDto;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Замер обращений к базе данных при оформлении бронирования из корзины.
+ * Число подготовленных запросов не должно зависеть от количества туров в корзине.
+ */
+@Import(BookingServicesTestConfiguration.class)
+class BookingServiceCheckoutTest extends JpaTestSupport {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CartService cartService;
+
+    private User user;
+    private final List<TourPackage> tourPackages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser("checkout");
+        for (int i = 0; i < 20; i++) {
+            tourPackages.add(persistTourPackage("Тур " + i, 100 + i));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void checkoutRoundTripsDoNotDependOnCartSize() {
+        long single = checkout(1);
+        long full = checkout(20);
+
+        assertEquals(single, full);
+        // Выборка туров, вставка бронирования и пакетная вставка строк связи
+        assertTrue(full <= 3, "обращений к базе: " + full);
+    }
+
+    @Test
+    void checkoutDoesNotWriteTourPackages() {
+        Statistics statistics = clearedStatistics();
+        checkout(5);
+
+        assertEquals(0, statistics.getEntityUpdateCount());
+        Booking booking = entityManager.createQuery("SELECT b FROM Booking b", Booking.class).getSingleResult();
+        assertEquals(5, booking.getTourPackages().size());
+    }
+
+    private long checkout(int items) {
+        for (int i = 0; i < items; i++) {
+            TourPackage tourPackage = tourPackages.get(i);
+            cartService.getCart(user.getUsername()).addItem(tourPackage.getId(), tourPackage.getPrice());
+        }
+        User detached = entityManager.find(User.class, user.getId());
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setTotalAmount(100);
+
+        Statistics statistics = clearedStatistics();
+        bookingService.createBooking(bookingDto, detached);
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+}
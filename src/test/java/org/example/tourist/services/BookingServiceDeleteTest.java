@@ -0,0 +1,97 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Удаление бронирований пакетными запросами и порционная очистка старых бронирований.
+ */
+@Import(BookingServicesTestConfiguration.class)
+@TestPropertySource(properties = "tourist.booking.purge-chunk-size=2")
+class BookingServiceDeleteTest extends JpaTestSupport {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingPurgeService bookingPurgeService;
+
+    private TourPackage limited;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = persistUser("admin-delete");
+        limited = persistTourPackage("Тур с местами", 500, 10, 5);
+        TourPackage unlimited = persistTourPackage("Тур без ограничения", 300);
+        // Четыре отменённых бронирования 400 дней назад, одно отменённое сегодня, два подтверждённых сегодня
+        Date old = Date.from(Instant.now().minus(400, ChronoUnit.DAYS));
+        for (int i = 0; i < 7; i++) {
+            bookings.add(persistBooking(user, List.of(limited, unlimited), i < 4 ? old : new Date(), 800,
+                    i < 5 ? BookingStatus.CANCELLED : BookingStatus.CONFIRMED));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void deletesBookingsAndLinksWithBulkStatementsAndReturnsSeatsOfActiveOnes() {
+        Statistics statistics = clearedStatistics();
+
+        int deleted = bookingService.deleteBookings(List.of(bookings.get(4).getId(), bookings.get(5).getId(),
+                bookings.get(6).getId(), -1L));
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        assertEquals(3, deleted);
+        for (int i = 4; i < 7; i++) {
+            assertNull(entityManager.find(Booking.class, bookings.get(i).getId()));
+        }
+        assertEquals(8, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_tour_packages", Integer.class));
+        // Места двух подтверждённых бронирований вернулись в продажу, отменённого — нет
+        assertEquals(7, entityManager.find(TourPackage.class, limited.getId()).getSeatsLeft());
+        // Чтение статусов, возврат мест и по два DELETE (связи и бронирования) на группу статусов
+        assertTrue(statements <= 6, "обращений к базе: " + statements);
+
+        assertTrue(bookingService.deleteBooking(bookings.get(0).getId()));
+        assertFalse(bookingService.deleteBooking(bookings.get(0).getId()));
+    }
+
+    @Test
+    void purgesOnlyOldBookingsInStatusChunkByChunk() {
+        int purged = bookingPurgeService.purge(BookingStatus.CANCELLED, 365);
+        entityManager.clear();
+
+        assertEquals(4, purged);
+        for (int i = 0; i < 7; i++) {
+            Booking booking = entityManager.find(Booking.class, bookings.get(i).getId());
+            if (i < 4) {
+                assertNull(booking);
+            } else {
+                assertNotNull(booking);
+            }
+        }
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_tour_packages", Integer.class));
+        assertEquals(5, entityManager.find(TourPackage.class, limited.getId()).getSeatsLeft());
+    }
+}
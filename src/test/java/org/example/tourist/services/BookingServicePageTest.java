@@ -0,0 +1,91 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingQuery;
+import org.example.tourist.BookingStatus;
+import org.example.tourist.BookingView;
+import org.example.tourist.CursorPage;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Список бронирований: фильтры, курсорная пагинация и количество запросов на страницу.
+ */
+@Import(BookingServicesTestConfiguration.class)
+class BookingServicePageTest extends JpaTestSupport {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        User alice = persistUser("alice-page");
+        User bob = persistUser("bob-page");
+        List<TourPackage> tourPackages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tourPackages.add(persistTourPackage("Тур " + i, 100));
+        }
+        // 30 бронирований: по одному в день, по три тура в каждом, статусы чередуются
+        for (int i = 0; i < 30; i++) {
+            persistBooking(i % 3 == 0 ? bob : alice, tourPackages.subList(i % 3, i % 3 + 3),
+                    Date.from(FIRST_DAY.plusDays(i).atTime(12, 0).atZone(ZoneId.systemDefault()).toInstant()), 300,
+                    i % 2 == 0 ? BookingStatus.CREATED : BookingStatus.CONFIRMED);
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void pagesThroughAllBookingsNewestFirstWithTwoQueriesPerPage() {
+        Statistics statistics = clearedStatistics();
+        BookingQuery query = new BookingQuery();
+        query.setSize(7);
+        List<BookingView> all = new ArrayList<>();
+        do {
+            statistics.clear();
+            CursorPage<BookingView> page = bookingService.getBookingsPage(query);
+            assertTrue(statistics.getPrepareStatementCount() <= 2, "запросов: " + statistics.getPrepareStatementCount());
+            all.addAll(page.getItems());
+            query.setCursor(page.getNextCursor());
+        } while (query.getCursor() != null);
+
+        assertEquals(30, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getBookingDate().after(all.get(i).getBookingDate()));
+        }
+        assertTrue(all.stream().allMatch(view -> view.getTourPackages().size() == 3));
+        assertEquals("bob-page", all.get(all.size() - 1).getUsername());
+    }
+
+    @Test
+    void appliesStatusDateAndUserFilters() {
+        BookingQuery query = new BookingQuery();
+        query.setStatus(BookingStatus.CREATED);
+        query.setFrom(FIRST_DAY.plusDays(10));
+        query.setTo(FIRST_DAY.plusDays(19));
+        query.setUsername("bob-page");
+
+        CursorPage<BookingView> page = bookingService.getBookingsPage(query);
+
+        // Дни 10..19 с чётным номером, кратным трём: 12 и 18
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertTrue(page.getItems().stream().allMatch(view -> view.getStatus() == BookingStatus.CREATED));
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingDto;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Резервирование мест при оформлении бронирования.
+ * Места забираются из базы в отдельной транзакции, поэтому тестовые данные фиксируются, а не откатываются.
+ */
+@Import(BookingServicesTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingServiceSeatsTest extends JpaTestSupport {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    private User first;
+    private User second;
+    private TourPackage tourPackage;
+
+    @BeforeEach
+    void setUp() {
+        inTransaction(() -> {
+            first = persistUser("first");
+            second = persistUser("second");
+            tourPackage = persistTourPackage("Тур с местами", 500, 1, 1);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartService.removeCart(first.getUsername());
+        cartService.removeCart(second.getUsername());
+        deleteAll();
+    }
+
+    @Test
+    void lastSeatIsSoldOnceAndReturnedOnCancel() {
+        Booking booking = checkout(first);
+        assertThrows(IllegalStateException.class, () -> checkout(second));
+        assertEquals(0, seatInventoryService.getSeatsLeft(tourPackage.getId()));
+
+        // Отмена возвращает место в продажу; тур остался в корзине после неудачного оформления
+        bookingService.cancelBooking(booking.getId());
+        assertEquals(1, seatInventoryService.getSeatsLeft(tourPackage.getId()));
+        bookingService.createBooking(new BookingDto(), second);
+        assertEquals(0, seatInventoryService.getSeatsLeft(tourPackage.getId()));
+    }
+
+    @Test
+    void recountRestoresSeatsOfUnsoldBookings() {
+        checkout(first);
+        jdbcTemplate.update("UPDATE tour_packages SET seats_left = 1");
+
+        // Полный пересчёт свободных мест по неотменённым бронированиям запускает администратор
+        assertEquals(1, seatInventoryService.recountAll());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT seats_left FROM tour_packages", Integer.class));
+    }
+
+    @Test
+    void startupFillsOnlyMissingSeats() {
+        checkout(first);
+        jdbcTemplate.update("UPDATE tour_packages SET seats_left = 1");
+
+        // Посчитанные места не трогаются: их могут держать в памяти другие экземпляры приложения
+        seatInventoryService.recountMissing();
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT seats_left FROM tour_packages", Integer.class));
+
+        jdbcTemplate.update("UPDATE tour_packages SET seats_left = NULL");
+        seatInventoryService.recountMissing();
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT seats_left FROM tour_packages", Integer.class));
+    }
+
+    private Booking checkout(User user) {
+        cartService.getCart(user.getUsername()).addItem(tourPackage.getId(), tourPackage.getPrice());
+        return bookingService.createBooking(new BookingDto(), user);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.BookingStatusUpdateDto;
+import org.example.tourist.BookingStatusUpdateResult;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пакетное изменение статусов бронирований: проверка переходов и количество обращений к базе.
+ */
+@Import(BookingServicesTestConfiguration.class)
+class BookingServiceStatusBatchTest extends JpaTestSupport {
+
+    @Autowired
+    private BookingService bookingService;
+
+    private TourPackage limited;
+    private final List<Booking> bookings = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = persistUser("agent-batch");
+        limited = persistTourPackage("Тур с местами", 500, 10, 6);
+        BookingStatus[] statuses = {BookingStatus.CREATED, BookingStatus.CREATED, BookingStatus.CONFIRMED, BookingStatus.COMPLETED};
+        for (BookingStatus status : statuses) {
+            bookings.add(persistBooking(user, List.of(limited), new Date(), 500, status));
+        }
+        flushAndClear();
+    }
+
+    @Test
+    void appliesAllowedTransitionsAndReportsEachItem() {
+        Statistics statistics = clearedStatistics();
+
+        List<BookingStatusUpdateResult> results = bookingService.updateBookingStatuses(List.of(
+                update(bookings.get(0).getId(), BookingStatus.CONFIRMED),
+                update(bookings.get(1).getId(), BookingStatus.CANCELLED),
+                update(bookings.get(2).getId(), BookingStatus.CANCELLED),
+                update(bookings.get(3).getId(), BookingStatus.CANCELLED),
+                update(-1L, BookingStatus.CONFIRMED),
+                update(bookings.get(0).getId(), BookingStatus.CANCELLED),
+                update(null, BookingStatus.CONFIRMED)));
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        assertEquals(List.of(BookingStatusUpdateResult.Outcome.UPDATED, BookingStatusUpdateResult.Outcome.UPDATED,
+                        BookingStatusUpdateResult.Outcome.UPDATED, BookingStatusUpdateResult.Outcome.REJECTED,
+                        BookingStatusUpdateResult.Outcome.NOT_FOUND, BookingStatusUpdateResult.Outcome.INVALID,
+                        BookingStatusUpdateResult.Outcome.INVALID),
+                results.stream().map(BookingStatusUpdateResult::getOutcome).toList());
+        assertEquals(BookingStatus.CONFIRMED, status(0));
+        assertEquals(BookingStatus.CANCELLED, status(1));
+        assertEquals(BookingStatus.CANCELLED, status(2));
+        assertEquals(BookingStatus.COMPLETED, status(3));
+        // Места двух отменённых бронирований вернулись в продажу
+        assertEquals(8, entityManager.find(TourPackage.class, limited.getId()).getSeatsLeft());
+        // Чтение статусов, возврат мест и по одному UPDATE на каждый новый статус
+        assertTrue(statements <= 4, "обращений к базе: " + statements);
+    }
+
+    private BookingStatus status(int index) {
+        return entityManager.find(Booking.class, bookings.get(index).getId()).getStatus();
+    }
+
+    private static BookingStatusUpdateDto update(Long bookingId, BookingStatus status) {
+        BookingStatusUpdateDto update = new BookingStatusUpdateDto();
+        update.setBookingId(bookingId);
+        update.setStatus(status);
+        return update;
+    }
+}
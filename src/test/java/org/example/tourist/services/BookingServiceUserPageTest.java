@@ -0,0 +1,113 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.BookingView;
+import org.example.tourist.CursorPage;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Бронирования пользователя: объединение текущих и архивных бронирований, пагинация, кэш и его сброс.
+ */
+@Import(BookingServicesTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingServiceUserPageTest extends JpaTestSupport {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+
+    private User user;
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        inTransaction(() -> {
+            user = persistUser("user-page");
+            User other = persistUser("other-page");
+            List<TourPackage> tourPackages = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                tourPackages.add(persistTourPackage("Тур " + i, 100));
+            }
+            // 12 бронирований пользователя, каждое на 60 дней старше предыдущего; старые завершённые
+            // уйдут в архив, а старые подтверждённые останутся среди текущих
+            for (int i = 0; i < 12; i++) {
+                Booking booking = persistBooking(user, tourPackages.subList(0, 1 + i % 3), daysAgo(i * 60), 100,
+                        i % 3 == 0 ? BookingStatus.CONFIRMED : BookingStatus.COMPLETED);
+                bookingIds.add(booking.getId());
+                persistBooking(other, tourPackages, daysAgo(i * 60), 100, BookingStatus.COMPLETED);
+            }
+        });
+        bookingArchiveService.archive();
+    }
+
+    @AfterEach
+    void tearDown() {
+        deleteAll();
+    }
+
+    @Test
+    void pagesThroughCurrentAndArchivedBookingsNewestFirst() {
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings_archive WHERE user_id = ?",
+                Integer.class, user.getId()));
+        Statistics statistics = clearedStatistics();
+
+        List<BookingView> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            CursorPage<BookingView> page = bookingService.getUserBookingsPage(user, cursor, 5);
+            assertTrue(statistics.getPrepareStatementCount() <= 4);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(bookingIds, seen.stream().map(BookingView::getId).toList());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals("user-page", seen.get(i).getUsername());
+            assertEquals(1 + i % 3, seen.get(i).getTourPackages().size());
+        }
+    }
+
+    @Test
+    void cachesPagesUntilBookingsOfUserChange() {
+        Statistics statistics = clearedStatistics();
+        CursorPage<BookingView> first = bookingService.getUserBookingsPage(user, null, 5);
+        statistics.clear();
+        CursorPage<BookingView> cached = bookingService.getUserBookingsPage(user, null, 5);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(BookingStatus.CONFIRMED, cached.getItems().get(0).getStatus());
+
+        bookingService.cancelBooking(first.getItems().get(0).getId());
+
+        CursorPage<BookingView> reloaded = bookingService.getUserBookingsPage(user, null, 5);
+        assertEquals(BookingStatus.CANCELLED, reloaded.getItems().get(0).getStatus());
+        assertNull(bookingService.getUserBookingsPage(user, null, 20).getNextCursor());
+    }
+
+    private static Date daysAgo(int days) {
+        return Date.from(Instant.now().minus(days, ChronoUnit.DAYS));
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingArchivePartitions;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Сервисы бронирований для тестов слоя данных. Общий список позволяет тестам переиспользовать один контекст
+ * и не дополнять каждый тест при появлении у сервисов новой зависимости.
+ */
+@TestConfiguration
+@Import({BookingService.class, CartService.class, SeatInventoryService.class, BookingExpiryService.class,
+        BookingPurgeService.class, BookingArchiveService.class, BookingArchivePartitions.class,
+        BookingExportService.class, StatisticsService.class})
+public class BookingServicesTestConfiguration {
+}
@@ -0,0 +1,171 @@
+package org.example.tourist.services;
+
+import org.example.tourist.models.Cart;
+import org.example.tourist.models.CartItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartServiceTest {
+
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    @Test
+    void concurrentAddRemoveClearKeepsEveryCartConsistent() throws Exception {
+        CartService cartService = new CartService(TimeUnit.MINUTES.toMillis(30), 10_000, 50, System::currentTimeMillis);
+        int users = 64;
+
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                String username = "user-" + random.nextInt(users);
+                long packageId = random.nextInt(20);
+                int operation = random.nextInt(100);
+                if (operation < 60) {
+                    try {
+                        cartService.getCart(username).addItem(packageId, (int) packageId * 100);
+                    } catch (IllegalStateException cartFull) {
+                        cartService.getCart(username).removeItem(packageId);
+                    }
+                } else if (operation < 95) {
+                    cartService.findCart(username).ifPresent(cart -> cart.removeItem(packageId));
+                } else {
+                    cartService.getCart(username).clearCart();
+                }
+            }
+        });
+
+        for (int u = 0; u < users; u++) {
+            cartService.findCart("user-" + u).ifPresent(cart -> {
+                List<CartItem> items = cart.getCartItems();
+                int expectedTotal = items.stream().mapToInt(CartItem::getPrice).sum();
+                assertEquals(expectedTotal, cart.getTotalPrice());
+                assertTrue(items.size() <= 50);
+                items.forEach(item -> assertEquals(item.getTourPackageId() * 100, (long) item.getPrice()));
+            });
+        }
+    }
+
+    @Test
+    void usersDoNotSeeEachOthersItems() throws Exception {
+        CartService cartService = new CartService(TimeUnit.MINUTES.toMillis(30), 10_000, 1_000, System::currentTimeMillis);
+        AtomicLong threadIds = new AtomicLong();
+
+        runConcurrently(() -> {
+            long owner = threadIds.getAndIncrement();
+            String username = "owner-" + owner;
+            for (int i = 0; i < 500; i++) {
+                cartService.getCart(username).addItem(owner, 1);
+            }
+            cartService.getCart(username).removeItem(owner);
+        });
+
+        for (long owner = 0; owner < THREADS; owner++) {
+            Cart cart = cartService.findCart("owner-" + owner).orElseThrow();
+            assertEquals(499, cart.getCartItems().size());
+            assertEquals(499, cart.getTotalPrice());
+            long expectedOwner = owner;
+            assertTrue(cart.getCartItems().stream().allMatch(item -> item.getTourPackageId() == expectedOwner));
+        }
+    }
+
+    @Test
+    void removeItemsKeepsItemsAddedAfterSnapshot() {
+        Cart cart = new Cart();
+        cart.addItem(1L, 100);
+        cart.addItem(2L, 200);
+        List<CartItem> snapshot = cart.getCartItems();
+        cart.addItem(3L, 300);
+
+        cart.removeItems(snapshot);
+
+        assertEquals(1, cart.getCartItems().size());
+        assertEquals(3L, cart.getCartItems().get(0).getTourPackageId());
+        assertEquals(300, cart.getTotalPrice());
+    }
+
+    @Test
+    void fullCartRejectsNewItems() {
+        Cart cart = new Cart(2);
+        cart.addItem(1L, 100);
+        cart.addItem(2L, 100);
+
+        assertThrows(IllegalStateException.class, () -> cart.addItem(3L, 100));
+        assertEquals(200, cart.getTotalPrice());
+    }
+
+    @Test
+    void idleCartsAreEvicted() {
+        AtomicLong now = new AtomicLong(0);
+        CartService cartService = new CartService(1_000, 100, 10, now::get);
+
+        Cart cart = cartService.getCart("alice");
+        cart.addItem(1L, 100);
+        cartService.getCart("bob");
+
+        now.set(800);
+        assertSame(cart, cartService.getCart("alice"));
+
+        now.set(1_500);
+        cartService.evictExpired();
+        assertTrue(cartService.findCart("alice").isPresent());
+        assertFalse(cartService.findCart("bob").isPresent());
+        assertEquals(1, cartService.size());
+
+        now.set(3_000);
+        assertFalse(cartService.findCart("alice").isPresent());
+        assertNotSame(cart, cartService.getCart("alice"));
+        assertTrue(cartService.getCart("alice").getCartItems().isEmpty());
+    }
+
+    @Test
+    void numberOfCartsIsBounded() throws Exception {
+        AtomicLong now = new AtomicLong(0);
+        CartService cartService = new CartService(TimeUnit.HOURS.toMillis(1), 1_000, 10, now::incrementAndGet);
+
+        runConcurrently(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                cartService.getCart(Thread.currentThread().getName() + "-" + i).addItem(1L, 1);
+            }
+        });
+
+        assertTrue(cartService.size() <= 1_000 + THREADS, "carts: " + cartService.size());
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
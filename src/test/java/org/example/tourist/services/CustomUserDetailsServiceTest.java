@@ -0,0 +1,113 @@
+package org.example.tourist.services;
+
+import org.example.tourist.AuthenticatedUser;
+import org.example.tourist.BoundedPasswordEncoder;
+import org.example.tourist.models.Role;
+import org.example.tourist.models.User;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.RoleRepository;
+import org.example.tourist.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+    private RoleRepository roleRepository;
+    private CustomUserDetailsService userDetailsService;
+    private UserService userService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        roleRepository = mock(RoleRepository.class);
+        userDetailsService = new CustomUserDetailsService(userRepository, 100, 300);
+        userService = new UserService(userRepository, roleRepository, mock(BoundedPasswordEncoder.class),
+                mock(ArchivedBookingRepository.class), mock(BookingRepository.class), mock(SeatInventoryService.class),
+                userDetailsService, mock(ReviewService.class),
+                mock(PlatformTransactionManager.class), Runnable::run);
+        user = new User("alice", "hash");
+        ReflectionTestUtils.setField(user, "id", 1L);
+        user.getRoles().add(new Role("ROLE_USER"));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void loadsUserOnceAndReturnsCopiesThatMayBeErased() {
+        UserDetails first = userDetailsService.loadUserByUsername("alice");
+        // Spring Security стирает пароль после входа; кэш от этого не должен пострадать
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+        UserDetails second = userDetailsService.loadUserByUsername("alice");
+
+        assertNotSame(first, second);
+        assertEquals("hash", second.getPassword());
+        assertEquals(1L, ((AuthenticatedUser) second).getId());
+        verify(userRepository, times(1)).findByUsername("alice");
+        assertEquals(1, userDetailsService.getCacheStats().getHits());
+    }
+
+    @Test
+    void roleChangeEvictsCachedUser() {
+        when(roleRepository.findByName("ROLE_ADMIN")).thenReturn(Optional.of(new Role("ROLE_ADMIN")));
+        userDetailsService.loadUserByUsername("alice");
+
+        userService.updateUserRole(1L, "ROLE_ADMIN");
+
+        assertEquals("ROLE_ADMIN", userDetailsService.loadUserByUsername("alice").getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void loginRehashesPasswordStoredWithLowerStrength() {
+        String password = "pw";
+        user.setPassword(new BCryptPasswordEncoder(4).encode(password));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(5, 1, 1)) {
+            provider.setPasswordEncoder(encoder);
+
+            provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", password));
+
+            ArgumentCaptor<String> rehashed = ArgumentCaptor.forClass(String.class);
+            verify(userRepository).updatePassword(eq("alice"), rehashed.capture());
+            assertTrue(rehashed.getValue().startsWith("$2a$05$"));
+            assertTrue(encoder.matches(password, rehashed.getValue()));
+        }
+        // Кэш сброшен, следующий вход читает новый хэш из базы
+        userDetailsService.loadUserByUsername("alice");
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        when(userRepository.findByUsername("bob")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("bob"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("bob"));
+        verify(userRepository, times(2)).findByUsername("bob");
+    }
+}
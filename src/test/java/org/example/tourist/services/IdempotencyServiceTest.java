@@ -0,0 +1,149 @@
+package org.example.tourist.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyServiceTest {
+
+    private static final String BODY = "{\"totalAmount\":100}";
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void replayReturnsStoredResultWithoutExecuting() {
+        IdempotencyService service = new IdempotencyService(1000, 100, 1000, now::get);
+
+        assertEquals(1, service.execute("alice", "key", BODY, executions::incrementAndGet));
+        assertEquals(1, service.execute("alice", "key", BODY, executions::incrementAndGet));
+        // Тот же ключ другого пользователя — другой запрос
+        assertEquals(2, service.execute("bob", "key", BODY, executions::incrementAndGet));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForInFlightResult() throws Exception {
+        IdempotencyService service = new IdempotencyService(1000, 100, TimeUnit.SECONDS.toMillis(10), now::get);
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return service.execute("alice", "key", BODY, () -> {
+                        sleep(100);
+                        return executions.incrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failureIsNotStored() {
+        IdempotencyService service = new IdempotencyService(1000, 100, 1000, now::get);
+
+        assertThrows(RuntimeException.class, () -> service.execute("alice", "key", BODY, () -> {
+            throw new RuntimeException("Корзина пуста");
+        }));
+
+        assertEquals(1, service.execute("alice", "key", BODY, executions::incrementAndGet));
+    }
+
+    @Test
+    void expiredAndEvictedKeysExecuteAgain() {
+        IdempotencyService service = new IdempotencyService(1000, 3, 1000, now::get);
+        service.execute("alice", "key", BODY, executions::incrementAndGet);
+
+        now.set(1001);
+        assertEquals(2, service.execute("alice", "key", BODY, executions::incrementAndGet));
+
+        for (int i = 0; i < 10; i++) {
+            now.incrementAndGet();
+            service.execute("alice", "key-" + i, BODY, executions::incrementAndGet);
+        }
+        assertTrue(service.size() <= 3, "ключей: " + service.size());
+    }
+
+    @Test
+    void keyReusedWithOtherRequestIsRejected() {
+        IdempotencyService service = new IdempotencyService(1000, 100, 1000, now::get);
+        service.execute("alice", "key", BODY, executions::incrementAndGet);
+
+        assertThrows(IdempotencyService.KeyReusedException.class,
+                () -> service.execute("alice", "key", "{\"totalAmount\":200}", executions::incrementAndGet));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void duplicateGivesUpWaitingForSlowRequest() throws Exception {
+        IdempotencyService service = new IdempotencyService(1000, 100, 50, now::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> first = executor.submit(() -> service.execute("alice", "key", BODY, () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            started.await();
+
+            assertThrows(IdempotencyService.InProgressException.class,
+                    () -> service.execute("alice", "key", BODY, executions::incrementAndGet));
+            release.countDown();
+            assertEquals(1, first.get(1, TimeUnit.MINUTES));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void rejectsInvalidKeys() {
+        IdempotencyService service = new IdempotencyService(1000, 100, 1000, now::get);
+
+        assertThrows(IllegalArgumentException.class, () -> service.execute("alice", " ", BODY, executions::incrementAndGet));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("alice", "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1), BODY, executions::incrementAndGet));
+        assertEquals(0, executions.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.tourist.services;
+
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Review;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.TourPackageRating;
+import org.example.tourist.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Агрегированный рейтинг пакета на базе H2 в режиме совместимости с MySQL,
+ * чтобы запрос INSERT ... ON DUPLICATE KEY UPDATE действительно выполнялся базой.
+ */
+@Import(ReviewService.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratings;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ReviewServiceRatingTest extends JpaTestSupport {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    private User alice;
+    private User bob;
+    private TourPackage tourPackage;
+
+    @BeforeEach
+    void setUp() {
+        alice = persistUser("alice-rating");
+        bob = persistUser("bob-rating");
+        tourPackage = persistTourPackage("Тур с отзывами", 500);
+        flushAndClear();
+    }
+
+    @Test
+    void firstReviewCreatesAggregateRowAndSecondAddsToIt() {
+        reviewService.saveReview(new Review(alice, tourPackage, 5, "Отлично"));
+        reviewService.saveReview(new Review(bob, tourPackage, 3, "Неплохо"));
+        flushAndClear();
+
+        TourPackageRating rating = reviewService.getRating(tourPackage.getId());
+        assertEquals(2, rating.getReviewCount());
+        assertEquals(8, rating.getRatingSum());
+        assertEquals(Map.of(1, 0L, 2, 0L, 3, 1L, 4, 0L, 5, 1L), rating.getDistribution());
+    }
+
+    @Test
+    void removesRatingsOfUserFromAggregate() {
+        reviewService.saveReview(new Review(alice, tourPackage, 5, "Отлично"));
+        reviewService.saveReview(new Review(alice, tourPackage, 5, "Снова отлично"));
+        reviewService.saveReview(new Review(bob, tourPackage, 2, "Плохо"));
+        flushAndClear();
+
+        reviewService.removeRatingsOfUser(alice.getId());
+        flushAndClear();
+
+        TourPackageRating rating = reviewService.getRating(tourPackage.getId());
+        assertEquals(1, rating.getReviewCount());
+        assertEquals(2, rating.getRatingSum());
+        assertEquals(Map.of(1, 0L, 2, 1L, 3, 0L, 4, 0L, 5, 0L), rating.getDistribution());
+    }
+}
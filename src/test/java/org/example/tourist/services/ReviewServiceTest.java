@@ -0,0 +1,106 @@
+package org.example.tourist.services;
+
+import org.example.tourist.CursorPage;
+import org.example.tourist.ReviewDto;
+import org.example.tourist.models.Review;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.TourPackageRating;
+import org.example.tourist.models.User;
+import org.example.tourist.repositories.ReviewRepository;
+import org.example.tourist.repositories.TourPackageRatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReviewServiceTest {
+
+    private ReviewRepository reviewRepository;
+    private TourPackageRatingRepository ratingRepository;
+    private ReviewService reviewService;
+    private TourPackage tourPackage;
+
+    @BeforeEach
+    void setUp() {
+        reviewRepository = mock(ReviewRepository.class);
+        ratingRepository = mock(TourPackageRatingRepository.class);
+        reviewService = new ReviewService(reviewRepository, ratingRepository);
+        tourPackage = new TourPackage("Тур", "", null, 100, true, 5);
+        ReflectionTestUtils.setField(tourPackage, "id", 7L);
+    }
+
+    @Test
+    void addsRatingToAggregateWithSingleUpsert() {
+        reviewService.saveReview(new Review(null, tourPackage, 4, "Хорошо"));
+
+        verify(reviewRepository).save(any(Review.class));
+        verify(ratingRepository).addRating(7L, 4);
+        verify(ratingRepository, never()).save(any());
+    }
+
+    @Test
+    void backfillsAggregateFromExistingReviews() {
+        when(ratingRepository.findTourPackageIdsWithoutRating()).thenReturn(List.of(7L));
+        when(reviewRepository.countRatingsByTourPackageIds(List.of(7L)))
+                .thenReturn(List.of(new Object[]{7L, 5, 2L}, new Object[]{7L, 2, 1L}));
+
+        reviewService.backfillRatings();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<TourPackageRating>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(ratingRepository).saveAll(saved.capture());
+        TourPackageRating rating = saved.getValue().iterator().next();
+        assertEquals(3, rating.getReviewCount());
+        assertEquals(4.0, rating.getAverageRating());
+        assertEquals(Map.of(1, 0L, 2, 1L, 3, 0L, 4, 0L, 5, 2L), rating.getDistribution());
+    }
+
+    @Test
+    void pagesReviewsWithCursorOnDateAndId() {
+        LocalDateTime date = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(reviewRepository.findFirstPage(7L, Limit.of(3))).thenReturn(List.of(
+                review(30L, date, 5), review(20L, date, 4), review(10L, date.minusDays(1), 3)));
+        when(reviewRepository.findPageAfter(7L, date, 20L, Limit.of(3))).thenReturn(List.of(
+                review(10L, date.minusDays(1), 3)));
+
+        CursorPage<ReviewDto> first = reviewService.getReviewsPage(7L, null, 2);
+        CursorPage<ReviewDto> second = reviewService.getReviewsPage(7L, first.getNextCursor(), 2);
+
+        assertEquals(List.of(30L, 20L), first.getItems().stream().map(ReviewDto::getId).toList());
+        assertEquals(List.of(10L), second.getItems().stream().map(ReviewDto::getId).toList());
+        assertNull(second.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> reviewService.getReviewsPage(7L, "broken", 2));
+    }
+
+    @Test
+    void rejectsRatingOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reviewService.saveReview(new Review(null, tourPackage, 6, "")));
+        assertThrows(IllegalArgumentException.class,
+                () -> reviewService.saveReview(new Review(null, tourPackage, 0, "")));
+        verify(reviewRepository, never()).save(any());
+    }
+
+    private Review review(Long id, LocalDateTime date, int rating) {
+        User user = new User();
+        user.setUsername("user" + id);
+        Review review = new Review(user, tourPackage, rating, "");
+        review.setReviewDate(date);
+        ReflectionTestUtils.setField(review, "id", id);
+        return review;
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.tourist.services;
+
+import org.example.tourist.repositories.TourPackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Проверка резервирования мест при одновременном оформлении бронирований одного тура.
+ * Строка тура в базе эмулируется счётчиком, изменение которого, как и условный UPDATE, выполняется
+ * под блокировкой и занимает время обращения к базе.
+ */
+class SeatInventoryServiceTest {
+
+    private static final long TOUR_ID = 1L;
+    private static final int THREADS = 16;
+
+    /** Время удержания блокировки строки одним UPDATE-запросом */
+    private static final long ROW_LOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private TourPackageRepository tourPackageRepository;
+    private PlatformTransactionManager transactionManager;
+    private final AtomicInteger seatsInDatabase = new AtomicInteger();
+    private final AtomicInteger databaseCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        tourPackageRepository = mock(TourPackageRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        Object rowLock = new Object();
+        when(tourPackageRepository.takeSeats(eq(TOUR_ID), anyInt())).thenAnswer(invocation -> {
+            int seats = invocation.getArgument(1);
+            synchronized (rowLock) {
+                databaseCalls.incrementAndGet();
+                LockSupport.parkNanos(ROW_LOCK_NANOS);
+                if (seatsInDatabase.get() < seats) {
+                    return 0;
+                }
+                seatsInDatabase.addAndGet(-seats);
+                return 1;
+            }
+        });
+        when(tourPackageRepository.returnSeats(eq(TOUR_ID), anyInt())).thenAnswer(invocation -> {
+            synchronized (rowLock) {
+                seatsInDatabase.addAndGet(invocation.getArgument(1));
+                return 1;
+            }
+        });
+        when(tourPackageRepository.findSeatsLeft(TOUR_ID)).thenAnswer(invocation -> seatsInDatabase.get());
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        SeatInventoryService service = new SeatInventoryService(tourPackageRepository, transactionManager, 8, 16);
+        seatsInDatabase.set(5000);
+
+        int sold = reserveUntilSoldOut(service);
+
+        assertEquals(5000, sold);
+        assertEquals(0, seatsInDatabase.get());
+        assertEquals(0, service.getSeatsLeft(TOUR_ID));
+        assertFalse(service.reserve(TOUR_ID));
+        // Места забираются из базы партиями, а не по одному на каждое бронирование
+        assertTrue(databaseCalls.get() < 5000 / 4, "обращений к базе: " + databaseCalls.get());
+    }
+
+    @Test
+    void leasesNeedFewerDatabaseCallsThanRowPerReservation() throws Exception {
+        seatsInDatabase.set(20000);
+        int sold = reserveUntilSoldOut(new SeatInventoryService(tourPackageRepository, transactionManager, 8, 16));
+        int shardedCalls = databaseCalls.getAndSet(0);
+
+        seatsInDatabase.set(20000);
+        int soldByRow = reserveUntilSoldOut(new SeatInventoryService(tourPackageRepository, transactionManager, 1, 1));
+        int byRowCalls = databaseCalls.get();
+
+        assertEquals(20000, sold);
+        assertEquals(20000, soldByRow);
+        assertTrue(shardedCalls * 8 < byRowCalls, shardedCalls + " / " + byRowCalls);
+    }
+
+    @Test
+    void releasedSeatIsReservedAgain() {
+        SeatInventoryService service = new SeatInventoryService(tourPackageRepository, transactionManager, 4, 16);
+        seatsInDatabase.set(1);
+
+        assertTrue(service.reserve(TOUR_ID));
+        assertFalse(service.reserve(TOUR_ID));
+        service.release(TOUR_ID);
+
+        assertEquals(1, service.getSeatsLeft(TOUR_ID));
+        assertTrue(service.reserve(TOUR_ID));
+    }
+
+    @Test
+    void capacityChangeReturnsLeasedSeats() {
+        SeatInventoryService service = new SeatInventoryService(tourPackageRepository, transactionManager, 4, 16);
+        seatsInDatabase.set(100);
+
+        assertTrue(service.reserve(TOUR_ID));
+        assertEquals(84, seatsInDatabase.get());
+        service.onCapacityChanged(TOUR_ID, 100, 110);
+
+        assertEquals(109, seatsInDatabase.get());
+        assertEquals(109, service.getSeatsLeft(TOUR_ID));
+    }
+
+    /** Резервирует места из нескольких потоков, пока они не закончатся, и возвращает количество проданных мест */
+    private static int reserveUntilSoldOut(SeatInventoryService service) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int sold = 0;
+                    while (service.reserve(TOUR_ID)) {
+                        sold++;
+                    }
+                    return sold;
+                }));
+            }
+            start.countDown();
+            int sold = 0;
+            for (Future<Integer> result : results) {
+                sold += result.get(1, TimeUnit.MINUTES);
+            }
+            return sold;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.tourist.services;
+
+import org.example.tourist.FacetBucket;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TourPackageFacetIndexTest {
+
+    @Test
+    void countsFacetsWithoutOwnFilter() {
+        TourPackageFacetIndex index = index(List.of(
+                summary(1L, "А", 400, 3, true), summary(2L, "Б", 900, 5, true),
+                summary(3L, "В", 1500, 7, false), summary(4L, "Г", 6000, 10, true),
+                summary(5L, "Д", null, null, null)));
+
+        TourPackageFacetIndex.Selection selection = index.select(null, 1000, null, null, true, null);
+
+        assertEquals(List.of(1L, 2L), ids(selection.page(TourPackageSortField.NAME, true, null, null, 10)));
+        // Фасет цены не учитывает фильтр по цене, но учитывает фильтр по доступности
+        assertEquals(List.of(1L, 1L, 0L, 0L, 1L), counts(selection.priceFacets()));
+        assertEquals(List.of(1L, 1L, 0L, 0L), counts(selection.durationFacets()));
+        assertEquals(2, selection.availableCount());
+        assertEquals(0, selection.unavailableCount());
+        assertEquals(List.of(2L), ids(index.select(null, null, null, null, null, new long[]{2L, 42L})
+                .page(TourPackageSortField.PRICE, false, null, null, 10)));
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomChanges() {
+        Random random = new Random(7);
+        TourPackageFacetIndex index = index(List.of());
+        TreeMap<Long, TourPackageSummary> packages = new TreeMap<>();
+
+        for (int step = 0; step < 500; step++) {
+            long id = 1 + random.nextInt(80);
+            if (random.nextInt(5) == 0) {
+                index.onTourPackageDeleted(id);
+                packages.remove(id);
+            } else {
+                TourPackage tourPackage = new TourPackage("Тур " + random.nextInt(20), "", null,
+                        random.nextInt(10) == 0 ? null : 100 * random.nextInt(70),
+                        random.nextInt(10) == 0 ? null : random.nextBoolean(),
+                        random.nextInt(10) == 0 ? null : 1 + random.nextInt(20));
+                ReflectionTestUtils.setField(tourPackage, "id", id);
+                index.onTourPackageSaved(tourPackage);
+                packages.put(id, new TourPackageSummary(id, tourPackage.getName(), tourPackage.getPrice(),
+                        tourPackage.getDuration(), tourPackage.getAvailability(), null));
+            }
+
+            Integer minPrice = random.nextBoolean() ? 100 * random.nextInt(70) : null;
+            Integer maxDuration = random.nextBoolean() ? random.nextInt(20) : null;
+            Boolean availability = random.nextInt(3) == 0 ? null : random.nextBoolean();
+            TourPackageSortField sortField = TourPackageSortField.values()[random.nextInt(4)];
+            boolean ascending = random.nextBoolean();
+            Predicate<TourPackageSummary> filter = p -> (minPrice == null || p.getPrice() != null && p.getPrice() >= minPrice)
+                    && (maxDuration == null || p.getDuration() != null && p.getDuration() <= maxDuration)
+                    && (availability == null || availability.equals(p.getAvailability()));
+            Comparator<TourPackageSummary> order = Comparator.<TourPackageSummary, Object>comparing(
+                    sortField::extractValue, TourPackageSortField::compareValues)
+                    .thenComparing(TourPackageSummary::getId);
+            List<Long> expected = packages.values().stream().filter(filter)
+                    .sorted(ascending ? order : order.reversed())
+                    .map(TourPackageSummary::getId)
+                    .collect(Collectors.toList());
+
+            TourPackageFacetIndex.Selection selection = index.select(minPrice, null, null, maxDuration, availability, null);
+            List<Long> actual = new ArrayList<>();
+            List<TourPackageSummary> page = selection.page(sortField, ascending, null, null, 7);
+            while (!page.isEmpty()) {
+                page.forEach(p -> actual.add(p.getId()));
+                TourPackageSummary last = page.get(page.size() - 1);
+                page = selection.page(sortField, ascending, sortField.extractValue(last), last.getId(), 7);
+            }
+            assertEquals(expected, actual, "step " + step);
+            assertEquals(packages.values().stream()
+                            .filter(p -> (minPrice == null || p.getPrice() != null && p.getPrice() >= minPrice)
+                                    && (maxDuration == null || p.getDuration() != null && p.getDuration() <= maxDuration))
+                            .filter(p -> Boolean.TRUE.equals(p.getAvailability())).count(),
+                    selection.availableCount());
+        }
+    }
+
+    private static TourPackageFacetIndex index(List<TourPackageSummary> summaries) {
+        TourPackageRepository repository = mock(TourPackageRepository.class);
+        when(repository.findSummaryBatch(eq(0L), anyInt())).thenReturn(new ArrayList<>(summaries));
+        TourPackageFacetIndex index = new TourPackageFacetIndex(repository, new int[]{500, 1000, 2000, 5000}, new int[]{4, 8, 15});
+        index.rebuild();
+        return index;
+    }
+
+    private static TourPackageSummary summary(Long id, String name, Integer price, Integer duration, Boolean availability) {
+        return new TourPackageSummary(id, name, price, duration, availability, null);
+    }
+
+    private static List<Long> ids(List<TourPackageSummary> summaries) {
+        return summaries.stream().map(TourPackageSummary::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> counts(List<FacetBucket> buckets) {
+        return buckets.stream().map(FacetBucket::getCount).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.tourist.services;
+
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TourPackageSearchIndexTest {
+
+    private TourPackageSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        TourPackageRepository repository = mock(TourPackageRepository.class);
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                tourPackage(1L, "Выходные в Париже", "Прогулки по Парижу и Лувр", 500),
+                tourPackage(2L, "Отдых на море", "Пляжи, солнце и экскурсия в Париж", 300),
+                tourPackage(3L, "Горы Кавказа", "Походы и ночёвки в палатках", 200),
+                tourPackage(4L, "Beach holidays", "Sunny beaches and city tours", 400)));
+        index = new TourPackageSearchIndex(repository);
+        index.rebuild();
+    }
+
+    @Test
+    void matchesWordFormsAndRanksNameMatchesFirst() {
+        List<Long> ids = search("париж", null, false);
+
+        assertEquals(List.of(1L, 2L), ids);
+        assertEquals(List.of(4L), search("beach city", null, false));
+        assertEquals(List.of(3L), search("ночевка в горах", null, false));
+        assertTrue(search("париж море горы", null, false).isEmpty());
+    }
+
+    @Test
+    void sortsMatchesByFieldWhenRequested() {
+        assertEquals(List.of(2L, 1L), search("париж", TourPackageSortField.PRICE, true));
+        assertEquals(List.of(1L, 2L), search("париж", TourPackageSortField.PRICE, false));
+    }
+
+    @Test
+    void appliesUpdatesAndRemovals() {
+        index.onTourPackageSaved(tourPackage(3L, "Горы и Париж", "Новый маршрут", 200));
+        index.onTourPackageDeleted(1L);
+
+        assertEquals(List.of(3L, 2L), search("париж", null, false));
+        assertTrue(search("палатка", null, false).isEmpty());
+    }
+
+    @Test
+    void pagesThroughResultsWithCursor() {
+        for (long id = 10; id < 60; id++) {
+            index.onTourPackageSaved(tourPackage(id, "Тур " + id, "Экскурсии по Парижу, день " + (id % 7), (int) id));
+        }
+        Set<Long> seen = new HashSet<>();
+        List<TourPackageSearchIndex.SearchHit> page = index.search("париж", null, false, null, null, 7, null);
+        while (!page.isEmpty()) {
+            page.forEach(hit -> assertTrue(seen.add(hit.getSummary().getId())));
+            TourPackageSearchIndex.SearchHit last = page.get(page.size() - 1);
+            page = index.search("париж", null, false, last.getScore(), last.getSummary().getId(), 7, null);
+        }
+        assertEquals(52, seen.size());
+    }
+
+    private List<Long> search(String query, TourPackageSortField sortField, boolean ascending) {
+        return index.search(query, sortField, ascending, null, null, 100, null).stream()
+                .map(hit -> hit.getSummary().getId())
+                .collect(Collectors.toList());
+    }
+
+    private static TourPackage tourPackage(Long id, String name, String description, int price) {
+        TourPackage tourPackage = new TourPackage(name, description, null, price, true, 5);
+        ReflectionTestUtils.setField(tourPackage, "id", id);
+        return tourPackage;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.tourist.services;
+
+import org.example.tourist.CatalogPage;
+import org.example.tourist.CatalogQuery;
+import org.example.tourist.TourPackageSortField;
+import org.example.tourist.TourPackageSummary;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.TourPackageRatingRepository;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TourPackageServiceCursorTest {
+
+    private TourPackageRepository tourPackageRepository;
+    private TourPackageSearchIndex searchIndex;
+    private TourPackageService tourPackageService;
+
+    @BeforeEach
+    void setUp() {
+        tourPackageRepository = mock(TourPackageRepository.class);
+        searchIndex = mock(TourPackageSearchIndex.class);
+        TourPackageFacetIndex facetIndex = mock(TourPackageFacetIndex.class);
+        tourPackageService = new TourPackageService(tourPackageRepository, mock(BookingRepository.class),
+                mock(ArchivedBookingRepository.class), mock(TourPackageRatingRepository.class), searchIndex,
+                mock(TourPackageSuggestIndex.class), facetIndex, mock(SeatInventoryService.class), List.of(),
+                100, 300, 100, 60);
+    }
+
+    @Test
+    void relevanceCursorRestartsFromFirstPageWhileIndexIsRebuilt() {
+        List<TourPackageSearchIndex.SearchHit> hits = List.of(
+                new TourPackageSearchIndex.SearchHit(summary(1L, "Альпы"), 2.0),
+                new TourPackageSearchIndex.SearchHit(summary(2L, "Альпы зимой"), 1.0));
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(eq("альпы"), isNull(), anyBoolean(), any(), any(), anyInt(), any())).thenReturn(hits);
+        String relevanceCursor = tourPackageService.searchTourPackages(query(null)).getNextCursor();
+        assertNotNull(relevanceCursor);
+
+        // Индекс перестраивается: сортировка по релевантности заменяется сортировкой по названию
+        when(searchIndex.isReady()).thenReturn(false);
+        when(tourPackageRepository.findPage(any(), eq(TourPackageSortField.NAME), eq(true), isNull(), isNull(), anyInt()))
+                .thenReturn(List.of(summary(1L, "Альпы")));
+
+        CatalogPage page = tourPackageService.searchTourPackages(query(relevanceCursor));
+
+        assertEquals(1L, page.getItems().get(0).getId());
+    }
+
+    @Test
+    void foreignCursorIsRejectedForExplicitSort() {
+        when(tourPackageRepository.findPage(any(), eq(TourPackageSortField.PRICE), anyBoolean(), any(), any(), anyInt()))
+                .thenReturn(List.of(summary(1L, "Альпы"), summary(2L, "Байкал")));
+        CatalogQuery byPrice = query(null);
+        byPrice.setSort("price");
+        byPrice.setSize(1);
+        String priceCursor = tourPackageService.searchTourPackages(byPrice).getNextCursor();
+
+        CatalogQuery byName = query(priceCursor);
+        byName.setSort("name");
+
+        assertThrows(IllegalArgumentException.class, () -> tourPackageService.searchTourPackages(byName));
+    }
+
+    private static CatalogQuery query(String cursor) {
+        CatalogQuery catalogQuery = new CatalogQuery();
+        catalogQuery.setName("альпы");
+        catalogQuery.setSize(1);
+        catalogQuery.setCursor(cursor);
+        return catalogQuery;
+    }
+
+    private static TourPackageSummary summary(Long id, String name) {
+        return new TourPackageSummary(id, name, 1000, 7, true, null);
+    }
+}
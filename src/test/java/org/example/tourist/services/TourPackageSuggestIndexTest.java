@@ -0,0 +1,124 @@
+package org.example.tourist.services;
+
+import org.example.tourist.TourPackageSuggestion;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.TourPackageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TourPackageSuggestIndexTest {
+
+    @Test
+    void completesWordStartsRankedByPopularity() {
+        TourPackageSuggestIndex index = index(
+                List.of(new Object[]{1L, "Выходные в Париже"}, new Object[]{2L, "Париж и Лондон"},
+                        new Object[]{3L, "Парусная регата"}, new Object[]{4L, "Горы Кавказа"}),
+                List.of(new Object[]{3L, 7L}, new Object[]{1L, 3L}));
+
+        assertEquals(List.of(3L, 1L, 2L), ids(index.suggest("пар", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.suggest("ПАРИЖ", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("париж и", 10)));
+        assertEquals(List.of(3L), ids(index.suggest("пар", 1)));
+        assertEquals(List.of(), ids(index.suggest("лондон париж", 10)));
+    }
+
+    @Test
+    void countsArchivedBookingsInPopularity() {
+        TourPackageSuggestIndex index = index(
+                List.of(new Object[]{1L, "Париж"}, new Object[]{2L, "Парма"}, new Object[]{3L, "Паром"}),
+                List.of(new Object[]{1L, 3L}, new Object[]{2L, 2L}),
+                List.of(new Object[]{2L, 5L}, new Object[]{3L, 4L}));
+
+        assertEquals(List.of(2L, 3L, 1L), ids(index.suggest("пар", 10)));
+    }
+
+    @Test
+    void followsRenamesAndDeletions() {
+        TourPackageSuggestIndex index = index(
+                List.of(new Object[]{1L, "Париж"}, new Object[]{2L, "Парма"}), List.of());
+
+        index.onTourPackageSaved(tourPackage(1L, "Лондон"));
+        index.onTourPackageSaved(tourPackage(5L, "Паром на Готланд"));
+        index.onTourPackageDeleted(2L);
+
+        assertEquals(List.of(5L), ids(index.suggest("пар", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("лон", 10)));
+        assertEquals(List.of(5L), ids(index.suggest("гот", 10)));
+    }
+
+    @Test
+    void matchesBruteForceUnderRandomChanges() {
+        Random random = new Random(42);
+        String[] words = {"пар", "париж", "парма", "паром", "рим", "римини", "рига", "море", "мор", "горы"};
+        TourPackageSuggestIndex index = index(List.of(), List.of());
+        Map<Long, String> names = new HashMap<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            long id = random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                index.onTourPackageDeleted(id);
+                names.remove(id);
+            } else {
+                String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                index.onTourPackageSaved(tourPackage(id, name));
+                names.put(id, name);
+            }
+            String prefix = words[random.nextInt(words.length)].substring(0, 1 + random.nextInt(3));
+            assertEquals(bruteForce(names, prefix), ids(index.suggest(prefix, 10)), "prefix " + prefix);
+        }
+    }
+
+    private static List<Long> bruteForce(Map<Long, String> names, String prefix) {
+        return names.entrySet().stream()
+                .filter(e -> List.of(e.getValue().toLowerCase(Locale.ROOT).split(" ")).stream()
+                        .anyMatch(word -> word.startsWith(prefix)))
+                .sorted(Map.Entry.<Long, String>comparingByValue(String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(10)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private static TourPackageSuggestIndex index(List<Object[]> names, List<Object[]> bookingCounts) {
+        return index(names, bookingCounts, List.of());
+    }
+
+    private static TourPackageSuggestIndex index(List<Object[]> names, List<Object[]> bookingCounts,
+                                                 List<Object[]> archivedCounts) {
+        TourPackageRepository tourPackageRepository = mock(TourPackageRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        ArchivedBookingRepository archivedBookingRepository = mock(ArchivedBookingRepository.class);
+        when(tourPackageRepository.findAllIdsAndNames()).thenReturn(new ArrayList<>(names));
+        when(bookingRepository.countBookingsPerTourPackage()).thenReturn(new ArrayList<>(bookingCounts));
+        when(archivedBookingRepository.countBookingsPerTourPackage()).thenReturn(new ArrayList<>(archivedCounts));
+        TourPackageSuggestIndex index = new TourPackageSuggestIndex(tourPackageRepository, bookingRepository,
+                archivedBookingRepository, 10);
+        index.rebuild();
+        return index;
+    }
+
+    private static List<Long> ids(List<TourPackageSuggestion> suggestions) {
+        return suggestions.stream().map(TourPackageSuggestion::getId).collect(Collectors.toList());
+    }
+
+    private static TourPackage tourPackage(Long id, String name) {
+        TourPackage tourPackage = new TourPackage(name, "", null, 100, true, 5);
+        ReflectionTestUtils.setField(tourPackage, "id", id);
+        return tourPackage;
+    }
+}
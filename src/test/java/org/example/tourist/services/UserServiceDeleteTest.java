@@ -0,0 +1,79 @@
+package org.example.tourist.services;
+
+import org.example.tourist.BookingStatus;
+import org.example.tourist.BoundedPasswordEncoder;
+import org.example.tourist.JpaTestSupport;
+import org.example.tourist.models.Booking;
+import org.example.tourist.models.TourPackage;
+import org.example.tourist.models.User;
+import org.example.tourist.repositories.ArchivedBookingRepository;
+import org.example.tourist.repositories.BookingRepository;
+import org.example.tourist.repositories.RoleRepository;
+import org.example.tourist.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Удаление пользователя вместе с его бронированиями.
+ */
+@Import({BookingServicesTestConfiguration.class, ReviewService.class})
+class UserServiceDeleteTest extends JpaTestSupport {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    private UserService userService;
+    private User user;
+    private TourPackage limited;
+    private Booking confirmed;
+    private Booking cancelled;
+
+    @BeforeEach
+    void setUp() {
+        userService = new UserService(userRepository, roleRepository, mock(BoundedPasswordEncoder.class),
+                archivedBookingRepository, bookingRepository, seatInventoryService,
+                mock(CustomUserDetailsService.class), reviewService, transactionManager, Runnable::run);
+        user = persistUser("deleted-user");
+        limited = persistTourPackage("Тур с местами", 500, 10, 5);
+        TourPackage unlimited = persistTourPackage("Тур без ограничения", 300);
+        confirmed = persistBooking(user, List.of(limited, unlimited), new Date(), 800, BookingStatus.CONFIRMED);
+        cancelled = persistBooking(user, List.of(limited), new Date(), 500, BookingStatus.CANCELLED);
+        flushAndClear();
+    }
+
+    @Test
+    void returnsSeatsOfActiveBookingsBeforeDeletingThem() {
+        userService.deleteUser(user.getId());
+        flushAndClear();
+
+        assertNull(entityManager.find(User.class, user.getId()));
+        assertNull(entityManager.find(Booking.class, confirmed.getId()));
+        assertNull(entityManager.find(Booking.class, cancelled.getId()));
+        // Место подтверждённого бронирования вернулось в продажу, отменённого — нет
+        assertEquals(6, entityManager.find(TourPackage.class, limited.getId()).getSeatsLeft());
+    }
+}